@@ -0,0 +1,68 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar; takes the usual JMH options
+ * Unless -rf/-rff are given, results are written as JSON to results/&lt;label&gt;.json, where the label
+ * is -Dbenchmarks.label, else the current commit, so two runs can be compared with ResultsDiff.
+ */
+public final class BenchmarkRunner {
+
+    private static final Path RESULTS_DIR = Path.of("results");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            Files.createDirectories(RESULTS_DIR);
+            options.result(RESULTS_DIR.resolve(label() + ".json").toString());
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static String label() {
+        String label = System.getProperty("benchmarks.label");
+        if (label != null && !label.isBlank()) {
+            return label;
+        }
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true)
+                    .start();
+            String commit = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (git.waitFor() == 0 && !commit.isEmpty()) {
+                return commit;
+            }
+        } catch (IOException ex) {
+            // Not a checkout or no git; fall back to a timestamp
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.benchmarks;
+
+import com.example.productservice.ProductServiceApplication;
+import com.example.userservice.UserServiceApplication;
+import jakarta.servlet.Filter;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Boots the services against seeded in-memory H2 databases
+ * Each service loads its own *-bench.yml instead of application.yml, so both can share one classpath;
+ * the seed scripts under bench/ run before the ready event, so caches and indexes build as in production
+ */
+public final class BenchmarkServices {
+
+    /** Rows in bench/user-data.sql; ids run from 1 and userIds from FIRST_USER_ID */
+    public static final int USERS = 20_000;
+
+    public static final long FIRST_USER_ID = 100_001;
+
+    /** Rows in bench/product-data.sql; ids run from 1 and SKUs are SKU-000001 onwards */
+    public static final int PRODUCTS = 20_000;
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+
+    private BenchmarkServices() {
+    }
+
+    /**
+     * Start the user service; properties are key=value overrides of user-bench.yml
+     */
+    public static ConfigurableApplicationContext startUserService(String... properties) {
+        return start(UserServiceApplication.class, "user-bench", properties);
+    }
+
+    /**
+     * Start the product service; properties are key=value overrides of product-bench.yml
+     */
+    public static ConfigurableApplicationContext startProductService(String... properties) {
+        return start(ProductServiceApplication.class, "product-bench", properties);
+    }
+
+    /**
+     * MockMvc over the whole servlet stack, including the service's filters in their configured order
+     */
+    public static MockMvc mockMvc(ConfigurableApplicationContext context) {
+        Filter[] filters = context.getBeanProvider(Filter.class).orderedStream().toArray(Filter[]::new);
+        return MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(filters)
+                .build();
+    }
+
+    /**
+     * Wait for a component that builds in the background, such as the product catalog
+     */
+    public static void awaitReady(BooleanSupplier ready, String what) {
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (!ready.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(what + " not ready after " + READY_TIMEOUT);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + what, ex);
+            }
+        }
+    }
+
+    public static long randomUserPk() {
+        return ThreadLocalRandom.current().nextLong(1, USERS + 1);
+    }
+
+    public static long randomUserId() {
+        return FIRST_USER_ID + ThreadLocalRandom.current().nextLong(USERS);
+    }
+
+    public static String randomEmail() {
+        return "user" + ThreadLocalRandom.current().nextInt(1, USERS + 1) + "@example.com";
+    }
+
+    public static long randomProductId() {
+        return ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1);
+    }
+
+    public static String randomSku() {
+        return String.format("SKU-%06d", ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1));
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> application, String configName,
+                                                        String... properties) {
+        String[] args = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            args[i] = "--" + properties[i];
+        }
+        return new SpringApplicationBuilder(application)
+                .properties("spring.config.name=" + configName)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.dto.ProductCatalogView;
+import com.example.productservice.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to a ready catalog over one million products: mapping the snapshot file and replaying the
+ * rows changed since it was written, against streaming the whole products table
+ * Single shots, since each load replaces the whole catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogWarmStartBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ProductCatalog productCatalog;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("catalog-snapshot");
+        // Loaded by the benchmarks below rather than on the ready event
+        context = BenchmarkServices.startProductService(
+                "spring.sql.init.data-locations=classpath:bench/product-data-1m.sql",
+                "product.catalog.enabled=false",
+                "product.catalog.snapshot-file=" + directory.resolve("catalog.snapshot"),
+                "product.suggest.enabled=false",
+                "product.search.enabled=false");
+        productCatalog = context.getBean(ProductCatalog.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        loadFromTable();
+        productCatalog.writeSnapshot();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public int loadFromSnapshot() {
+        Boolean restored = transactionTemplate.execute(status -> productCatalog.restoreSnapshot());
+        if (!Boolean.TRUE.equals(restored)) {
+            throw new IllegalStateException("Catalog snapshot was not restored");
+        }
+        return productCatalog.size();
+    }
+
+    @Benchmark
+    public int loadFromTable() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProductCatalogView> rows = productRepository.streamCatalogRows()) {
+                productCatalog.rebuild(rows);
+            }
+        });
+        return productCatalog.size();
+    }
+}
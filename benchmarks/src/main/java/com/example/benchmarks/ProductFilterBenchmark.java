@@ -0,0 +1,79 @@
+package com.example.benchmarks;
+
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.dto.FacetedProductPage;
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.model.Product;
+import com.example.productservice.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtered and faceted product pages, answered by the in-memory catalog or by SQL
+ * Sampled so the results carry p50/p99 as well as the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean catalog;
+
+    private final ProductFilter filter = ProductFilter.builder()
+            .categoryId(3L)
+            .minPrice(new BigDecimal("50.00"))
+            .maxPrice(new BigDecimal("500.00"))
+            .active(true)
+            .build();
+
+    private final Pageable firstPage = PageRequest.of(0, 20, Sort.by("price"));
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startProductService("product.catalog.enabled=" + catalog);
+        productService = context.getBean(ProductService.class);
+        if (catalog) {
+            BenchmarkServices.awaitReady(context.getBean(ProductCatalog.class)::isReady, "Product catalog");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Product> filterProducts() {
+        return productService.filterProducts(filter, firstPage);
+    }
+
+    @Benchmark
+    public FacetedProductPage filterProductsWithFacets() {
+        return productService.filterProductsWithFacets(filter, firstPage);
+    }
+}
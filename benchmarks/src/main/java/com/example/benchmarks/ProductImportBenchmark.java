@@ -0,0 +1,100 @@
+package com.example.benchmarks;
+
+import com.example.productservice.dto.ImportReport;
+import com.example.productservice.io.DataFormat;
+import com.example.productservice.model.Product;
+import com.example.productservice.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of the CSV import against one createProduct call per row
+ * H2 has no COPY, so the import runs its JDBC batch path; every invocation writes fresh SKUs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductImportBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final String CSV_HEADER = "name,description,price,stockQuantity,sku,brand,active\n";
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long batch;
+    private byte[] csv;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        // The catalog would reload in the background after every import
+        context = BenchmarkServices.startProductService("product.catalog.enabled=false");
+        productService = context.getBean(ProductService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        batch++;
+        StringBuilder body = new StringBuilder(CSV_HEADER);
+        products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String sku = "IMP-" + batch + "-" + i;
+            body.append("Imported ").append(i).append(",Imported product,19.99,10,")
+                    .append(sku).append(",Brand 1,true\n");
+            Product product = new Product();
+            product.setName("Created " + i);
+            product.setDescription("Created product");
+            product.setPrice(new BigDecimal("19.99"));
+            product.setStockQuantity(10);
+            product.setSku("NEW-" + batch + "-" + i);
+            product.setBrand("Brand 1");
+            product.setActive(true);
+            products.add(product);
+        }
+        csv = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportReport importCsv() throws IOException {
+        return productService.importProducts(new ByteArrayInputStream(csv), DataFormat.CSV);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void createProductPerRow(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(productService.createProduct(product));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.benchmarks;
+
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.dto.BatchLookupResult;
+import com.example.productservice.model.Product;
+import com.example.productservice.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductServiceImpl against 20,000 seeded products in 20 categories
+ * Point lookups go through the product cache; the list reads always hit the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductServiceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int PAGE_SIZE = 20;
+
+    // Matches about a dozen names
+    private static final String SEARCH_TERM = "product 123";
+
+    // About 1% of the catalog
+    private static final BigDecimal MIN_PRICE = new BigDecimal("100.00");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("109.99");
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startProductService();
+        productService = context.getBean(ProductService.class);
+        ProductCatalog catalog = context.getBean(ProductCatalog.class);
+        BenchmarkServices.awaitReady(catalog::isReady, "Product catalog");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Product> getProductById() {
+        return productService.getProductById(BenchmarkServices.randomProductId());
+    }
+
+    @Benchmark
+    public Optional<Product> getProductBySku() {
+        return productService.getProductBySku(BenchmarkServices.randomSku());
+    }
+
+    @Benchmark
+    public List<Product> searchProductsByName() {
+        return productService.searchProductsByName(SEARCH_TERM);
+    }
+
+    @Benchmark
+    public List<Product> getProductsByPriceRange() {
+        return productService.getProductsByPriceRange(MIN_PRICE, MAX_PRICE);
+    }
+
+    @Benchmark
+    public Page<Product> getProductsPaginated() {
+        int page = ThreadLocalRandom.current().nextInt(BenchmarkServices.PRODUCTS / PAGE_SIZE);
+        return productService.getProductsPaginated(PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public BatchLookupResult<Long, Product> getProductsByIds() {
+        return productService.getProductsByIds(randomIds());
+    }
+
+    /**
+     * The same lookups as getProductsByIds, one call each
+     */
+    @Benchmark
+    public void getProductByIdSequential(Blackhole blackhole) {
+        for (Long id : randomIds()) {
+            blackhole.consume(productService.getProductById(id));
+        }
+    }
+
+    private static List<Long> randomIds() {
+        List<Long> ids = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ids.add(BenchmarkServices.randomProductId());
+        }
+        return ids;
+    }
+}
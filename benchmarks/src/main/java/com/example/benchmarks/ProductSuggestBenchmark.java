@@ -0,0 +1,65 @@
+package com.example.benchmarks;
+
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.model.Product;
+import com.example.productservice.service.ProductService;
+import com.example.productservice.suggest.ProductSuggester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead suggestions from the prefix index against the name search the search box used before
+ * The prefixes match nearly every product, about a hundred products, and a single SKU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductSuggestBenchmark {
+
+    private static final int LIMIT = 10;
+
+    @Param({"p", "product 12", "sku-000123"})
+    public String prefix;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startProductService("product.catalog.enabled=false");
+        productService = context.getBean(ProductService.class);
+        BenchmarkServices.awaitReady(context.getBean(ProductSuggester.class)::isReady, "Product suggester");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> suggestProducts() {
+        return productService.suggestProducts(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<Product> searchProductsByName() {
+        return productService.searchProductsByName(prefix);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.model.Product;
+import com.example.productservice.search.ProductSearchIndex;
+import com.example.productservice.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over one million products: the BM25 index against a LIKE scan per word
+ * The queries match a common name word pair, a rare description word, and three words across fields.
+ * The LIKE scan is unranked and stops at the first page, so it is the cheapest the database can do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductTextSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"wireless speaker", "titanium", "portable charger usb"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductSearchIndex productSearchIndex;
+    private JdbcTemplate jdbcTemplate;
+    private String likeSql;
+    private Object[] likeArgs;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startProductService(
+                "spring.sql.init.data-locations=classpath:bench/product-data-1m.sql",
+                "product.catalog.enabled=false",
+                "product.suggest.enabled=false");
+        productService = context.getBean(ProductService.class);
+        productSearchIndex = context.getBean(ProductSearchIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkServices.awaitReady(productSearchIndex::isReady, "Product search index");
+
+        StringBuilder sql = new StringBuilder("SELECT id FROM products WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.ROOT).split(" ")) {
+            sql.append(" AND LOWER(name || ' ' || COALESCE(brand, '') || ' ' || COALESCE(description, ''))"
+                    + " LIKE ?");
+            args.add("%" + word + "%");
+        }
+        likeSql = sql.append(" LIMIT ").append(PAGE_SIZE).toString();
+        likeArgs = args.toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Ranking only, without loading the page's rows */
+    @Benchmark
+    public ProductSearchIndex.Result searchIndex() {
+        return productSearchIndex.search(query, new ProductFilter(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Product> searchProducts() {
+        return productService.searchProducts(query, new ProductFilter(), PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Long> likeScan() {
+        return jdbcTemplate.queryForList(likeSql, Long.class, likeArgs);
+    }
+}
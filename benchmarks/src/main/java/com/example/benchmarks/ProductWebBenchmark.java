@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Product endpoints through filters, controller and message converter, with and without Server-Timing
+ * The 1000-product page is past the converter's buffer and is streamed. The whole servlet stack
+ * takes longer to compile than a single method, hence the longer warmup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductWebBenchmark {
+
+    @Param({"true", "false"})
+    public boolean serverTiming;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        // No background index builds competing with the measured requests
+        context = BenchmarkServices.startProductService(
+                "product.server-timing.enabled=" + serverTiming,
+                "product.catalog.enabled=false",
+                "product.suggest.enabled=false",
+                "product.search.enabled=false");
+        mockMvc = BenchmarkServices.mockMvc(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getProductById() throws Exception {
+        return mockMvc.perform(get("/api/products/{id}", BenchmarkServices.randomProductId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getProductsPage() throws Exception {
+        int page = ThreadLocalRandom.current().nextInt(BenchmarkServices.PRODUCTS / 20);
+        return mockMvc.perform(get("/api/products/page")
+                        .param("page", Integer.toString(page))
+                        .param("size", "20")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] getProductsLargePage() throws Exception {
+        int page = ThreadLocalRandom.current().nextInt(BenchmarkServices.PRODUCTS / 1000);
+        return mockMvc.perform(get("/api/products/page")
+                        .param("page", Integer.toString(page))
+                        .param("size", "1000")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark
+ * A change is flagged when the two scores are further apart than their combined error margins.
+ * Usage: java -cp benchmarks.jar com.example.benchmarks.ResultsDiff baseline.json current.json
+ */
+public final class ResultsDiff {
+
+    private static final String ROW_FORMAT = "%-70s %-7s %14s %14s %-8s %9s %s%n";
+
+    private ResultsDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultsDiff <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = read(objectMapper, Path.of(args[0]));
+        Map<String, JsonNode> current = read(objectMapper, Path.of(args[1]));
+
+        System.out.printf(ROW_FORMAT, "Benchmark", "Mode", "Baseline", "Current", "Units", "Change", "");
+        current.forEach((key, result) -> {
+            JsonNode before = baseline.get(key);
+            JsonNode metric = result.get("primaryMetric");
+            double score = metric.get("score").asDouble();
+            if (before == null) {
+                System.out.printf(ROW_FORMAT, key, result.get("mode").asText(), "-", format(score),
+                        metric.get("scoreUnit").asText(), "new", "");
+                return;
+            }
+            JsonNode beforeMetric = before.get("primaryMetric");
+            double beforeScore = beforeMetric.get("score").asDouble();
+            double margin = errorOf(metric) + errorOf(beforeMetric);
+            String change = beforeScore == 0 ? "-"
+                    : String.format("%+.1f%%", (score - beforeScore) * 100 / beforeScore);
+            System.out.printf(ROW_FORMAT, key, result.get("mode").asText(), format(beforeScore), format(score),
+                    metric.get("scoreUnit").asText(), change, Math.abs(score - beforeScore) > margin ? "*" : "");
+        });
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> {
+                    JsonNode before = baseline.get(key);
+                    System.out.printf(ROW_FORMAT, key, before.get("mode").asText(),
+                            format(before.get("primaryMetric").get("score").asDouble()), "-", "", "removed", "");
+                });
+    }
+
+    /**
+     * Results by benchmark name plus parameters, such as ProductFilterBenchmark.filterProducts:catalog=true
+     */
+    private static Map<String, JsonNode> read(ObjectMapper objectMapper, Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : objectMapper.readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replace(ResultsDiff.class.getPackageName() + ".", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Map<String, String> sorted = new TreeMap<>();
+                params.fields().forEachRemaining(param -> sorted.put(param.getKey(), param.getValue().asText()));
+                sorted.forEach((name, value) -> key.append(':').append(name).append('=').append(value));
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double errorOf(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(double score) {
+        return String.format("%.3f", score);
+    }
+}
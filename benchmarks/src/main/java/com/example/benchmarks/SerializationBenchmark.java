@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.userservice.model.UserProfile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of UserProfile and Product lists as the list endpoints return them
+ * The mapper is configured like Spring Boot's, with ISO dates; no database or context is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<UserProfile> userProfiles;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Category 1");
+        category.setDescription("Benchmark category 1");
+        category.setActive(true);
+        category.setCreatedAt(timestamp);
+        category.setUpdatedAt(timestamp);
+
+        userProfiles = new ArrayList<>(size);
+        products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            userProfiles.add(new UserProfile((long) i, BenchmarkServices.FIRST_USER_ID + i, "Olivia" + i % 200,
+                    "Smith", "user" + i + "@example.com", "555-" + i, i + " Main Street", "City " + i % 500,
+                    "State " + i % 50, "Country " + i % 20, "12345", timestamp, timestamp, 0L));
+            products.add(new Product((long) i, "Product " + i,
+                    "Benchmark product " + i + " with a description of typical length for the catalog pages",
+                    BigDecimal.valueOf(i * 37L % 100_000, 2), i % 500, String.format("SKU-%06d", i),
+                    "Brand " + i % 50, category, "https://cdn.example.com/products/" + i + ".jpg", true,
+                    timestamp, timestamp, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] userProfiles() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userProfiles);
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
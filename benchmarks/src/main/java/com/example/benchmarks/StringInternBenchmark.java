@@ -0,0 +1,70 @@
+package com.example.benchmarks;
+
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading all 20,000 user profiles with and without the string pool for city, state and country
+ * Setup prints the heap the loaded list retains after a full GC, which is what a cache or a large
+ * list response holds on to; the benchmark times the load, so the pool's cost at hydration shows too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class StringInternBenchmark {
+
+    @Param({"true", "false"})
+    public boolean interned;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startUserService("user.intern.enabled=" + interned);
+        userService = context.getBean(UserService.class);
+
+        long baseline = usedHeap();
+        List<UserProfile> profiles = userService.findAll();
+        long retained = usedHeap() - baseline;
+        System.out.printf("%nInterned %s: %,d profiles retain %,d bytes (%,d per profile)%n",
+                interned, profiles.size(), retained, retained / profiles.size());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserProfile> findAll() {
+        return userService.findAll();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.benchmarks;
+
+import com.example.userservice.dto.UserKeyView;
+import com.example.userservice.lookup.UserKeyIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * userId and email to id resolution: the off-heap key index against the two Caffeine key caches
+ * UserCache used before it, built the same way (maximumSize, expireAfterWrite, recordStats).
+ * Every user's keys are offered to both sides. Setup prints the heap each side retains after a
+ * full GC (about 10 MB of noise, clamped at zero), the direct memory of the key index and the
+ * share of sampled keys each side still resolves; a key cache miss is a userId or email query
+ * in the service. No database or context is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:MaxDirectMemorySize=1g"})
+public class UserKeyIndexBenchmark {
+
+    private static final int SAMPLES = 4096;
+
+    @Param({"1000000"})
+    private int users;
+
+    /** user.cache.maximum-size; 10000 is the service default */
+    @Param({"10000", "1000000"})
+    private long cacheSize;
+
+    private UserKeyIndex userKeyIndex;
+    private Cache<Long, Long> idByUserId;
+    private Cache<String, Long> idByEmail;
+    private final long[] sampleUserIds = new long[SAMPLES];
+    private final String[] sampleEmails = new String[SAMPLES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long baseline = usedHeap();
+        userKeyIndex = new UserKeyIndex(null, new SimpleMeterRegistry());
+        userKeyIndex.rebuild(users, LongStream.rangeClosed(1, users)
+                .mapToObj(id -> new Key(id, userId(id), email(id))));
+        long indexHeap = Math.max(0, usedHeap() - baseline);
+
+        idByUserId = newKeyCache(cacheSize);
+        idByEmail = newKeyCache(cacheSize);
+        for (long id = 1; id <= users; id++) {
+            idByUserId.put(userId(id), id);
+            idByEmail.put(email(id), id);
+        }
+        idByUserId.cleanUp();
+        idByEmail.cleanUp();
+        long cachesHeap = Math.max(0, usedHeap() - baseline - indexHeap);
+
+        int indexHits = 0;
+        int cacheHits = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long id = ThreadLocalRandom.current().nextLong(1, users + 1);
+            sampleUserIds[i] = userId(id);
+            sampleEmails[i] = email(id);
+            indexHits += userKeyIndex.idOfEmail(sampleEmails[i]) == id ? 1 : 0;
+            cacheHits += Long.valueOf(id).equals(idByEmail.getIfPresent(sampleEmails[i])) ? 1 : 0;
+        }
+
+        System.out.printf("%nKey index:  %,d bytes of heap, %,d bytes off-heap (direct pool %,d), resolves %.1f%% of sampled emails%n",
+                indexHeap, userKeyIndex.sizeInBytes(), directMemory(), 100.0 * indexHits / SAMPLES);
+        System.out.printf("Key caches: %,d bytes of heap holding %,d userIds and %,d emails, resolves %.1f%% of sampled emails%n",
+                cachesHeap, idByUserId.estimatedSize(), idByEmail.estimatedSize(), 100.0 * cacheHits / SAMPLES);
+    }
+
+    @Benchmark
+    public long keyIndexByUserId() {
+        return userKeyIndex.idOfUserId(sampleUserIds[sample()]);
+    }
+
+    @Benchmark
+    public Long keyCacheByUserId() {
+        return idByUserId.getIfPresent(sampleUserIds[sample()]);
+    }
+
+    @Benchmark
+    public long keyIndexByEmail() {
+        return userKeyIndex.idOfEmail(sampleEmails[sample()]);
+    }
+
+    @Benchmark
+    public Long keyCacheByEmail() {
+        return idByEmail.getIfPresent(sampleEmails[sample()]);
+    }
+
+    private static int sample() {
+        return ThreadLocalRandom.current().nextInt(SAMPLES);
+    }
+
+    private static long userId(long id) {
+        return BenchmarkServices.FIRST_USER_ID + id - 1;
+    }
+
+    private static String email(long id) {
+        return "user" + id + "@example.com";
+    }
+
+    /**
+     * The secondary-key caches of UserCache before the key index, with the service's 600 s expiry
+     */
+    private static <K> Cache<K, Long> newKeyCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(600))
+                .recordStats()
+                .build();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long directMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private record Key(Long getId, Long getUserId, String getEmail) implements UserKeyView {
+    }
+}
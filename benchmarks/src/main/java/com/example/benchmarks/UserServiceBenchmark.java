@@ -0,0 +1,156 @@
+package com.example.benchmarks;
+
+import com.example.userservice.dto.BatchLookupResult;
+import com.example.userservice.dto.UserFeedPage;
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserServiceImpl against 20,000 seeded profiles
+ * Point lookups go through the user cache, which holds half the table, so they mix hits and misses.
+ * The *Query variants call the repository directly to show what the cache, name index and
+ * existence filter save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class UserServiceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String SEARCH_TERM = "olivia12";
+
+    private final AtomicLong signups = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private String secondPageCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startUserService();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        secondPageCursor = userService.getFeed(null, PAGE_SIZE).getNextCursor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<UserProfile> findById() {
+        return userService.findById(BenchmarkServices.randomUserPk());
+    }
+
+    @Benchmark
+    public Optional<UserProfile> findByIdQuery() {
+        return userRepository.findById(BenchmarkServices.randomUserPk());
+    }
+
+    @Benchmark
+    public Optional<UserProfile> findByUserId() {
+        return userService.findByUserId(BenchmarkServices.randomUserId());
+    }
+
+    @Benchmark
+    public Optional<UserProfile> findByEmail() {
+        return userService.findByEmail(BenchmarkServices.randomEmail());
+    }
+
+    /**
+     * Sign-up availability check for a new address, answered by the existence filter
+     */
+    @Benchmark
+    public boolean existsByEmailAbsent() {
+        return userService.existsByEmail("new" + BenchmarkServices.randomEmail());
+    }
+
+    @Benchmark
+    public boolean existsByEmailAbsentQuery() {
+        return userRepository.existsByEmail("new" + BenchmarkServices.randomEmail());
+    }
+
+    @Benchmark
+    public List<UserProfile> searchByName() {
+        return userService.searchByName(SEARCH_TERM);
+    }
+
+    @Benchmark
+    public List<UserProfile> searchByNameQuery() {
+        return userRepository.searchByName(SEARCH_TERM);
+    }
+
+    @Benchmark
+    public UserFeedPage feedFirstPage() {
+        return userService.getFeed(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public UserFeedPage feedNextPage() {
+        return userService.getFeed(secondPageCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BatchLookupResult<Long, UserProfile> findAllById() {
+        return userService.findAllById(randomIds());
+    }
+
+    /**
+     * The same lookups as findAllById, one call each
+     */
+    @Benchmark
+    public void findByIdSequential(Blackhole blackhole) {
+        for (Long id : randomIds()) {
+            blackhole.consume(userService.findById(id));
+        }
+    }
+
+    @Benchmark
+    public UserProfile signup() {
+        long n = signups.incrementAndGet();
+        UserProfile profile = new UserProfile();
+        profile.setUserId(10_000_000L + n);
+        profile.setFirstName("Bench");
+        profile.setLastName("Signup");
+        profile.setEmail("signup" + n + "@example.com");
+        profile.setCity("City 1");
+        profile.setCountry("Country 1");
+        return userService.save(profile);
+    }
+
+    private static List<Long> randomIds() {
+        List<Long> ids = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ids.add(BenchmarkServices.randomUserPk());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.benchmarks;
+
+import com.example.userservice.lookup.UserExistenceFilter;
+import com.example.userservice.lookup.UserKeyIndex;
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.search.UserNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The database work of a sign-up against 20,000 seeded profiles, each in its own transaction
+ * preCheck* is the path UserServiceImpl.save took before relying on the unique constraints:
+ * existsByUserId and existsByEmail, then the insert. insertOnly* is the insert alone, with a
+ * duplicate reported by the constraint. The duplicate* variants sign up with a taken email; Hibernate's
+ * log line for each violated constraint is switched off, as writing it to the console would dominate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class UserSignupBenchmark {
+
+    private final AtomicLong signups = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkServices.startUserService(
+                "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF");
+        BenchmarkServices.awaitReady(context.getBean(UserNameIndex.class)::isReady, "User name index");
+        BenchmarkServices.awaitReady(context.getBean(UserExistenceFilter.class)::isReady, "User existence filter");
+        BenchmarkServices.awaitReady(context.getBean(UserKeyIndex.class)::isReady, "User key index");
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserProfile preCheckSignup() {
+        return transactionTemplate.execute(status -> preCheckSave(newProfile(null)));
+    }
+
+    @Benchmark
+    public UserProfile insertOnlySignup() {
+        return transactionTemplate.execute(status -> userRepository.saveAndFlush(newProfile(null)));
+    }
+
+    @Benchmark
+    public Object preCheckDuplicateEmail() {
+        try {
+            return transactionTemplate.execute(status -> preCheckSave(newProfile(BenchmarkServices.randomEmail())));
+        } catch (IllegalArgumentException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object insertOnlyDuplicateEmail() {
+        try {
+            return transactionTemplate.execute(status -> userRepository.saveAndFlush(
+                    newProfile(BenchmarkServices.randomEmail())));
+        } catch (DataIntegrityViolationException ex) {
+            return ex;
+        }
+    }
+
+    private UserProfile preCheckSave(UserProfile profile) {
+        if (userRepository.existsByUserId(profile.getUserId())) {
+            throw new IllegalArgumentException("User with userId " + profile.getUserId() + " already exists");
+        }
+        if (userRepository.existsByEmail(profile.getEmail())) {
+            throw new IllegalArgumentException("User with email " + profile.getEmail() + " already exists");
+        }
+        return userRepository.save(profile);
+    }
+
+    /**
+     * A profile with a fresh userId; a fresh email too unless one is given
+     */
+    private UserProfile newProfile(String email) {
+        long n = signups.incrementAndGet();
+        UserProfile profile = new UserProfile();
+        profile.setUserId(20_000_000L + n);
+        profile.setFirstName("Bench");
+        profile.setLastName("Signup");
+        profile.setEmail(email != null ? email : "signup" + n + "@example.com");
+        profile.setCity("City 1");
+        profile.setCountry("Country 1");
+        profile.setCreatedAt(LocalDateTime.now());
+        profile.setUpdatedAt(LocalDateTime.now());
+        return profile;
+    }
+}
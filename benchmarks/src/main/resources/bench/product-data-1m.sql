@@ -0,0 +1,35 @@
+-- 20 categories and 1,000,000 products with varied names and descriptions, for full-text search benchmarks;
+-- words come from small rotating vocabularies so term frequencies range from common to rare
+INSERT INTO categories (name, description, active, created_at, updated_at)
+SELECT 'Category ' || X, 'Benchmark category ' || X, TRUE, TIMESTAMP '2024-01-01 00:00:00', TIMESTAMP '2024-01-01 00:00:00'
+FROM SYSTEM_RANGE(1, 20);
+
+INSERT INTO products (name, description, price, stock_quantity, sku, brand, category_id, image_url, active,
+                      created_at, updated_at, version)
+SELECT CASE MOD(X, 8)
+           WHEN 0 THEN 'Wireless' WHEN 1 THEN 'Compact' WHEN 2 THEN 'Portable' WHEN 3 THEN 'Classic'
+           WHEN 4 THEN 'Outdoor' WHEN 5 THEN 'Premium' WHEN 6 THEN 'Vintage' ELSE 'Smart' END
+       || ' ' ||
+       CASE MOD(X / 8, 12)
+           WHEN 0 THEN 'Speaker' WHEN 1 THEN 'Backpack' WHEN 2 THEN 'Lamp' WHEN 3 THEN 'Kettle'
+           WHEN 4 THEN 'Headphones' WHEN 5 THEN 'Jacket' WHEN 6 THEN 'Camera' WHEN 7 THEN 'Blender'
+           WHEN 8 THEN 'Watch' WHEN 9 THEN 'Tent' WHEN 10 THEN 'Charger' ELSE 'Keyboard' END
+       || ' ' || X,
+       CASE MOD(X, 5)
+           WHEN 0 THEN 'Rechargeable battery lasts all day'
+           WHEN 1 THEN 'Water resistant shell for hiking and camping'
+           WHEN 2 THEN 'Brushed steel finish with a two year warranty'
+           WHEN 3 THEN 'Fast charging over USB-C'
+           ELSE 'Lightweight design that folds flat for travel' END
+       || CASE WHEN MOD(X, 97) = 0 THEN ', limited titanium edition' ELSE '' END,
+       CAST(MOD(X * 37, 100000) AS DECIMAL(10, 2)) / 100,
+       MOD(X, 500),
+       'SKU-' || LPAD(CAST(X AS VARCHAR), 7, '0'),
+       'Brand ' || MOD(X, 200),
+       MOD(X, 20) + 1,
+       'https://cdn.example.com/products/' || X || '.jpg',
+       MOD(X, 10) <> 0,
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       0
+FROM SYSTEM_RANGE(1, 1000000);
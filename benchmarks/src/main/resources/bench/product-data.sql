@@ -0,0 +1,20 @@
+-- 20 categories and 20,000 products; keep in step with BenchmarkData.PRODUCTS
+INSERT INTO categories (name, description, active, created_at, updated_at)
+SELECT 'Category ' || X, 'Benchmark category ' || X, TRUE, TIMESTAMP '2024-01-01 00:00:00', TIMESTAMP '2024-01-01 00:00:00'
+FROM SYSTEM_RANGE(1, 20);
+
+INSERT INTO products (name, description, price, stock_quantity, sku, brand, category_id, image_url, active,
+                      created_at, updated_at, version)
+SELECT 'Product ' || X,
+       'Benchmark product ' || X || ' with a description of typical length for the catalog pages',
+       CAST(MOD(X * 37, 100000) AS DECIMAL(10, 2)) / 100,
+       MOD(X, 500),
+       'SKU-' || LPAD(CAST(X AS VARCHAR), 6, '0'),
+       'Brand ' || MOD(X, 50),
+       MOD(X, 20) + 1,
+       'https://cdn.example.com/products/' || X || '.jpg',
+       MOD(X, 10) <> 0,
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       0
+FROM SYSTEM_RANGE(1, 20000);
@@ -0,0 +1,23 @@
+-- 20,000 user profiles; keep in step with BenchmarkData.USERS
+INSERT INTO user_profiles (user_id, first_name, last_name, email, phone, address, city, state, country,
+                           zip_code, created_at, updated_at, version)
+SELECT 100000 + X,
+       CASE MOD(X, 10)
+           WHEN 0 THEN 'Olivia' WHEN 1 THEN 'Liam' WHEN 2 THEN 'Emma' WHEN 3 THEN 'Noah' WHEN 4 THEN 'Ava'
+           WHEN 5 THEN 'Mateo' WHEN 6 THEN 'Sofia' WHEN 7 THEN 'Lucas' WHEN 8 THEN 'Amelia' ELSE 'Ethan'
+       END || MOD(X, 200),
+       CASE MOD(X / 10, 10)
+           WHEN 0 THEN 'Smith' WHEN 1 THEN 'Garcia' WHEN 2 THEN 'Miller' WHEN 3 THEN 'Davis' WHEN 4 THEN 'Lopez'
+           WHEN 5 THEN 'Wilson' WHEN 6 THEN 'Martin' WHEN 7 THEN 'Taylor' WHEN 8 THEN 'Moore' ELSE 'Clark'
+       END,
+       'user' || X || '@example.com',
+       '555-' || LPAD(CAST(X AS VARCHAR), 7, '0'),
+       X || ' Main Street',
+       'City ' || MOD(X, 500),
+       'State ' || MOD(X, 50),
+       'Country ' || MOD(X, 20),
+       LPAD(CAST(MOD(X, 99999) AS VARCHAR), 5, '0'),
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       0
+FROM SYSTEM_RANGE(1, 20000);
@@ -43,9 +43,10 @@ INSERT INTO roles (name) VALUES ('ROLE_USER'), ('ROLE_ADMIN') ON CONFLICT DO NOT
 
 CREATE TABLE IF NOT EXISTS user_profiles (
     id BIGSERIAL PRIMARY KEY,
-    user_id BIGINT UNIQUE NOT NULL,
+    user_id BIGINT NOT NULL,
     first_name VARCHAR(50),
     last_name VARCHAR(50),
+    email VARCHAR(100),
     phone VARCHAR(20),
     address TEXT,
     city VARCHAR(50),
@@ -53,7 +54,10 @@ CREATE TABLE IF NOT EXISTS user_profiles (
     country VARCHAR(50),
     zip_code VARCHAR(10),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_user_profiles_user_id UNIQUE (user_id),
+    CONSTRAINT uk_user_profiles_email UNIQUE (email)
 );
 
 CREATE INDEX idx_user_profiles_user_id ON user_profiles(user_id);
@@ -72,12 +76,24 @@ CREATE TABLE IF NOT EXISTS products (
     image_url VARCHAR(255),
     is_active BOOLEAN DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE INDEX idx_products_category ON products(category);
 CREATE INDEX idx_products_sku ON products(sku);
 
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id VARCHAR(36) PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_stock_reservations_status_expires_at ON stock_reservations(status, expires_at);
+
 -- Insert sample products
 INSERT INTO products (name, description, price, stock_quantity, category, sku) VALUES
     ('Laptop Pro 15', 'High-performance laptop with 16GB RAM', 1299.99, 50, 'Electronics', 'LAP-001'),
@@ -0,0 +1,67 @@
+// Compares throughput and p99 latency of the platform-thread and virtual-thread modes.
+// Start both services with VIRTUAL_THREADS_ENABLED=false, run this script, then restart
+// them with VIRTUAL_THREADS_ENABLED=true and run it again with the same settings:
+//
+//   k6 run -e MODE=platform load-tests/virtual-threads.js
+//   k6 run -e MODE=virtual  load-tests/virtual-threads.js
+//
+// Both services default to port 8082, so start product-service with SERVER_PORT=8083.
+// To reproduce a slow database, put latency between the services and Postgres, for example
+// with toxiproxy or `tc qdisc add dev eth0 root netem delay 20ms` on the database host.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const USER_URL = __ENV.USER_URL || 'http://localhost:8082';
+const PRODUCT_URL = __ENV.PRODUCT_URL || 'http://localhost:8083';
+const RATE = Number(__ENV.RATE || 2000);
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 500,
+            maxVUs: 5000,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const requests = [
+    () => http.get(`${USER_URL}/api/users?ids=${ids(20, 1000)}`, { tags: { name: 'users-batch' } }),
+    () => http.get(`${USER_URL}/api/users/feed?size=20`, { tags: { name: 'users-feed' } }),
+    () => http.get(`${PRODUCT_URL}/api/products/${1 + Math.floor(Math.random() * 1000)}`, { tags: { name: 'product' } }),
+    () => http.get(`${PRODUCT_URL}/api/products/filter?brand=Acme&size=20&sort=price`, { tags: { name: 'products-filter' } }),
+    () => http.get(`${PRODUCT_URL}/api/products/search?name=pro`, { tags: { name: 'products-search' } }),
+];
+
+export default function () {
+    const response = requests[Math.floor(Math.random() * requests.length)]();
+    // 503 is the concurrency limit shedding load, reported separately from errors
+    check(response, {
+        ok: r => r.status === 200 || r.status === 404,
+        shed: r => r.status !== 503,
+    });
+}
+
+export function handleSummary(data) {
+    const mode = __ENV.MODE || 'unknown';
+    const duration = data.metrics.http_req_duration.values;
+    const line = `${mode}: ${data.metrics.http_reqs.values.rate.toFixed(0)} req/s, `
+        + `p50 ${duration['p(50)'].toFixed(1)} ms, p99 ${duration['p(99)'].toFixed(1)} ms, `
+        + `failed ${(data.metrics.http_req_failed.values.rate * 100).toFixed(2)}%\n`;
+    return {
+        stdout: line,
+        [`load-tests/results-${mode}.json`]: JSON.stringify(data, null, 2),
+    };
+}
+
+function ids(count, max) {
+    const values = [];
+    for (let i = 0; i < count; i++) {
+        values.push(1 + Math.floor(Math.random() * max));
+    }
+    return values.join(',');
+}
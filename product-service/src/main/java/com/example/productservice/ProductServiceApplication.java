@@ -2,12 +2,16 @@ package com.example.productservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Product Service
  * Manages product catalog and categories
  */
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
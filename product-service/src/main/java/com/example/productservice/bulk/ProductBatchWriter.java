@@ -0,0 +1,142 @@
+package com.example.productservice.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts batches of imported products over plain JDBC
+ * Product ids are IDENTITY columns, which keeps Hibernate from batching inserts, so rows bypass
+ * the persistence context: PostgreSQL receives them through COPY, other databases through JDBC batches
+ */
+@Component
+@Slf4j
+public class ProductBatchWriter {
+
+    static final String COLUMNS =
+            "name, description, price, stock_quantity, sku, brand, category_id, image_url, active, created_at, updated_at";
+
+    static final String INSERT_SQL =
+            "INSERT INTO products (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String COPY_SQL =
+            "COPY products (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * How rows reach the database
+     */
+    public enum WriteMode {
+        COPY,
+        JDBC_BATCH
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${product.import.use-copy:true}")
+    private boolean useCopy;
+
+    public ProductBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Write one batch of validated rows on the connection of the current transaction
+     */
+    public WriteMode write(List<ProductImportRow> rows, LocalDateTime timestamp) {
+        return jdbcTemplate.execute((ConnectionCallback<WriteMode>) connection -> {
+            if (useCopy && connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), rows, timestamp);
+                return WriteMode.COPY;
+            }
+            insertBatch(connection, rows, timestamp);
+            return WriteMode.JDBC_BATCH;
+        });
+    }
+
+    private void copy(PGConnection connection, List<ProductImportRow> rows, LocalDateTime timestamp)
+            throws SQLException {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        String now = timestamp.toString();
+        for (ProductImportRow row : rows) {
+            appendCsv(csv, row.getName()).append(',');
+            appendCsv(csv, row.getDescription()).append(',');
+            csv.append(row.getPrice().toPlainString()).append(',');
+            csv.append(row.getStockQuantity()).append(',');
+            appendCsv(csv, row.getSku()).append(',');
+            appendCsv(csv, row.getBrand()).append(',');
+            if (row.getCategoryId() != null) {
+                csv.append(row.getCategoryId());
+            }
+            csv.append(',');
+            appendCsv(csv, row.getImageUrl()).append(',');
+            csv.append(isActive(row)).append(',');
+            csv.append(now).append(',').append(now).append('\n');
+        }
+        try {
+            connection.getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException ex) {
+            throw new SQLException("COPY into products failed", ex);
+        }
+    }
+
+    private void insertBatch(Connection connection, List<ProductImportRow> rows, LocalDateTime timestamp)
+            throws SQLException {
+        Timestamp now = Timestamp.valueOf(timestamp);
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (ProductImportRow row : rows) {
+                statement.setString(1, row.getName());
+                statement.setString(2, row.getDescription());
+                statement.setBigDecimal(3, row.getPrice());
+                statement.setInt(4, row.getStockQuantity());
+                statement.setString(5, row.getSku());
+                statement.setString(6, row.getBrand());
+                if (row.getCategoryId() != null) {
+                    statement.setLong(7, row.getCategoryId());
+                } else {
+                    statement.setNull(7, Types.BIGINT);
+                }
+                statement.setString(8, row.getImageUrl());
+                statement.setBoolean(9, isActive(row));
+                statement.setTimestamp(10, now);
+                statement.setTimestamp(11, now);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static boolean isActive(ProductImportRow row) {
+        return row.getActive() == null || row.getActive();
+    }
+
+    /**
+     * Append a value in COPY CSV form; null stays unquoted and empty so COPY reads it as NULL
+     */
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
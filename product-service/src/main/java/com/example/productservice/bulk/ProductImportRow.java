@@ -0,0 +1,36 @@
+package com.example.productservice.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One product row of a bulk import, before validation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+
+    private String name;
+
+    private String description;
+
+    private BigDecimal price;
+
+    private Integer stockQuantity;
+
+    private String sku;
+
+    private String brand;
+
+    private Long categoryId;
+
+    private String imageUrl;
+
+    private Boolean active;
+}
@@ -0,0 +1,155 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.dto.ImportReport;
+import com.example.productservice.io.DataFormat;
+import com.example.productservice.repository.CategoryRepository;
+import com.example.productservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streams rows from an import file through validation into batched inserts
+ * Only one batch of rows is held in memory at a time
+ * A SKU that repeats within the file or already exists in the table is reported as a row error,
+ * so one conflicting row does not roll back the whole import
+ */
+@Component
+@Slf4j
+public class ProductImporter {
+
+    private final ProductBatchWriter batchWriter;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ObjectReader jsonReader;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ProductImporter(ProductBatchWriter batchWriter, CategoryRepository categoryRepository,
+                           ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.batchWriter = batchWriter;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.jsonReader = objectMapper.readerFor(ProductImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Import all rows of the input; must run inside a transaction
+     */
+    public ImportReport importProducts(InputStream in, DataFormat format) throws IOException {
+        long start = System.nanoTime();
+        LocalDateTime timestamp = LocalDateTime.now();
+        ProductRowValidator validator = new ProductRowValidator(new HashSet<>(categoryRepository.findAllIds()));
+
+        List<ProductRowReader.ParsedRow> batch = new ArrayList<>(batchSize);
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        long rowsRead = 0;
+        long rowsImported = 0;
+        long rowsRejected = 0;
+        int batches = 0;
+        ProductBatchWriter.WriteMode writeMode = null;
+
+        try (ProductRowReader reader = new ProductRowReader(in, format, jsonReader)) {
+            ProductRowReader.ParsedRow parsed;
+            while ((parsed = reader.next()) != null) {
+                rowsRead++;
+                String error = parsed.getError() != null ? parsed.getError() : validator.validate(parsed.getRow());
+                if (error != null) {
+                    rowsRejected++;
+                    reportError(errors, parsed, error);
+                    continue;
+                }
+
+                batch.add(parsed);
+                if (batch.size() == batchSize) {
+                    List<ProductImportRow> rows = dropExistingSkus(batch, errors);
+                    rowsRejected += batch.size() - rows.size();
+                    if (!rows.isEmpty()) {
+                        writeMode = batchWriter.write(rows, timestamp);
+                        rowsImported += rows.size();
+                        batches++;
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            List<ProductImportRow> rows = dropExistingSkus(batch, errors);
+            rowsRejected += batch.size() - rows.size();
+            if (!rows.isEmpty()) {
+                writeMode = batchWriter.write(rows, timestamp);
+                rowsImported += rows.size();
+                batches++;
+            }
+        }
+
+        // Existing SKUs are found a batch after the rows rejected during validation
+        errors.sort(Comparator.comparingLong(ImportReport.RowError::getLine));
+
+        long elapsedNanos = System.nanoTime() - start;
+        log.info("Imported {} of {} product rows in {} batches ({} rejected) in {} ms",
+                rowsImported, rowsRead, batches, rowsRejected, elapsedNanos / 1_000_000);
+
+        return ImportReport.builder()
+                .rowsRead(rowsRead)
+                .rowsImported(rowsImported)
+                .rowsRejected(rowsRejected)
+                .batches(batches)
+                .writeMode(writeMode == null ? null : writeMode.name())
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(elapsedNanos == 0 ? 0 : rowsImported * 1_000_000_000.0 / elapsedNanos)
+                .errorsTruncated(rowsRejected > errors.size())
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Return the rows of the batch whose SKU is not in the table yet, reporting the others
+     * One query per batch; the validator has already removed SKUs repeated within the file
+     */
+    private List<ProductImportRow> dropExistingSkus(List<ProductRowReader.ParsedRow> batch,
+                                                    List<ImportReport.RowError> errors) {
+        Set<String> skus = new HashSet<>();
+        for (ProductRowReader.ParsedRow parsed : batch) {
+            if (parsed.getRow().getSku() != null) {
+                skus.add(parsed.getRow().getSku());
+            }
+        }
+        Set<String> existing = skus.isEmpty() ? Set.of() : new HashSet<>(productRepository.findSkusIn(skus));
+
+        List<ProductImportRow> rows = new ArrayList<>(batch.size());
+        for (ProductRowReader.ParsedRow parsed : batch) {
+            String sku = parsed.getRow().getSku();
+            if (sku != null && existing.contains(sku)) {
+                reportError(errors, parsed, "Product with SKU " + sku + " already exists");
+            } else {
+                rows.add(parsed.getRow());
+            }
+        }
+        return rows;
+    }
+
+    private void reportError(List<ImportReport.RowError> errors, ProductRowReader.ParsedRow parsed, String error) {
+        if (errors.size() < maxReportedErrors) {
+            String sku = parsed.getRow() == null ? null : parsed.getRow().getSku();
+            errors.add(new ImportReport.RowError(parsed.getLine(), sku, error));
+        }
+    }
+}
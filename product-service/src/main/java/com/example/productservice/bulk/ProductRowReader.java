@@ -0,0 +1,220 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.io.DataFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads product rows one at a time from a CSV or NDJSON stream
+ * CSV input must start with a header row; unknown columns such as id or createdAt are ignored,
+ * so files produced by the product export can be imported as-is
+ */
+public class ProductRowReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataFormat format;
+    private final ObjectReader jsonReader;
+    private final BufferedReader reader;
+    private String[] header;
+    private long line = 1;
+
+    public ProductRowReader(InputStream in, DataFormat format, ObjectReader jsonReader) {
+        this.format = format;
+        this.jsonReader = jsonReader;
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Read the next row, or return null at the end of the input
+     */
+    public ParsedRow next() throws IOException {
+        return format == DataFormat.NDJSON ? nextJson() : nextCsv();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ParsedRow nextJson() throws IOException {
+        String text;
+        long rowLine;
+        do {
+            text = reader.readLine();
+            rowLine = line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try {
+            return ParsedRow.valid(rowLine, jsonReader.readValue(text));
+        } catch (JsonProcessingException ex) {
+            return ParsedRow.invalid(rowLine, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private ParsedRow nextCsv() throws IOException {
+        if (header == null) {
+            List<String> names = readRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new String[names.size()];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            }
+        }
+
+        List<String> values;
+        long rowLine;
+        do {
+            rowLine = line;
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        ProductImportRow row = new ProductImportRow();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            try {
+                setField(row, header[i], value);
+            } catch (IllegalArgumentException ex) {
+                return ParsedRow.invalid(rowLine, "Invalid " + header[i] + ": " + value);
+            }
+        }
+        return ParsedRow.valid(rowLine, row);
+    }
+
+    private static void setField(ProductImportRow row, String column, String value) {
+        switch (column) {
+            case "name" -> row.setName(value);
+            case "description" -> row.setDescription(value);
+            case "price" -> row.setPrice(value == null ? null : new BigDecimal(value.trim()));
+            case "stockquantity" -> row.setStockQuantity(value == null ? null : Integer.valueOf(value.trim()));
+            case "sku" -> row.setSku(value);
+            case "brand" -> row.setBrand(value);
+            case "categoryid" -> row.setCategoryId(value == null ? null : Long.valueOf(value.trim()));
+            case "imageurl" -> row.setImageUrl(value);
+            case "active" -> row.setActive(value == null ? null : parseBoolean(value.trim()));
+            default -> {
+                // Columns such as id, createdAt and updatedAt are assigned by the database
+            }
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+    /**
+     * Read one RFC 4180 record; quoted fields may contain separators, quotes and line breaks
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field starting before line " + line);
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c < 0) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (c >= 0) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * A row read from the input, either parsed or carrying the reason it could not be
+     */
+    public static final class ParsedRow {
+
+        private final long line;
+        private final ProductImportRow row;
+        private final String error;
+
+        private ParsedRow(long line, ProductImportRow row, String error) {
+            this.line = line;
+            this.row = row;
+            this.error = error;
+        }
+
+        static ParsedRow valid(long line, ProductImportRow row) {
+            return new ParsedRow(line, row, null);
+        }
+
+        static ParsedRow invalid(long line, String error) {
+            return new ParsedRow(line, null, error);
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public ProductImportRow getRow() {
+            return row;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
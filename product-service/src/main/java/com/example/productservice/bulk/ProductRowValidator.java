@@ -0,0 +1,64 @@
+package com.example.productservice.bulk;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks imported rows against the constraints of the products table
+ * SKUs are unique, so the validator remembers the SKU of every row it accepted; one instance
+ * serves one import file
+ */
+public class ProductRowValidator {
+
+    private final Set<Long> categoryIds;
+    private final Set<String> acceptedSkus = new HashSet<>();
+
+    public ProductRowValidator(Set<Long> categoryIds) {
+        this.categoryIds = categoryIds;
+    }
+
+    /**
+     * Return the first problem found with the row, or null if it can be inserted
+     */
+    public String validate(ProductImportRow row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (row.getName().length() > 100) {
+            return "Name must be at most 100 characters";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > 500) {
+            return "Description must be at most 500 characters";
+        }
+        if (row.getPrice() == null) {
+            return "Price is required";
+        }
+        if (row.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            return "Price must not be negative";
+        }
+        if (row.getStockQuantity() == null) {
+            return "Stock quantity is required";
+        }
+        if (row.getStockQuantity() < 0) {
+            return "Stock quantity must not be negative";
+        }
+        if (row.getSku() != null && row.getSku().length() > 50) {
+            return "SKU must be at most 50 characters";
+        }
+        if (row.getBrand() != null && row.getBrand().length() > 50) {
+            return "Brand must be at most 50 characters";
+        }
+        if (row.getImageUrl() != null && row.getImageUrl().length() > 255) {
+            return "Image URL must be at most 255 characters";
+        }
+        if (row.getCategoryId() != null && !categoryIds.contains(row.getCategoryId())) {
+            return "Category not found with id: " + row.getCategoryId();
+        }
+        // Checked last, so a rejected row does not claim its SKU
+        if (row.getSku() != null && !acceptedSkus.add(row.getSku())) {
+            return "Duplicate SKU in file: " + row.getSku();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of products, reachable by id and SKU
+ * Products are stored once by id; the SKU maps to the id and is verified against
+ * the cached product on every hit, so a stale SKU entry only ever causes a reload
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, Product> byId;
+    private final Cache<String, Long> idBySku;
+
+    public ProductCache(@Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+                        MeterRegistry meterRegistry) {
+        this.byId = newCache(maximumSize, expireAfterWriteSeconds);
+        this.idBySku = newCache(maximumSize, expireAfterWriteSeconds);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idBySku, "products.bySku");
+    }
+
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        Product cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(() -> loader.apply(id));
+    }
+
+    public Optional<Product> getBySku(String sku, Function<String, Optional<Product>> loader) {
+        Long id = idBySku.getIfPresent(sku);
+        Product cached = id == null ? null : byId.getIfPresent(id);
+        if (cached != null && Objects.equals(cached.getSku(), sku)) {
+            return Optional.of(cached);
+        }
+        return load(() -> loader.apply(sku));
+    }
+
+    /**
+     * Look up many products by id, loading all misses with a single call to the loader
+     */
+    public Map<Long, Product> getAllById(Collection<Long> ids, Function<List<Long>, List<Product>> loader) {
+        return getAll(ids, byId::getIfPresent, Product::getId, loader);
+    }
+
+    /**
+     * Look up many products by SKU, loading all misses with a single call to the loader
+     * The loader must return products ordered by id, so the first product of a SKU wins as in getBySku
+     */
+    public Map<String, Product> getAllBySku(Collection<String> skus, Function<List<String>, List<Product>> loader) {
+        return getAll(skus, sku -> {
+            Long id = idBySku.getIfPresent(sku);
+            Product cached = id == null ? null : byId.getIfPresent(id);
+            return cached != null && Objects.equals(cached.getSku(), sku) ? cached : null;
+        }, Product::getSku, loader);
+    }
+
+    /**
+     * Cache a product unless a newer version of it is already cached, e.g. by a read that started after a write
+     */
+    public void put(Product product) {
+        Product cached = byId.asMap().merge(product.getId(), product, ProductCache::newer);
+        if (cached == product && product.getSku() != null) {
+            idBySku.put(product.getSku(), product.getId());
+        }
+    }
+
+    /**
+     * Drop a product and the SKU entry of its cached copy
+     */
+    public void evict(Long id) {
+        Product cached = byId.asMap().remove(id);
+        if (cached != null && cached.getSku() != null) {
+            idBySku.invalidate(cached.getSku());
+        }
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+        idBySku.invalidateAll();
+    }
+
+    private <K> Map<K, Product> getAll(Collection<K> keys, Function<K, Product> cachedLookup,
+                                       Function<Product, K> keyOf, Function<List<K>, List<Product>> loader) {
+        Map<K, Product> found = new HashMap<>();
+        List<K> misses = new ArrayList<>();
+        for (K key : keys) {
+            Product cached = cachedLookup.apply(key);
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Product loaded : loader.apply(misses)) {
+                if (found.putIfAbsent(keyOf.apply(loaded), loaded) == null) {
+                    put(loaded);
+                }
+            }
+        }
+        return found;
+    }
+
+    private Optional<Product> load(Supplier<Optional<Product>> loader) {
+        Optional<Product> loaded = loader.get();
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    private static Product newer(Product cached, Product loaded) {
+        if (cached.getVersion() == null || loaded.getVersion() == null) {
+            return loaded;
+        }
+        return loaded.getVersion() >= cached.getVersion() ? loaded : cached;
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, long expireAfterWriteSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.productservice.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file holding the live rows of the catalog, its brand and category dictionaries and the
+ * updated_at high-water mark of the products table when it was written
+ * The file is a fixed header followed by one little-endian section per column, each aligned to 8
+ * bytes, and a CRC32 of everything before it. Reading maps the file and bulk-copies each column
+ * into its array, so loading costs about as much as copying the file from the page cache.
+ */
+final class CatalogSnapshotFile {
+
+    static final int VERSION = 1;
+
+    private static final int MAGIC = 0x50434154;
+    private static final int HEADER_BYTES = 48;
+    private static final long NO_WATERMARK = Long.MIN_VALUE;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * Write to a temporary file first and move it into place, so a crash never leaves half a snapshot
+     */
+    static void write(Path file, Contents contents) throws IOException {
+        int rows = contents.ids().length;
+        Blob names = Blob.of(contents.names(), rows);
+        Blob brands = Blob.of(contents.brands().toArray(new String[0]), contents.brands().size());
+        long[] activeWords = contents.active().toLongArray();
+        int categories = contents.categories().size();
+
+        long size = size(rows, activeWords.length, contents.brands().size(), categories,
+                names.bytes().length, brands.bytes().length);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot of " + size + " bytes is too large to map");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            LocalDateTime watermark = contents.watermark();
+            buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(watermark == null ? NO_WATERMARK : watermark.toEpochSecond(ZoneOffset.UTC))
+                    .putInt(watermark == null ? 0 : watermark.getNano())
+                    .putInt(rows)
+                    .putInt(activeWords.length)
+                    .putInt(contents.brands().size())
+                    .putInt(categories)
+                    .putInt(names.bytes().length)
+                    .putInt(brands.bytes().length)
+                    .putInt(0);
+
+            buffer.asLongBuffer().put(contents.ids(), 0, rows);
+            skip(buffer, 8L * rows);
+            buffer.asLongBuffer().put(contents.priceCents(), 0, rows);
+            skip(buffer, 8L * rows);
+            buffer.asIntBuffer().put(contents.stock(), 0, rows);
+            skip(buffer, 4L * rows);
+            buffer.asIntBuffer().put(contents.brandCodes(), 0, rows);
+            skip(buffer, 4L * rows);
+            buffer.asIntBuffer().put(contents.categoryCodes(), 0, rows);
+            skip(buffer, 4L * rows);
+            buffer.asLongBuffer().put(activeWords);
+            skip(buffer, 8L * activeWords.length);
+            names.write(buffer);
+            brands.write(buffer);
+            long[] categoryIds = contents.categories().stream().mapToLong(Long::longValue).toArray();
+            buffer.asLongBuffer().put(categoryIds);
+            skip(buffer, 8L * categories);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate().flip());
+            buffer.putLong(checksum.getValue());
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a catalog snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " catalog snapshot: " + file);
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate().position(0).limit((int) size - 8));
+            if (buffer.getLong((int) size - 8) != checksum.getValue()) {
+                throw new IOException("Checksum mismatch in catalog snapshot " + file);
+            }
+
+            long epochSecond = buffer.getLong();
+            int nano = buffer.getInt();
+            LocalDateTime watermark = epochSecond == NO_WATERMARK ? null
+                    : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+            int rows = buffer.getInt();
+            int activeWords = buffer.getInt();
+            int brandCount = buffer.getInt();
+            int categoryCount = buffer.getInt();
+            int nameBytes = buffer.getInt();
+            int brandBytes = buffer.getInt();
+            buffer.getInt();
+            if (Math.min(Math.min(rows, activeWords), Math.min(Math.min(brandCount, categoryCount),
+                    Math.min(nameBytes, brandBytes))) < 0
+                    || size(rows, activeWords, brandCount, categoryCount, nameBytes, brandBytes) != size) {
+                throw new IOException("Catalog snapshot " + file + " does not match the size in its header");
+            }
+
+            long[] ids = new long[rows];
+            buffer.asLongBuffer().get(ids);
+            skip(buffer, 8L * rows);
+            long[] priceCents = new long[rows];
+            buffer.asLongBuffer().get(priceCents);
+            skip(buffer, 8L * rows);
+            int[] stock = new int[rows];
+            buffer.asIntBuffer().get(stock);
+            skip(buffer, 4L * rows);
+            int[] brandCodes = new int[rows];
+            buffer.asIntBuffer().get(brandCodes);
+            skip(buffer, 4L * rows);
+            int[] categoryCodes = new int[rows];
+            buffer.asIntBuffer().get(categoryCodes);
+            skip(buffer, 4L * rows);
+            long[] words = new long[activeWords];
+            buffer.asLongBuffer().get(words);
+            skip(buffer, 8L * activeWords);
+            String[] names = Blob.read(buffer, rows, nameBytes);
+            String[] brands = Blob.read(buffer, brandCount, brandBytes);
+            long[] categoryIds = new long[categoryCount];
+            buffer.asLongBuffer().get(categoryIds);
+
+            List<Long> categories = new ArrayList<>(categoryCount);
+            for (long categoryId : categoryIds) {
+                categories.add(categoryId);
+            }
+            return new Contents(watermark, ids, names, priceCents, stock, brandCodes, categoryCodes,
+                    BitSet.valueOf(words), List.of(brands), categories);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("Truncated catalog snapshot " + file, ex);
+        }
+    }
+
+    private static long size(int rows, int activeWords, int brands, int categories, int nameBytes,
+                             int brandBytes) {
+        return HEADER_BYTES
+                + align(8L * rows) * 2                                  // ids, price cents
+                + align(4L * rows) * 3                                  // stock, brand and category codes
+                + align(8L * activeWords)
+                + align(4L * (rows + 1L)) + align(nameBytes)
+                + align(4L * (brands + 1L)) + align(brandBytes)
+                + align(8L * categories)
+                + 8;                                                    // checksum
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static void skip(ByteBuffer buffer, long bytes) {
+        buffer.position(buffer.position() + (int) align(bytes));
+    }
+
+    /**
+     * The catalog's live rows, in row order, with the dictionaries their codes refer to
+     */
+    record Contents(LocalDateTime watermark, long[] ids, String[] names, long[] priceCents, int[] stock,
+                    int[] brandCodes, int[] categoryCodes, BitSet active, List<String> brands,
+                    List<Long> categories) {
+    }
+
+    /**
+     * Strings as an offsets section and a UTF-8 bytes section
+     */
+    private record Blob(int[] offsets, byte[] bytes) {
+
+        private static Blob of(String[] values, int count) {
+            int[] offsets = new int[count + 1];
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * 16);
+            for (int i = 0; i < count; i++) {
+                bytes.writeBytes(values[i].getBytes(StandardCharsets.UTF_8));
+                offsets[i + 1] = bytes.size();
+            }
+            return new Blob(offsets, bytes.toByteArray());
+        }
+
+        private void write(ByteBuffer buffer) {
+            buffer.asIntBuffer().put(offsets);
+            skip(buffer, 4L * offsets.length);
+            int start = buffer.position();
+            buffer.put(bytes);
+            buffer.position(start + (int) align(bytes.length));
+        }
+
+        private static String[] read(ByteBuffer buffer, int count, int length) {
+            int[] offsets = new int[count + 1];
+            buffer.asIntBuffer().get(offsets);
+            skip(buffer, 4L * offsets.length);
+            byte[] bytes = new byte[length];
+            int start = buffer.position();
+            buffer.get(bytes);
+            buffer.position(start + (int) align(length));
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+            }
+            return values;
+        }
+    }
+}
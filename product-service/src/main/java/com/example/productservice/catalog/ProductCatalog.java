@@ -0,0 +1,976 @@
+package com.example.productservice.catalog;
+
+import com.example.productservice.dto.ProductCatalogView;
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Read-optimized, column-oriented copy of the product fields used for filtering and sorting
+ * Each column is a primitive array indexed by row: price in cents, stock, dictionary codes for
+ * brand and category, and bitsets for live and active rows. Readers work on an immutable
+ * snapshot and never lock. Writers append rows and tombstone the rows they replace, so
+ * published rows are never modified; the arrays are compacted once dead rows dominate.
+ * <p>
+ * With product.catalog.snapshot-file set, the catalog is written to that file periodically and on
+ * shutdown, together with the newest updated_at in the products table. A restart maps the file and
+ * only replays rows updated since, plus deletions, instead of reading the whole table.
+ */
+@Component
+@Slf4j
+public class ProductCatalog {
+
+    static final int NO_CODE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_DEAD_ROWS_TO_COMPACT = 1024;
+
+    // Rows changed within this long before a snapshot are replayed too, for transactions that committed after it
+    static final Duration SNAPSHOT_REPLAY_MARGIN = Duration.ofMinutes(1);
+
+    private final ProductRepository productRepository;
+
+    @Value("${product.catalog.enabled:true}")
+    private boolean enabled = true;
+
+    // Lower bounds of the price facet buckets; the last bucket is open-ended
+    @Value("${product.catalog.price-buckets:0,25,50,100,250,500,1000}")
+    private BigDecimal[] priceBuckets = {BigDecimal.ZERO, new BigDecimal(25), new BigDecimal(50),
+            new BigDecimal(100), new BigDecimal(250), new BigDecimal(500), new BigDecimal(1000)};
+
+    // Empty disables the snapshot; the catalog is then always loaded from the products table
+    @Value("${product.catalog.snapshot-file:}")
+    private String snapshotFile = "";
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Serializes snapshot writes from the schedule and from shutdown
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    // Last snapshot written to the file, to skip writing an unchanged catalog
+    private Snapshot writtenSnapshot;
+
+    // Row of each live product, only touched by writers holding writeLock
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.empty();
+
+    private volatile boolean ready;
+
+    public ProductCatalog(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Invoked through the proxy, so the initial load runs in the background in its own transaction;
+     * the call to refresh below is a plain method call
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onApplicationReady() {
+        if (enabled && !restoreSnapshot()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reload the whole catalog from the products table
+     * Runs in its own transaction so it can be called after another one commits; calls through
+     * the proxy run in the background, so an import does not wait for the reload. Not read-only,
+     * so it reads the primary rather than a replica that may not have the import yet.
+     */
+    @Async
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh() {
+        long start = System.nanoTime();
+        try (Stream<ProductCatalogView> rows = productRepository.streamCatalogRows()) {
+            rebuild(rows);
+        }
+        log.info("Built product catalog with {} rows in {} ms",
+                snapshot.liveRows(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replace the catalog contents with the given rows
+     */
+    public void rebuild(Stream<? extends ProductCatalogView> rows) {
+        writeLock.lock();
+        try {
+            rowById.clear();
+            Builder builder = new Builder(Snapshot.empty());
+            rows.forEach(view -> builder.append(Row.of(view)));
+            snapshot = builder.publish();
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Load the snapshot file and replay the rows changed since it was written
+     * Returns false, leaving the catalog as it was, when there is no usable snapshot: the file is
+     * missing, fails its checks, or is newer than the products table, as after a database restore.
+     */
+    public boolean restoreSnapshot() {
+        if (snapshotFile.isBlank() || !Files.exists(Path.of(snapshotFile))) {
+            return false;
+        }
+        long start = System.nanoTime();
+        CatalogSnapshotFile.Contents contents;
+        try {
+            contents = CatalogSnapshotFile.read(Path.of(snapshotFile));
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable catalog snapshot {}", snapshotFile, ex);
+            return false;
+        }
+        LocalDateTime highWaterMark = productRepository.findMaxUpdatedAt();
+        if (contents.watermark() == null || highWaterMark == null || contents.watermark().isAfter(highWaterMark)) {
+            log.warn("Ignoring catalog snapshot {} taken at {}; the products table is at {}",
+                    snapshotFile, contents.watermark(), highWaterMark);
+            return false;
+        }
+
+        long[] ids;
+        int replayed = 0;
+        writeLock.lock();
+        try {
+            rowById.clear();
+            Builder builder = new Builder(Snapshot.empty());
+            builder.load(contents);
+            try (Stream<ProductCatalogView> rows = productRepository.streamCatalogRowsUpdatedSince(
+                    contents.watermark().minus(SNAPSHOT_REPLAY_MARGIN))) {
+                for (ProductCatalogView view : (Iterable<ProductCatalogView>) rows::iterator) {
+                    builder.remove(view.getId());
+                    builder.append(Row.of(view));
+                    replayed++;
+                }
+            }
+            try (Stream<Long> stream = productRepository.streamIds()) {
+                ids = stream.mapToLong(Long::longValue).toArray();
+            }
+            Arrays.sort(ids);
+            for (Long id : new ArrayList<>(rowById.keySet())) {
+                if (Arrays.binarySearch(ids, id) < 0) {
+                    builder.remove(id);
+                }
+            }
+            snapshot = builder.publish();
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Restored product catalog with {} rows from snapshot {} and {} changed rows in {} ms",
+                snapshot.liveRows(), snapshotFile, replayed, (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Write the catalog to the snapshot file, with the products table's high-water mark read first,
+     * so every change the snapshot may miss is at or after it
+     */
+    @Scheduled(fixedDelayString = "${product.catalog.snapshot-interval-ms:300000}")
+    public void writeSnapshot() {
+        if (snapshotFile.isBlank() || !ready) {
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            if (snapshot == writtenSnapshot) {
+                return;
+            }
+            long start = System.nanoTime();
+            LocalDateTime highWaterMark = productRepository.findMaxUpdatedAt();
+            Snapshot current = snapshot;
+            Path file = Path.of(snapshotFile);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            CatalogSnapshotFile.write(file, current.contents(highWaterMark));
+            writtenSnapshot = current;
+            log.debug("Wrote catalog snapshot with {} rows in {} ms",
+                    current.liveRows(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException ex) {
+            log.error("Could not write catalog snapshot {}", snapshotFile, ex);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writeSnapshot();
+    }
+
+    /**
+     * Add or replace a product
+     */
+    public void upsert(Product product) {
+        upsertAll(Collections.singletonList(product));
+    }
+
+    public void upsertAll(Collection<Product> products) {
+        writeLock.lock();
+        try {
+            Builder builder = new Builder(snapshot);
+            for (Product product : products) {
+                builder.remove(product.getId());
+                builder.append(Row.of(product));
+            }
+            snapshot = builder.publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            Builder builder = new Builder(snapshot);
+            builder.remove(id);
+            snapshot = builder.publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Apply stock changes made without going through the product entity, such as reservations
+     */
+    public void adjustStock(Map<Long, Integer> deltas) {
+        writeLock.lock();
+        try {
+            Builder builder = new Builder(snapshot);
+            deltas.forEach(builder::adjustStock);
+            snapshot = builder.publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Apply the attributes written by a partial update; attributes the catalog does not hold are ignored
+     */
+    public void patch(Long id, Map<String, Object> changes) {
+        writeLock.lock();
+        try {
+            Builder builder = new Builder(snapshot);
+            builder.patch(id, changes);
+            snapshot = builder.publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Whether the catalog has been seeded and can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return snapshot.liveRows();
+    }
+
+    /**
+     * Find the products matching the filter, sorted and sliced to one page
+     * Sortable properties are id, name, price and stockQuantity; ties are broken by id
+     */
+    public Result query(ProductFilter filter, Sort sort, long offset, int limit) {
+        return query(filter, sort, offset, limit, false);
+    }
+
+    /**
+     * Like query, and also count the matches per brand, category and price bucket in the same pass
+     */
+    public Result queryWithFacets(ProductFilter filter, Sort sort, long offset, int limit) {
+        return query(filter, sort, offset, limit, true);
+    }
+
+    /**
+     * Count facets over rows read from elsewhere, such as the database when the catalog is not ready
+     */
+    public ProductFacets facets(Stream<? extends ProductCatalogView> rows) {
+        long[] bounds = priceBoundsInCents();
+        Map<String, Integer> brands = new HashMap<>();
+        Map<Long, Integer> categories = new HashMap<>();
+        int[] prices = new int[bounds.length];
+        rows.forEach(view -> {
+            if (view.getBrand() != null) {
+                brands.merge(view.getBrand(), 1, Integer::sum);
+            }
+            if (view.getCategoryId() != null) {
+                categories.merge(view.getCategoryId(), 1, Integer::sum);
+            }
+            int bucket = view.getPrice() == null ? -1
+                    : bucketOf(bounds, toCents(view.getPrice(), RoundingMode.HALF_UP));
+            if (bucket >= 0) {
+                prices[bucket]++;
+            }
+        });
+        return toFacets(brands, categories, prices);
+    }
+
+    private Result query(ProductFilter filter, Sort sort, long offset, int limit, boolean withFacets) {
+        Snapshot current = snapshot;
+        FacetCounts counts = withFacets ? new FacetCounts(current, priceBoundsInCents()) : null;
+        int[] rows = current.match(filter, counts);
+        int total = rows.length;
+        sortRows(rows, total, current.comparator(sort));
+
+        int from = (int) Math.min(offset, total);
+        int to = (int) Math.min((long) from + limit, total);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(current.columns.ids[rows[i]]);
+        }
+        return new Result(ids, total, counts == null ? null : counts.toFacets(current));
+    }
+
+    private long[] priceBoundsInCents() {
+        long[] bounds = new long[priceBuckets.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = toCents(priceBuckets[i], RoundingMode.HALF_UP);
+        }
+        Arrays.sort(bounds);
+        return bounds;
+    }
+
+    /**
+     * Index of the bucket whose lower bound is the greatest one not above the price, or -1 below the first
+     */
+    static int bucketOf(long[] bounds, long priceCents) {
+        int index = Arrays.binarySearch(bounds, priceCents);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private ProductFacets toFacets(Map<String, Integer> brands, Map<Long, Integer> categories, int[] prices) {
+        long[] bounds = priceBoundsInCents();
+        List<ProductFacets.PriceBucket> buckets = new ArrayList<>(bounds.length);
+        for (int i = 0; i < bounds.length; i++) {
+            BigDecimal max = i + 1 < bounds.length ? BigDecimal.valueOf(bounds[i + 1], 2) : null;
+            buckets.add(new ProductFacets.PriceBucket(BigDecimal.valueOf(bounds[i], 2), max, prices[i]));
+        }
+        return ProductFacets.builder()
+                .brands(toValueCounts(brands, Comparator.naturalOrder()))
+                .categories(toValueCounts(categories, Comparator.naturalOrder()))
+                .prices(buckets)
+                .build();
+    }
+
+    private static <T> List<ProductFacets.ValueCount<T>> toValueCounts(Map<T, Integer> counts,
+                                                                       Comparator<? super T> valueOrder) {
+        List<ProductFacets.ValueCount<T>> values = new ArrayList<>(counts.size());
+        counts.forEach((value, count) -> values.add(new ProductFacets.ValueCount<>(value, count)));
+        values.sort(Comparator.<ProductFacets.ValueCount<T>>comparingInt(ProductFacets.ValueCount::getCount)
+                .reversed()
+                .thenComparing(ProductFacets.ValueCount::getValue, valueOrder));
+        return values;
+    }
+
+    /**
+     * Per-code match counters filled while a snapshot is scanned
+     */
+    private final class FacetCounts {
+
+        private final long[] bounds;
+        private final int[] brands;
+        private final int[] categories;
+        private final int[] prices;
+
+        private FacetCounts(Snapshot snapshot, long[] bounds) {
+            this.bounds = bounds;
+            this.brands = new int[snapshot.brands.size()];
+            this.categories = new int[snapshot.categories.size()];
+            this.prices = new int[bounds.length];
+        }
+
+        private void add(Columns columns, int row) {
+            int brand = columns.brandCodes[row];
+            if (brand != NO_CODE) {
+                brands[brand]++;
+            }
+            int category = columns.categoryCodes[row];
+            if (category != NO_CODE) {
+                categories[category]++;
+            }
+            int bucket = bucketOf(bounds, columns.priceCents[row]);
+            if (bucket >= 0) {
+                prices[bucket]++;
+            }
+        }
+
+        private ProductFacets toFacets(Snapshot snapshot) {
+            Map<String, Integer> brandCounts = new HashMap<>();
+            for (int code = 0; code < brands.length; code++) {
+                if (brands[code] > 0) {
+                    brandCounts.put(snapshot.brands.value(code), brands[code]);
+                }
+            }
+            Map<Long, Integer> categoryCounts = new HashMap<>();
+            for (int code = 0; code < categories.length; code++) {
+                if (categories[code] > 0) {
+                    categoryCounts.put(snapshot.categories.value(code), categories[code]);
+                }
+            }
+            return ProductCatalog.this.toFacets(brandCounts, categoryCounts, prices);
+        }
+    }
+
+    static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    /**
+     * Stable merge sort of the first n row indexes, without boxing
+     */
+    static void sortRows(int[] rows, int n, RowComparator comparator) {
+        if (n > 1) {
+            mergeSort(rows, new int[n], 0, n, comparator);
+        }
+    }
+
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, RowComparator comparator) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(rows[j], row) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, mid, comparator);
+        mergeSort(rows, buffer, mid, to, comparator);
+        if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            rows[k++] = comparator.compare(buffer[i], buffer[j]) <= 0 ? buffer[i++] : buffer[j++];
+        }
+        while (i < mid) {
+            rows[k++] = buffer[i++];
+        }
+        while (j < to) {
+            rows[k++] = buffer[j++];
+        }
+    }
+
+    /**
+     * Compares two rows of a snapshot
+     */
+    @FunctionalInterface
+    interface RowComparator {
+
+        int compare(int left, int right);
+    }
+
+    /**
+     * Ids of one page of matching products, in order, the total number of matches
+     * and, when requested, facet counts over all matches
+     */
+    public static final class Result {
+
+        private final List<Long> ids;
+        private final int total;
+        private final ProductFacets facets;
+
+        Result(List<Long> ids, int total, ProductFacets facets) {
+            this.ids = ids;
+            this.total = total;
+            this.facets = facets;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public ProductFacets getFacets() {
+            return facets;
+        }
+    }
+
+    /**
+     * Applies writes on top of a snapshot and publishes the result as a new snapshot
+     */
+    private final class Builder {
+
+        private Columns columns;
+        private int size;
+        private final BitSet live;
+        private final BitSet active;
+        private Dictionary<String> brands;
+        private Dictionary<Long> categories;
+        private int deadRows;
+
+        private Builder(Snapshot base) {
+            this.columns = base.columns;
+            this.size = base.size;
+            this.live = (BitSet) base.live.clone();
+            this.active = (BitSet) base.active.clone();
+            this.brands = base.brands;
+            this.categories = base.categories;
+            this.deadRows = base.deadRows;
+        }
+
+        private void append(Row row) {
+            if (size == columns.capacity()) {
+                columns = columns.copy(Math.max(INITIAL_CAPACITY, size * 2), size);
+            }
+            brands = brands.with(row.brand);
+            categories = categories.with(row.categoryId);
+
+            // Rows at or beyond the published size are invisible to readers, so writing in place is safe
+            columns.ids[size] = row.id;
+            columns.names[size] = row.name;
+            columns.priceCents[size] = row.priceCents;
+            columns.stock[size] = row.stock;
+            columns.brandCodes[size] = brands.code(row.brand);
+            columns.categoryCodes[size] = categories.code(row.categoryId);
+            live.set(size);
+            active.set(size, row.active);
+            rowById.put(row.id, size);
+            size++;
+        }
+
+        /**
+         * Append the rows of a snapshot file; its codes already refer to its dictionaries
+         */
+        private void load(CatalogSnapshotFile.Contents contents) {
+            int rows = contents.ids().length;
+            columns = new Columns(Math.max(INITIAL_CAPACITY, rows));
+            System.arraycopy(contents.ids(), 0, columns.ids, 0, rows);
+            System.arraycopy(contents.names(), 0, columns.names, 0, rows);
+            System.arraycopy(contents.priceCents(), 0, columns.priceCents, 0, rows);
+            System.arraycopy(contents.stock(), 0, columns.stock, 0, rows);
+            System.arraycopy(contents.brandCodes(), 0, columns.brandCodes, 0, rows);
+            System.arraycopy(contents.categoryCodes(), 0, columns.categoryCodes, 0, rows);
+            brands = Dictionary.of(contents.brands());
+            categories = Dictionary.of(contents.categories());
+            live.set(0, rows);
+            active.or(contents.active());
+            for (int row = 0; row < rows; row++) {
+                rowById.put(contents.ids()[row], row);
+            }
+            size = rows;
+            deadRows = 0;
+        }
+
+        private void adjustStock(Long id, int delta) {
+            Row current = read(id);
+            if (current != null) {
+                replace(new Row(current.id, current.name, current.priceCents, current.stock + delta,
+                        current.brand, current.categoryId, current.active));
+            }
+        }
+
+        private void patch(Long id, Map<String, Object> changes) {
+            Row current = read(id);
+            if (current == null) {
+                return;
+            }
+            String name = changes.containsKey("name")
+                    ? ((String) changes.get("name")).toLowerCase(Locale.ROOT) : current.name;
+            long priceCents = changes.containsKey("price")
+                    ? toCents((BigDecimal) changes.get("price"), RoundingMode.HALF_UP) : current.priceCents;
+            int stock = changes.containsKey("stockQuantity") ? (Integer) changes.get("stockQuantity") : current.stock;
+            String brand = changes.containsKey("brand") ? (String) changes.get("brand") : current.brand;
+            Long categoryId = current.categoryId;
+            if (changes.containsKey("category")) {
+                Category category = (Category) changes.get("category");
+                categoryId = category == null ? null : category.getId();
+            }
+            boolean isActive = changes.containsKey("active") ? (Boolean) changes.get("active") : current.active;
+            replace(new Row(id, name, priceCents, stock, brand, categoryId, isActive));
+        }
+
+        private Row read(Long id) {
+            Integer row = rowById.get(id);
+            if (row == null) {
+                return null;
+            }
+            int brand = columns.brandCodes[row];
+            int category = columns.categoryCodes[row];
+            return new Row(columns.ids[row], columns.names[row], columns.priceCents[row], columns.stock[row],
+                    brand == NO_CODE ? null : brands.value(brand),
+                    category == NO_CODE ? null : categories.value(category), active.get(row));
+        }
+
+        private void replace(Row row) {
+            remove(row.id);
+            append(row);
+        }
+
+        private void remove(Long id) {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                live.clear(row);
+                deadRows++;
+            }
+        }
+
+        private Snapshot publish() {
+            if (deadRows >= MIN_DEAD_ROWS_TO_COMPACT && deadRows > size - deadRows) {
+                compact();
+            }
+            return new Snapshot(columns, size, live, active, brands, categories, deadRows);
+        }
+
+        /**
+         * Copy the live rows into fresh arrays; snapshots still being read keep the old ones
+         */
+        private void compact() {
+            int liveRows = size - deadRows;
+            Columns compacted = new Columns(Math.max(INITIAL_CAPACITY, liveRows * 2));
+            BitSet compactedActive = new BitSet();
+            int target = 0;
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                compacted.ids[target] = columns.ids[row];
+                compacted.names[target] = columns.names[row];
+                compacted.priceCents[target] = columns.priceCents[row];
+                compacted.stock[target] = columns.stock[row];
+                compacted.brandCodes[target] = columns.brandCodes[row];
+                compacted.categoryCodes[target] = columns.categoryCodes[row];
+                compactedActive.set(target, active.get(row));
+                rowById.put(columns.ids[row], target);
+                target++;
+            }
+            columns = compacted;
+            size = target;
+            live.clear();
+            live.set(0, target);
+            active.clear();
+            active.or(compactedActive);
+            deadRows = 0;
+        }
+    }
+
+    /**
+     * Immutable view of the catalog; rows below size never change once published
+     */
+    static final class Snapshot {
+
+        private final Columns columns;
+        private final int size;
+        private final BitSet live;
+        private final BitSet active;
+        private final Dictionary<String> brands;
+        private final Dictionary<Long> categories;
+        private final int deadRows;
+
+        private Snapshot(Columns columns, int size, BitSet live, BitSet active,
+                         Dictionary<String> brands, Dictionary<Long> categories, int deadRows) {
+            this.columns = columns;
+            this.size = size;
+            this.live = live;
+            this.active = active;
+            this.brands = brands;
+            this.categories = categories;
+            this.deadRows = deadRows;
+        }
+
+        private static Snapshot empty() {
+            return new Snapshot(new Columns(INITIAL_CAPACITY), 0, new BitSet(), new BitSet(),
+                    Dictionary.empty(), Dictionary.empty(), 0);
+        }
+
+        int liveRows() {
+            return size - deadRows;
+        }
+
+        /**
+         * The live rows and both dictionaries, for the snapshot file
+         */
+        private CatalogSnapshotFile.Contents contents(LocalDateTime watermark) {
+            int rows = liveRows();
+            long[] ids = new long[rows];
+            String[] names = new String[rows];
+            long[] prices = new long[rows];
+            int[] stocks = new int[rows];
+            int[] brandCodes = new int[rows];
+            int[] categoryCodes = new int[rows];
+            BitSet activeRows = new BitSet(rows);
+            int target = 0;
+            for (int row = live.nextSetBit(0); row >= 0 && row < size; row = live.nextSetBit(row + 1)) {
+                ids[target] = columns.ids[row];
+                names[target] = columns.names[row];
+                prices[target] = columns.priceCents[row];
+                stocks[target] = columns.stock[row];
+                brandCodes[target] = columns.brandCodes[row];
+                categoryCodes[target] = columns.categoryCodes[row];
+                activeRows.set(target, active.get(row));
+                target++;
+            }
+            return new CatalogSnapshotFile.Contents(watermark, ids, names, prices, stocks, brandCodes, categoryCodes,
+                    activeRows, brands.values, categories.values);
+        }
+
+        /**
+         * Row indexes matching the filter, in row order; matches are also counted into counts if given
+         */
+        private int[] match(ProductFilter filter, FacetCounts counts) {
+            BitSet candidates = (BitSet) live.clone();
+            if (filter.getActive() != null) {
+                if (filter.getActive()) {
+                    candidates.and(active);
+                } else {
+                    candidates.andNot(active);
+                }
+            }
+
+            int brandCode = NO_CODE;
+            if (filter.getBrand() != null) {
+                brandCode = brands.code(filter.getBrand());
+                if (brandCode == NO_CODE) {
+                    return new int[0];
+                }
+            }
+            int categoryCode = NO_CODE;
+            if (filter.getCategoryId() != null) {
+                categoryCode = categories.code(filter.getCategoryId());
+                if (categoryCode == NO_CODE) {
+                    return new int[0];
+                }
+            }
+            long minCents = filter.getMinPrice() == null ? Long.MIN_VALUE
+                    : toCents(filter.getMinPrice(), RoundingMode.CEILING);
+            long maxCents = filter.getMaxPrice() == null ? Long.MAX_VALUE
+                    : toCents(filter.getMaxPrice(), RoundingMode.FLOOR);
+            String needle = filter.getName() == null ? null : filter.getName().toLowerCase(Locale.ROOT);
+
+            int[] rows = new int[candidates.cardinality()];
+            int count = 0;
+            for (int row = candidates.nextSetBit(0); row >= 0 && row < size; row = candidates.nextSetBit(row + 1)) {
+                if (brandCode != NO_CODE && columns.brandCodes[row] != brandCode) {
+                    continue;
+                }
+                if (categoryCode != NO_CODE && columns.categoryCodes[row] != categoryCode) {
+                    continue;
+                }
+                long price = columns.priceCents[row];
+                if (price < minCents || price > maxCents) {
+                    continue;
+                }
+                if (needle != null && !columns.names[row].contains(needle)) {
+                    continue;
+                }
+                rows[count++] = row;
+                if (counts != null) {
+                    counts.add(columns, row);
+                }
+            }
+            return count == rows.length ? rows : Arrays.copyOf(rows, count);
+        }
+
+        RowComparator comparator(Sort sort) {
+            RowComparator comparator = null;
+            for (Sort.Order order : sort) {
+                RowComparator next = comparator(order.getProperty());
+                if (order.isDescending()) {
+                    RowComparator ascending = next;
+                    next = (left, right) -> ascending.compare(right, left);
+                }
+                comparator = comparator == null ? next : thenComparing(comparator, next);
+            }
+            RowComparator byId = comparator("id");
+            return comparator == null ? byId : thenComparing(comparator, byId);
+        }
+
+        private RowComparator comparator(String property) {
+            return switch (property) {
+                case "id" -> (left, right) -> Long.compare(columns.ids[left], columns.ids[right]);
+                case "name" -> (left, right) -> columns.names[left].compareTo(columns.names[right]);
+                case "price" -> (left, right) -> Long.compare(columns.priceCents[left], columns.priceCents[right]);
+                case "stockQuantity" -> (left, right) -> Integer.compare(columns.stock[left], columns.stock[right]);
+                default -> throw new IllegalArgumentException("Unsupported sort property: " + property);
+            };
+        }
+
+        private static RowComparator thenComparing(RowComparator first, RowComparator second) {
+            return (left, right) -> {
+                int result = first.compare(left, right);
+                return result != 0 ? result : second.compare(left, right);
+            };
+        }
+    }
+
+    /**
+     * Parallel column arrays sharing one row index
+     */
+    private static final class Columns {
+
+        private final long[] ids;
+        private final String[] names;
+        private final long[] priceCents;
+        private final int[] stock;
+        private final int[] brandCodes;
+        private final int[] categoryCodes;
+
+        private Columns(int capacity) {
+            this.ids = new long[capacity];
+            this.names = new String[capacity];
+            this.priceCents = new long[capacity];
+            this.stock = new int[capacity];
+            this.brandCodes = new int[capacity];
+            this.categoryCodes = new int[capacity];
+        }
+
+        private int capacity() {
+            return ids.length;
+        }
+
+        private Columns copy(int capacity, int rows) {
+            Columns copy = new Columns(capacity);
+            System.arraycopy(ids, 0, copy.ids, 0, rows);
+            System.arraycopy(names, 0, copy.names, 0, rows);
+            System.arraycopy(priceCents, 0, copy.priceCents, 0, rows);
+            System.arraycopy(stock, 0, copy.stock, 0, rows);
+            System.arraycopy(brandCodes, 0, copy.brandCodes, 0, rows);
+            System.arraycopy(categoryCodes, 0, copy.categoryCodes, 0, rows);
+            return copy;
+        }
+    }
+
+    /**
+     * Immutable mapping between distinct values and dense int codes; adding a value copies it
+     */
+    static final class Dictionary<K> {
+
+        private final Map<K, Integer> codes;
+        private final List<K> values;
+
+        private Dictionary(Map<K, Integer> codes, List<K> values) {
+            this.codes = codes;
+            this.values = values;
+        }
+
+        private static <K> Dictionary<K> empty() {
+            return new Dictionary<>(Collections.emptyMap(), Collections.emptyList());
+        }
+
+        private static <K> Dictionary<K> of(List<K> values) {
+            Map<K, Integer> codes = new HashMap<>(values.size() * 4 / 3 + 1);
+            for (int code = 0; code < values.size(); code++) {
+                codes.put(values.get(code), code);
+            }
+            return new Dictionary<>(codes, List.copyOf(values));
+        }
+
+        int code(K value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Integer code = codes.get(value);
+            return code == null ? NO_CODE : code;
+        }
+
+        K value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        private Dictionary<K> with(K value) {
+            if (value == null || codes.containsKey(value)) {
+                return this;
+            }
+            Map<K, Integer> newCodes = new HashMap<>(codes);
+            List<K> newValues = new ArrayList<>(values);
+            newCodes.put(value, newValues.size());
+            newValues.add(value);
+            return new Dictionary<>(newCodes, newValues);
+        }
+    }
+
+    /**
+     * Catalog fields of one product
+     */
+    private static final class Row {
+
+        private final long id;
+        private final String name;
+        private final long priceCents;
+        private final int stock;
+        private final String brand;
+        private final Long categoryId;
+        private final boolean active;
+
+        private Row(long id, String name, long priceCents, int stock, String brand, Long categoryId,
+                    boolean active) {
+            this.id = id;
+            this.name = name;
+            this.priceCents = priceCents;
+            this.stock = stock;
+            this.brand = brand;
+            this.categoryId = categoryId;
+            this.active = active;
+        }
+
+        private static Row of(Long id, String name, BigDecimal price, Integer stock, String brand,
+                              Long categoryId, Boolean active) {
+            return new Row(id, name == null ? "" : name.toLowerCase(Locale.ROOT),
+                    price == null ? 0 : toCents(price, RoundingMode.HALF_UP), stock == null ? 0 : stock,
+                    brand, categoryId, Boolean.TRUE.equals(active));
+        }
+
+        private static Row of(ProductCatalogView view) {
+            return of(view.getId(), view.getName(), view.getPrice(), view.getStockQuantity(),
+                    view.getBrand(), view.getCategoryId(), view.getActive());
+        }
+
+        private static Row of(Product product) {
+            // Reading the id of a lazy proxy does not initialize it
+            Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+            return of(product.getId(), product.getName(), product.getPrice(), product.getStockQuantity(),
+                    product.getBrand(), categoryId, product.getActive());
+        }
+    }
+}
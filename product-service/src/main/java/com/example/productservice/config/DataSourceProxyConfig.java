@@ -0,0 +1,50 @@
+package com.example.productservice.config;
+
+import com.example.productservice.timing.ServerTimingDataSource;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource Proxy Configuration
+ * Routes every JDBC statement through the QueryExecutionListener beans and times pool checkouts
+ * Result sets are proxied as well, for the method listeners that count rows, unless
+ * product.slow-query.count-select-rows is false
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    /**
+     * Wrap the connection pool once it is configured; the pool stays reachable through unwrap
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners,
+                                                                 ObjectProvider<MethodExecutionListener> methodListeners,
+                                                                 Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder
+                        .create(new ServerTimingDataSource(dataSource))
+                        .name(beanName);
+                listeners.orderedStream().forEach(builder::listener);
+                methodListeners.orderedStream().forEach(builder::methodListener);
+                if (environment.getProperty("product.slow-query.count-select-rows", Boolean.class, true)) {
+                    builder.proxyResultSet();
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.dto.ReservationRequest;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.service.InventoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for stock reservations
+ * Provides endpoints to reserve, commit and release product stock
+ */
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+@Tag(name = "Inventory", description = "APIs for reserving product stock")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    /**
+     * Reserve stock
+     */
+    @PostMapping("/reservations")
+    @Operation(summary = "Reserve stock", description = "Takes stock of a product out for a checkout; 409 if not enough is left")
+    public ResponseEntity<StockReservation> reserve(@Valid @RequestBody ReservationRequest request) {
+        return inventoryService.reserve(request.getProductId(), request.getQuantity())
+                .map(reservation -> ResponseEntity.status(HttpStatus.CREATED).body(reservation))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Get reservation by ID
+     */
+    @GetMapping("/reservations/{id}")
+    @Operation(summary = "Get reservation", description = "Retrieves a stock reservation by ID")
+    public ResponseEntity<StockReservation> getReservation(@PathVariable String id) {
+        return inventoryService.getReservation(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Commit reservation
+     */
+    @PostMapping("/reservations/{id}/commit")
+    @Operation(summary = "Commit reservation", description = "Makes a held reservation final; 409 if it is no longer held")
+    public ResponseEntity<Void> commit(@PathVariable String id) {
+        return inventoryService.commit(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Release reservation
+     */
+    @PostMapping("/reservations/{id}/release")
+    @Operation(summary = "Release reservation", description = "Returns a held reservation to stock; 409 if it is no longer held")
+    public ResponseEntity<Void> release(@PathVariable String id) {
+        return inventoryService.release(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.dto.BatchLookupResult;
+import com.example.productservice.dto.FacetedProductPage;
+import com.example.productservice.dto.ImportReport;
+import com.example.productservice.dto.MultiGetRequest;
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.io.DataFormat;
+import com.example.productservice.model.Product;
+import com.example.productservice.patch.MergePatch;
+import com.example.productservice.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * REST Controller for Product operations
+ * Provides endpoints for CRUD operations on products
+ */
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+@Tag(name = "Product Management", description = "APIs for managing the product catalog")
+public class ProductController {
+
+    private final ProductService productService;
+
+    /**
+     * Create a new product
+     */
+    @PostMapping
+    @Operation(summary = "Create new product", description = "Creates a new product")
+    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+        Product createdProduct = productService.createProduct(product);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+    }
+
+    /**
+     * Bulk import products
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Import products", description = "Bulk inserts products from a CSV or NDJSON body")
+    public ResponseEntity<ImportReport> importProducts(HttpServletRequest request) throws IOException {
+        DataFormat dataFormat = DataFormat.fromMediaType(MediaType.parseMediaType(request.getContentType()));
+        ImportReport report = productService.importProducts(request.getInputStream(), dataFormat);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Get product by ID
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get product by ID", description = "Retrieves a product by ID")
+    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+        return productService.getProductById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get product by SKU
+     */
+    @GetMapping("/sku/{sku}")
+    @Operation(summary = "Get product by SKU", description = "Retrieves a product by SKU")
+    public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
+        return productService.getProductBySku(sku)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get many products by ID or SKU
+     */
+    @PostMapping("/_mget")
+    @Operation(summary = "Get products in batch",
+            description = "Retrieves products by ids or by skus in one round trip; results follow request order and misses are listed")
+    public ResponseEntity<BatchLookupResult<?, Product>> getProductsBatch(@RequestBody MultiGetRequest request) {
+        boolean byIds = request.getIds() != null;
+        if (byIds == (request.getSkus() != null)) {
+            throw new IllegalArgumentException("Give either ids or skus");
+        }
+        BatchLookupResult<?, Product> result = byIds
+                ? productService.getProductsByIds(request.getIds())
+                : productService.getProductsBySkus(request.getSkus());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Get all products
+     */
+    @GetMapping
+    @Operation(summary = "Get all products", description = "Retrieves all products")
+    public ResponseEntity<List<Product>> getAllProducts() {
+        List<Product> products = productService.getAllProducts();
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Export all products as a stream
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export products", description = "Streams all products as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        DataFormat dataFormat = DataFormat.fromParam(format);
+        StreamingResponseBody body = out -> productService.exportAllProducts(dataFormat, out);
+        return ResponseEntity.ok()
+                .contentType(dataFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + dataFormat.getExtension())
+                .body(body);
+    }
+
+    /**
+     * Get products with pagination
+     */
+    @GetMapping("/page")
+    @Operation(summary = "Get products with pagination", description = "Retrieves products with pagination support")
+    public ResponseEntity<Page<Product>> getProductsPage(Pageable pageable) {
+        Page<Product> productsPage = productService.getProductsPaginated(pageable);
+        return ResponseEntity.ok(productsPage);
+    }
+
+    /**
+     * Filter products by any combination of category, brand, price range, active flag and name
+     */
+    @GetMapping("/filter")
+    @Operation(summary = "Filter products", description = "Retrieves a page of products matching all given criteria")
+    public ResponseEntity<Page<Product>> filterProducts(@ModelAttribute ProductFilter filter, Pageable pageable) {
+        Page<Product> productsPage = productService.filterProducts(filter, pageable);
+        return ResponseEntity.ok(productsPage);
+    }
+
+    /**
+     * Filter products and count all matches per brand, category and price bucket
+     */
+    @GetMapping("/filter/facets")
+    @Operation(summary = "Filter products with facets",
+            description = "Retrieves a page of matching products plus brand, category and price facet counts")
+    public ResponseEntity<FacetedProductPage> filterProductsWithFacets(@ModelAttribute ProductFilter filter,
+                                                                       Pageable pageable) {
+        FacetedProductPage facetedPage = productService.filterProductsWithFacets(filter, pageable);
+        return ResponseEntity.ok(facetedPage);
+    }
+
+    /**
+     * Get products by category
+     */
+    @GetMapping("/category/{categoryId}")
+    @Operation(summary = "Get products by category", description = "Retrieves products in a category")
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
+        List<Product> products = productService.getProductsByCategory(categoryId);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Search products by name
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search by name", description = "Searches products by name")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
+        List<Product> products = productService.searchProductsByName(name);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Full-text search over name, brand and description, ranked by relevance
+     */
+    @GetMapping("/search/text")
+    @Operation(summary = "Full-text search",
+            description = "Retrieves a page of products containing every word of q, most relevant first,"
+                    + " optionally restricted by categoryId, minPrice, maxPrice and active")
+    public ResponseEntity<Page<Product>> searchProductsByText(@RequestParam("q") String query,
+                                                              @ModelAttribute ProductFilter filter,
+                                                              Pageable pageable) {
+        return ResponseEntity.ok(productService.searchProducts(query, filter, pageable));
+    }
+
+    /**
+     * Suggest products as the user types
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest products",
+            description = "Type-ahead suggestions by name, word or SKU prefix, most viewed first")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(@RequestParam("q") String prefix,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    /**
+     * Get products by brand
+     */
+    @GetMapping("/brand/{brand}")
+    @Operation(summary = "Get products by brand", description = "Retrieves products of a brand")
+    public ResponseEntity<List<Product>> getProductsByBrand(@PathVariable String brand) {
+        List<Product> products = productService.getProductsByBrand(brand);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Get products in a price range
+     */
+    @GetMapping("/price")
+    @Operation(summary = "Get products by price range", description = "Retrieves products priced between min and max, inclusive")
+    public ResponseEntity<List<Product>> getProductsByPriceRange(@RequestParam BigDecimal min,
+                                                                 @RequestParam BigDecimal max) {
+        List<Product> products = productService.getProductsByPriceRange(min, max);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Get active products
+     */
+    @GetMapping("/active")
+    @Operation(summary = "Get active products", description = "Retrieves all active products")
+    public ResponseEntity<List<Product>> getActiveProducts() {
+        List<Product> products = productService.getActiveProducts();
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Update product
+     */
+    @PutMapping("/{id}")
+    @Operation(summary = "Update product", description = "Updates an existing product")
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
+        Product updatedProduct = productService.updateProduct(id, product);
+        return ResponseEntity.ok(updatedProduct);
+    }
+
+    /**
+     * Partially update product
+     */
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Patch product", description = "Applies a JSON Merge Patch; If-Match must carry the current version")
+    public ResponseEntity<Void> patchProduct(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody JsonNode patch) {
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        long version = productService.patchProduct(id, parseVersion(ifMatch), patch);
+        return ResponseEntity.noContent().eTag(Long.toString(version)).build();
+    }
+
+    /**
+     * Delete product
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete product", description = "Deletes a product")
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
+        productService.deleteProduct(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reject unsupported parameter values such as an unknown export format or sort property
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * Reject writes based on a stale version
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    /**
+     * Health check endpoint
+     */
+    @GetMapping("/health")
+    @Operation(summary = "Health check", description = "Service health check endpoint")
+    public ResponseEntity<String> healthCheck() {
+        return ResponseEntity.ok("Product Service is running");
+    }
+
+    /**
+     * Read the version from an If-Match entity tag such as "3" or W/"3"
+     */
+    private static long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match must carry a version, got " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of a batch lookup with one entry per requested key, in request order
+ * Keys that matched nothing get an entry without a value and are also listed in missing
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupResult<K, T> {
+
+    private List<Entry<K, T>> results;
+
+    private List<K> missing;
+
+    public static <K, T> BatchLookupResult<K, T> of(List<K> keys, Map<K, T> found) {
+        List<Entry<K, T>> results = new ArrayList<>(keys.size());
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            T value = found.get(key);
+            results.add(new Entry<>(key, value != null, value));
+            if (value == null) {
+                missing.add(key);
+            }
+        }
+        return new BatchLookupResult<>(results, new ArrayList<>(missing));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry<K, T> {
+
+        private K key;
+
+        private boolean found;
+
+        private T value;
+    }
+}
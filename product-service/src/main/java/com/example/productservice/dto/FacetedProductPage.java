@@ -0,0 +1,29 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of filtered products together with facet counts over all matches
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedProductPage {
+
+    private List<Product> content;
+
+    private int page;
+
+    private int size;
+
+    private long totalElements;
+
+    private ProductFacets facets;
+}
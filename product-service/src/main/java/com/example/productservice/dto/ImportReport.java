@@ -0,0 +1,52 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import
+ * Rejected rows are listed individually, up to the configured error limit
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    private int batches;
+
+    private String writeMode;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private boolean errorsTruncated;
+
+    private List<RowError> errors;
+
+    /**
+     * Reason a single input row was rejected
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long line;
+
+        private String sku;
+
+        private String message;
+    }
+}
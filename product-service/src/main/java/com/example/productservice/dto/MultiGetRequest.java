@@ -0,0 +1,20 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request to look up many products at once, either by id or by SKU
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetRequest {
+
+    private List<Long> ids;
+
+    private List<String> skus;
+}
@@ -0,0 +1,24 @@
+package com.example.productservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the product columns held by the in-memory catalog
+ * Used to seed the catalog without hydrating full entities
+ */
+public interface ProductCatalogView {
+
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    Integer getStockQuantity();
+
+    String getBrand();
+
+    Long getCategoryId();
+
+    Boolean getActive();
+}
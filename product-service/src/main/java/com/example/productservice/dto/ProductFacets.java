@@ -0,0 +1,54 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Number of matching products per brand, per category and per price bucket
+ * Brands and categories are ordered by descending count; products without one are not counted
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+
+    private List<ValueCount<String>> brands;
+
+    private List<ValueCount<Long>> categories;
+
+    private List<PriceBucket> prices;
+
+    /**
+     * Count of products sharing one facet value
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ValueCount<T> {
+
+        private T value;
+
+        private int count;
+    }
+
+    /**
+     * Count of products priced from min inclusive to max exclusive; max is null for the last bucket
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+
+        private BigDecimal min;
+
+        private BigDecimal max;
+
+        private int count;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Combined product filter; criteria left null are not applied
+ * Price bounds are inclusive and the name matches case-insensitively as a substring
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    private Long categoryId;
+
+    private String brand;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Boolean active;
+
+    private String name;
+}
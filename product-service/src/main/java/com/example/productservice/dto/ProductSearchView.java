@@ -0,0 +1,26 @@
+package com.example.productservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the product columns held by the full-text search index
+ */
+public interface ProductSearchView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getBrand();
+
+    Long getCategoryId();
+
+    BigDecimal getPrice();
+
+    Boolean getActive();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,15 @@
+package com.example.productservice.dto;
+
+/**
+ * Projection of the product columns indexed for type-ahead suggestions
+ */
+public interface ProductSuggestView {
+
+    Long getId();
+
+    String getName();
+
+    String getSku();
+
+    Boolean getActive();
+}
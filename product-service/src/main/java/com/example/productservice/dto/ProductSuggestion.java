@@ -0,0 +1,20 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One type-ahead suggestion: enough to show the product and link to it, without loading the entity
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+
+    private Long id;
+
+    private String name;
+
+    private String sku;
+}
@@ -0,0 +1,23 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request to reserve stock of a product
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    @NotNull
+    private Long productId;
+
+    @NotNull
+    @Min(1)
+    private Integer quantity;
+}
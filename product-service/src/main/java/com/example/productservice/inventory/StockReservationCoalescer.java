@@ -0,0 +1,236 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges concurrent stock reservations for the same product into batched conditional decrements
+ * Products are spread over lock stripes. A caller queues its request on the product's stripe and
+ * takes the stripe lock; whoever holds the lock drains every queued request, so requests that
+ * arrive while a batch is being written are applied together in the next one. Each batch is one
+ * transaction with one "stock >= n" decrement per product plus a JDBC batch of reservation rows,
+ * so stock can never go below zero whatever the interleaving. An unknown product only fails its own
+ * requests: nothing is thrown inside the transaction, so the rest of the batch still commits.
+ */
+@Component
+@Slf4j
+public class StockReservationCoalescer {
+
+    static final String INSERT_SQL = "INSERT INTO stock_reservations"
+            + " (id, product_id, quantity, status, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCache productCache;
+    private final ProductCatalog productCatalog;
+    private final Stripe[] stripes;
+    private final Duration reservationTtl;
+
+    public StockReservationCoalescer(ProductRepository productRepository, JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     ProductCache productCache, ProductCatalog productCatalog,
+                                     @Value("${product.inventory.stripes:64}") int stripeCount,
+                                     @Value("${product.inventory.reservation-ttl-seconds:900}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.productCache = productCache;
+        this.productCatalog = productCatalog;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.reservationTtl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Reserve quantity of a product in its own transaction
+     * Returns the held reservation, or empty when there is not enough stock
+     */
+    public Optional<StockReservation> reserve(Long productId, int quantity) {
+        Request request = new Request(productId, quantity);
+        Stripe stripe = stripes[Math.floorMod(Long.hashCode(productId * 0x9E3779B97F4A7C15L), stripes.length)];
+        stripe.pending.add(request);
+
+        stripe.lock.lock();
+        try {
+            if (!request.done) {
+                drain(stripe);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (request.failure != null) {
+            throw request.failure;
+        }
+        return Optional.ofNullable(request.reservation);
+    }
+
+    /**
+     * Apply every queued request of a stripe; must hold the stripe lock
+     */
+    private void drain(Stripe stripe) {
+        Map<Long, List<Request>> byProduct = new LinkedHashMap<>();
+        Request queued;
+        while ((queued = stripe.pending.poll()) != null) {
+            byProduct.computeIfAbsent(queued.productId, id -> new ArrayList<>()).add(queued);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Request, StockReservation> granted = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> byProduct.forEach((productId, requests) ->
+                    reserveBatch(productId, requests, now, granted, missing)));
+        } catch (RuntimeException ex) {
+            log.error("Stock reservation batch failed for products {}", byProduct.keySet(), ex);
+            byProduct.values().forEach(requests -> requests.forEach(request -> {
+                request.failure = ex;
+                request.done = true;
+            }));
+            return;
+        }
+
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        byProduct.forEach((productId, requests) -> {
+            RuntimeException notFound = missing.contains(productId)
+                    ? new RuntimeException("Product not found with id: " + productId)
+                    : null;
+            for (Request request : requests) {
+                request.failure = notFound;
+                request.reservation = granted.get(request);
+                if (request.reservation != null) {
+                    stockDeltas.merge(productId, -request.quantity, Integer::sum);
+                }
+                request.done = true;
+            }
+        });
+        stockDeltas.keySet().forEach(productCache::evict);
+        productCatalog.adjustStock(stockDeltas);
+    }
+
+    /**
+     * Grant as many of one product's requests as stock allows, in arrival order where possible
+     */
+    private void reserveBatch(Long productId, List<Request> requests, LocalDateTime now,
+                              Map<Request, StockReservation> granted, Set<Long> missing) {
+        int total = 0;
+        for (Request request : requests) {
+            total += request.quantity;
+        }
+
+        List<Request> winners;
+        if (productRepository.decrementStock(productId, total, now) == 1) {
+            winners = requests;
+        } else {
+            winners = grantWithinStock(productId, requests, now, missing);
+        }
+        if (winners.isEmpty()) {
+            return;
+        }
+
+        List<StockReservation> reservations = new ArrayList<>(winners.size());
+        for (Request request : winners) {
+            StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), productId,
+                    request.quantity, StockReservation.Status.HELD, now, now.plus(reservationTtl));
+            reservations.add(reservation);
+            granted.put(request, reservation);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (statement, reservation) -> {
+            statement.setString(1, reservation.getId());
+            statement.setLong(2, reservation.getProductId());
+            statement.setInt(3, reservation.getQuantity());
+            statement.setString(4, reservation.getStatus().name());
+            statement.setTimestamp(5, Timestamp.valueOf(reservation.getCreatedAt()));
+            statement.setTimestamp(6, Timestamp.valueOf(reservation.getExpiresAt()));
+        });
+    }
+
+    /**
+     * The whole batch does not fit: read the stock once, pick the requests that fit, then decrement
+     * their sum conditionally; if another writer got in between, fall back to one request at a time
+     * A product that does not exist is recorded as missing and grants nothing.
+     */
+    private List<Request> grantWithinStock(Long productId, List<Request> requests, LocalDateTime now,
+                                           Set<Long> missing) {
+        Optional<Integer> stock = productRepository.findStockQuantityById(productId);
+        if (stock.isEmpty()) {
+            log.warn("Refusing {} stock reservations for missing product {}", requests.size(), productId);
+            missing.add(productId);
+            return List.of();
+        }
+
+        List<Request> fitting = new ArrayList<>();
+        int remaining = stock.get();
+        int total = 0;
+        for (Request request : requests) {
+            if (request.quantity <= remaining) {
+                fitting.add(request);
+                remaining -= request.quantity;
+                total += request.quantity;
+            }
+        }
+        if (fitting.isEmpty() || productRepository.decrementStock(productId, total, now) == 1) {
+            return fitting;
+        }
+
+        List<Request> winners = new ArrayList<>();
+        for (Request request : requests) {
+            if (productRepository.decrementStock(productId, request.quantity, now) == 1) {
+                winners.add(request);
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * One pending reservation; results are written by the draining thread under the stripe lock
+     */
+    private static final class Request {
+
+        private final Long productId;
+        private final int quantity;
+        private boolean done;
+        private StockReservation reservation;
+        private RuntimeException failure;
+
+        private Request(Long productId, int quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.productservice.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Ordered column definitions for exporting rows of a given type
+ */
+public final class ExportColumns<T> {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<T, ?>> getters = new ArrayList<>();
+
+    public ExportColumns<T> add(String name, Function<T, ?> getter) {
+        names.add(name);
+        getters.add(getter);
+        return this;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    Object value(T row, int column) {
+        return getters.get(column).apply(row);
+    }
+}
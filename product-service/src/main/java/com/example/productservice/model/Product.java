@@ -1,9 +1,12 @@
 package com.example.productservice.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -18,35 +21,51 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Product {
 
+    public static final String CATEGORY_CONSTRAINT = "fk_products_category";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
     @Column(nullable = false, length = 100)
     private String name;
 
+    @Size(max = 500, message = "Description must be at most 500 characters")
     @Column(length = 500)
     private String description;
 
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.00", message = "Price must not be negative")
     @Column(nullable = false)
     private BigDecimal price;
 
+    @NotNull(message = "Stock quantity is required")
+    @PositiveOrZero(message = "Stock quantity must not be negative")
     @Column(nullable = false)
     private Integer stockQuantity;
 
+    @Size(max = 50, message = "SKU must be at most 50 characters")
     @Column(length = 50)
     private String sku;
 
+    @Size(max = 50, message = "Brand must be at most 50 characters")
     @Column(length = 50)
+    @Convert(converter = InternedStringConverter.class)
     private String brand;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "category_id")
+    @JoinColumn(name = "category_id", foreignKey = @ForeignKey(name = CATEGORY_CONSTRAINT))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Category category;
 
+    @Size(max = 255, message = "Image URL must be at most 255 characters")
     @Column(length = 255)
     private String imageUrl;
 
+    @NotNull(message = "Active flag is required")
     @Column(nullable = false)
     private Boolean active = true;
 
@@ -56,6 +75,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Existing rows start at 0; partial updates and stock changes compare and bump it in SQL
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,50 @@
+package com.example.productservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Stock Reservation Entity
+ * Quantity of a product taken out of stock for a checkout until it is committed, released or expires
+ */
+@Entity
+@Table(name = "stock_reservations",
+        indexes = @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    /**
+     * Lifecycle of a reservation; only HELD reservations can change state
+     */
+    public enum Status {
+        HELD,
+        COMMITTED,
+        RELEASED
+    }
+
+    // Assigned by the application so reservations can be inserted in JDBC batches
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
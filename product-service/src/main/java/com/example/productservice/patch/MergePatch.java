@@ -0,0 +1,101 @@
+package com.example.productservice.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns an RFC 7396 JSON Merge Patch into the set of entity attributes it changes
+ * Only declared fields may appear; a JSON null clears the attribute. Each value is converted
+ * to the attribute's type and checked against the entity's Bean Validation constraints,
+ * so a patch is rejected before anything is written.
+ */
+public class MergePatch<T> {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final Class<T> entityType;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Map<String, Function<JsonNode, Object>> fields = new LinkedHashMap<>();
+
+    public MergePatch(Class<T> entityType, ObjectMapper objectMapper, Validator validator) {
+        this.entityType = entityType;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Allow a field whose JSON value maps directly onto an attribute of the given type
+     */
+    public MergePatch<T> field(String name, Class<?> valueType) {
+        return field(name, node -> objectMapper.convertValue(node, valueType));
+    }
+
+    /**
+     * Allow a field whose JSON value needs a custom conversion, such as a reference to another entity
+     */
+    public MergePatch<T> field(String name, Function<JsonNode, Object> converter) {
+        fields.put(name, converter);
+        return this;
+    }
+
+    /**
+     * Attribute values set by the patch, in patch order; null values clear the attribute
+     */
+    public Map<String, Object> changes(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> entries = patch.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            String name = entry.getKey();
+            Function<JsonNode, Object> converter = fields.get(name);
+            if (converter == null) {
+                throw new IllegalArgumentException("Field " + name + " cannot be patched");
+            }
+
+            Object value;
+            try {
+                value = entry.getValue().isNull() ? null : converter.apply(entry.getValue());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid value for " + name + ": " + entry.getValue(), ex);
+            }
+
+            Set<ConstraintViolation<T>> violations = validator.validateValue(entityType, name, value);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .collect(Collectors.joining(", ")));
+            }
+            changes.put(name, value);
+        }
+        return changes;
+    }
+
+    /**
+     * JPQL that writes the given attributes, the update timestamp and the next version in one
+     * statement, guarded by the expected version; parameters are named after the attributes
+     */
+    public static String updateStatement(String entityName, Collection<String> attributes) {
+        StringBuilder jpql = new StringBuilder("UPDATE ").append(entityName).append(" e SET ");
+        for (String attribute : attributes) {
+            jpql.append("e.").append(attribute).append(" = :").append(attribute).append(", ");
+        }
+        return jpql.append("e.updatedAt = :updatedAt, e.version = e.version + 1")
+                .append(" WHERE e.id = :id AND e.version = :version")
+                .toString();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.productservice.repository;
 
 import com.example.productservice.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -22,4 +23,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Long countByActiveTrue();
 
     boolean existsByName(String name);
+
+    @Query("SELECT c.id FROM Category c")
+    List<Long> findAllIds();
 }
@@ -1,20 +1,52 @@
-repository/ProductRepository.javapackage com.example.productservice.repository;
+package com.example.productservice.repository;
 
+import com.example.productservice.dto.ProductCatalogView;
+import com.example.productservice.dto.ProductSearchView;
+import com.example.productservice.dto.ProductSuggestView;
 import com.example.productservice.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Product entity
  * Provides CRUD operations and custom queries
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String FILTER_CONDITION = "(:categoryId IS NULL OR p.category.id = :categoryId)"
+            + " AND (:brand IS NULL OR p.brand = :brand)"
+            + " AND (:minPrice IS NULL OR p.price >= :minPrice)"
+            + " AND (:maxPrice IS NULL OR p.price <= :maxPrice)"
+            + " AND (:active IS NULL OR p.active = :active)"
+            + " AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))";
 
     Optional<Product> findBySku(String sku);
 
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryBySkuOrderByIdAsc(String sku);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryBySkuInOrderByIdAsc(Collection<String> skus);
+
     List<Product> findByNameContainingIgnoreCase(String name);
 
     List<Product> findByBrand(String brand);
@@ -23,9 +55,159 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByActiveTrue();
 
-    List<Product> findByPriceBetween(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice);
+    List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+
+    // Fetch-planned variants: the category is joined in the same statement, since
+    // every product response serializes it
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllWithCategory();
+
+    @EntityGraph(attributePaths = "category")
+    @Query(value = "SELECT p FROM Product p", countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<Product> findAllWithCategory(Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByCategoryId(Long categoryId);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByNameContainingIgnoreCase(String name);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByBrand(String brand);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByActiveTrue();
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findWithCategoryByIdIn(Collection<Long> ids);
+
+    /**
+     * Combined filter used when the in-memory catalog is unavailable; null criteria are ignored
+     */
+    @EntityGraph(attributePaths = "category")
+    @Query(value = "SELECT p FROM Product p WHERE " + FILTER_CONDITION,
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " + FILTER_CONDITION)
+    Page<Product> findByFilter(@Param("categoryId") Long categoryId,
+                               @Param("brand") String brand,
+                               @Param("minPrice") BigDecimal minPrice,
+                               @Param("maxPrice") BigDecimal maxPrice,
+                               @Param("active") Boolean active,
+                               @Param("name") String name,
+                               Pageable pageable);
 
     Long countByActiveTrue();
 
     boolean existsBySku(String sku);
+
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findSkusIn(@Param("skus") Collection<String> skus);
+
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    /**
+     * Take quantity out of stock only if that much is available; returns the number of rows changed
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now,"
+            + " p.version = p.version + 1 WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = :now,"
+            + " p.version = p.version + 1 WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.stockQuantity AS stockQuantity,"
+            + " p.brand AS brand, p.category.id AS categoryId, p.active AS active FROM Product p ORDER BY p.id")
+    Stream<ProductCatalogView> streamCatalogRows();
+
+    /**
+     * Rows changed since a catalog snapshot was written, to bring the restored catalog up to date
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.stockQuantity AS stockQuantity,"
+            + " p.brand AS brand, p.category.id AS categoryId, p.active AS active FROM Product p"
+            + " WHERE p.updatedAt >= :since ORDER BY p.id")
+    Stream<ProductCatalogView> streamCatalogRowsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * High-water mark of product changes; every write path sets updatedAt
+     */
+    @Query("SELECT MAX(p.updatedAt) FROM Product p")
+    LocalDateTime findMaxUpdatedAt();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.stockQuantity AS stockQuantity,"
+            + " p.brand AS brand, p.category.id AS categoryId, p.active AS active FROM Product p WHERE "
+            + FILTER_CONDITION)
+    Stream<ProductCatalogView> streamCatalogRowsByFilter(@Param("categoryId") Long categoryId,
+                                                         @Param("brand") String brand,
+                                                         @Param("minPrice") BigDecimal minPrice,
+                                                         @Param("maxPrice") BigDecimal maxPrice,
+                                                         @Param("active") Boolean active,
+                                                         @Param("name") String name);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.name AS name, p.sku AS sku, p.active AS active FROM Product p ORDER BY p.id")
+    Stream<ProductSuggestView> streamSuggestRows();
+
+    /**
+     * Suggestions used until the in-memory index is seeded: active products whose name or SKU starts with the prefix
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.sku AS sku, p.active AS active FROM Product p"
+            + " WHERE p.active = true"
+            + " AND (LOWER(p.name) LIKE CONCAT(:prefix, '%') OR LOWER(p.sku) LIKE CONCAT(:prefix, '%'))"
+            + " ORDER BY p.name, p.id")
+    List<ProductSuggestView> findSuggestRowsByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    String SEARCH_COLUMNS = "p.id AS id, p.name AS name, p.description AS description, p.brand AS brand,"
+            + " p.category.id AS categoryId, p.price AS price, p.active AS active, p.updatedAt AS updatedAt";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT " + SEARCH_COLUMNS + " FROM Product p ORDER BY p.id")
+    Stream<ProductSearchView> streamSearchRows();
+
+    /**
+     * Rows changed since the search index was last committed, to bring a reopened index up to date
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT " + SEARCH_COLUMNS + " FROM Product p WHERE p.updatedAt >= :since ORDER BY p.id")
+    Stream<ProductSearchView> streamSearchRowsUpdatedSince(@Param("since") LocalDateTime since);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    Stream<Long> streamIds();
 }
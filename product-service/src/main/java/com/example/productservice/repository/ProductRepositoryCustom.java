@@ -0,0 +1,15 @@
+package com.example.productservice.repository;
+
+import java.util.Map;
+
+/**
+ * Custom write operations of ProductRepository
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Write only the given attributes with one UPDATE guarded by the expected version
+     * Returns the number of rows changed: 0 if the product is missing or its version moved on
+     */
+    int updateFields(Long id, long expectedVersion, Map<String, Object> changes);
+}
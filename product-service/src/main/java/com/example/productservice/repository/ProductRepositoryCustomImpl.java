@@ -0,0 +1,28 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.patch.MergePatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * JPQL implementation of ProductRepositoryCustom
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateFields(Long id, long expectedVersion, Map<String, Object> changes) {
+        Query query = entityManager.createQuery(MergePatch.updateStatement("Product", changes.keySet()));
+        changes.forEach(query::setParameter);
+        return query.setParameter("updatedAt", LocalDateTime.now())
+                .setParameter("id", id)
+                .setParameter("version", expectedVersion)
+                .executeUpdate();
+    }
+}
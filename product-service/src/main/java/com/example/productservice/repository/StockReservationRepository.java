@@ -0,0 +1,34 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for StockReservation entity
+ * State changes are conditional updates, so only one caller can move a reservation out of HELD
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") String id,
+                   @Param("from") StockReservation.Status from,
+                   @Param("to") StockReservation.Status to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to"
+            + " WHERE r.id = :id AND r.status = :from AND r.expiresAt >= :now")
+    int transitionIfNotExpired(@Param("id") String id,
+                               @Param("from") StockReservation.Status from,
+                               @Param("to") StockReservation.Status to,
+                               @Param("now") LocalDateTime now);
+
+    List<StockReservation> findByStatusAndExpiresAtBefore(StockReservation.Status status, LocalDateTime time);
+}
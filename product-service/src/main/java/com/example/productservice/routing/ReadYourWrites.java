@@ -0,0 +1,59 @@
+package com.example.productservice.routing;
+
+/**
+ * Per-request read-your-writes state, kept by ReadYourWritesFilter
+ * A request is pinned to the primary when its client wrote within the window, or once it writes
+ * itself; outside a request nothing is pinned or recorded
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void begin(boolean pinnedToPrimary) {
+        State state = new State();
+        state.pinned = pinnedToPrimary;
+        CURRENT.set(state);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Note that the current request wrote, so its later reads and the client's next ones use the primary
+     */
+    static void recordWrite() {
+        State state = CURRENT.get();
+        if (state != null) {
+            state.pinned = true;
+            state.wrote = true;
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        State state = CURRENT.get();
+        return state != null && state.pinned;
+    }
+
+    /**
+     * True once for a request that wrote, when its window cookie should be set
+     */
+    static boolean claimWindow() {
+        State state = CURRENT.get();
+        if (state == null || !state.wrote || state.windowClaimed) {
+            return false;
+        }
+        state.windowClaimed = true;
+        return true;
+    }
+
+    private static final class State {
+
+        private boolean pinned;
+        private boolean wrote;
+        private boolean windowClaimed;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.productservice.routing;
+
+import com.example.productservice.timing.ServerTimingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the primary and replica pools and tracks how far each replica lags behind
+ * Replicas start out unusable and are admitted once a lag check finds them within max-lag-ms;
+ * a replica whose check fails or lags too far is skipped until a later check passes.
+ */
+@Slf4j
+public class ReplicaRouter implements MeterBinder, AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(HikariDataSource primary, List<HikariDataSource> replicaPools, long maxLagMillis,
+                         String lagQuery) {
+        this.primary = primary;
+        for (HikariDataSource pool : replicaPools) {
+            replicas.add(new Replica(pool.getPoolName(), pool));
+        }
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Lookup keys and pools for the routing data source, each timing its checkouts
+     */
+    Map<Object, Object> targets() {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, new ServerTimingDataSource(primary));
+        replicas.forEach(replica -> targets.put(replica.name, new ServerTimingDataSource(replica.pool)));
+        return targets;
+    }
+
+    /**
+     * Name of the next replica within the lag limit, round robin, or null when there is none
+     */
+    String pickReplica() {
+        int count = replicas.size();
+        if (count == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.usable) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Measure every replica's lag with the configured query, straight on its pool
+     */
+    @Scheduled(fixedDelayString = "${product.read-replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean usable;
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                long lag = -1;
+                if (resultSet.next()) {
+                    lag = resultSet.getLong(1);
+                    if (resultSet.wasNull()) {
+                        lag = -1;
+                    }
+                }
+                usable = lag >= 0 && lag <= maxLagMillis;
+                replica.lagMillis = lag;
+                if (usable != replica.usable) {
+                    log.info("Replica {} lags {} ms, {}", replica.name, lag,
+                            usable ? "reading from it" : "reading from primary");
+                }
+            } catch (SQLException ex) {
+                usable = false;
+                replica.lagMillis = -1;
+                if (replica.usable) {
+                    log.warn("Lag check of replica {} failed, reading from primary", replica.name, ex);
+                }
+            }
+            replica.usable = usable;
+        }
+    }
+
+    /**
+     * Lag of each replica in ms, -1 while unknown
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMillis)
+                    .description("Replication lag measured by the last check, -1 when it failed")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile boolean usable;
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
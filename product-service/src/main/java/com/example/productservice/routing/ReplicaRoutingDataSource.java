@@ -0,0 +1,35 @@
+package com.example.productservice.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag is only
+ * set after the transaction manager begins, so the connection has to be fetched on first use.
+ * Reads fall back to the primary when no replica is within the lag limit, and when the request
+ * is inside its client's read-your-writes window.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaRouter router;
+
+    public ReplicaRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+        setTargetDataSources(router.targets());
+        setDefaultTargetDataSource(router.getPrimary());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.recordWrite();
+            return ReplicaRouter.PRIMARY;
+        }
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            return ReplicaRouter.PRIMARY;
+        }
+        String replica = router.pickReplica();
+        return replica != null ? replica : ReplicaRouter.PRIMARY;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.productservice.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One product as the search index sees it: weighted term frequencies, weighted length and the filter columns
+ * Name terms count three times, brand terms twice and description terms once, so a match in the
+ * name outranks the same match in the description (BM25F-style field weighting).
+ */
+record IndexedDoc(long productId, long categoryId, long priceCents, boolean active, int length,
+                  Map<String, Integer> termFreqs) {
+
+    static final int NAME_WEIGHT = 3;
+    static final int BRAND_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    static IndexedDoc of(Long productId, String name, String description, String brand, Long categoryId,
+                         BigDecimal price, Boolean active) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int length = add(termFreqs, TextAnalyzer.analyze(name), NAME_WEIGHT)
+                + add(termFreqs, TextAnalyzer.analyze(brand), BRAND_WEIGHT)
+                + add(termFreqs, TextAnalyzer.analyze(description), DESCRIPTION_WEIGHT);
+        return new IndexedDoc(productId,
+                categoryId == null ? Segment.NO_CATEGORY : categoryId,
+                price == null ? 0 : toCents(price, RoundingMode.HALF_UP),
+                Boolean.TRUE.equals(active),
+                length,
+                termFreqs);
+    }
+
+    static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private static int add(Map<String, Integer> termFreqs, List<String> terms, int weight) {
+        for (String term : terms) {
+            termFreqs.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+}
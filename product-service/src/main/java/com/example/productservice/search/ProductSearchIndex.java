@@ -0,0 +1,710 @@
+package com.example.productservice.search;
+
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.dto.ProductSearchView;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process full-text index over product name, brand and description, ranked by BM25
+ * The index is a list of immutable segments plus a deleted-documents bitset per segment. Every write
+ * adds a small in-memory segment and marks the product's previous document deleted; small segments
+ * are merged as they pile up. Readers work on an immutable snapshot and never lock.
+ * <p>
+ * With product.search.directory set, segments and a commit file naming them are written there
+ * periodically and on shutdown. A restart loads the last commit and only replays rows updated since
+ * it, plus deletions, instead of reindexing the whole table.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    static final String COMMIT_FILE = "commit";
+
+    // BM25 term saturation and length normalization
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    // In-memory segments merged into one once there are more than this many
+    static final int MAX_BUFFERED_SEGMENTS = 32;
+
+    // Rows changed within this long before the last commit are replayed too, for commits that raced it
+    static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private static final int COMMIT_MAGIC = 0x50434d54;
+    private static final int COMMIT_VERSION = 1;
+
+    private static final int CATCH_UP_BATCH = 1000;
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::productId).reversed());
+
+    private final ProductRepository productRepository;
+
+    @Value("${product.search.enabled:true}")
+    private boolean enabled = true;
+
+    // Empty keeps the index in memory only
+    @Value("${product.search.directory:}")
+    private String directory = "";
+
+    // Committed segments are merged down to this many
+    @Value("${product.search.max-segments:10}")
+    private int maxSegments = 10;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Writer state, only touched while holding writeLock
+    private final List<SegmentState> segments = new ArrayList<>();
+    private final Map<Long, Location> locations = new HashMap<>();
+    private long totalLength;
+    private LocalDateTime watermark;
+    private long nextGeneration;
+    private boolean dirty;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Invoked through the proxy, so opening runs in the background in its own transaction
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (load()) {
+            catchUp();
+            log.info("Opened product search index with {} documents in {} segments in {} ms",
+                    size(), snapshot.segments().size(), (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+        try (Stream<ProductSearchView> rows = productRepository.streamSearchRows()) {
+            rebuild(rows);
+        }
+        commit();
+        log.info("Built product search index with {} documents in {} ms",
+                size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replace the index contents with the given rows, as one segment
+     */
+    public void rebuild(Stream<? extends ProductSearchView> rows) {
+        writeLock.lock();
+        try {
+            segments.clear();
+            locations.clear();
+            totalLength = 0;
+            watermark = null;
+            Segment.Builder builder = new Segment.Builder(nextName(), 1024);
+            rows.forEach(row -> {
+                builder.add(toDoc(row));
+                watermark = latest(watermark, row.getUpdatedAt());
+            });
+            addSegment(builder.build(), false);
+            dirty = true;
+            publish();
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add or replace a product
+     */
+    public void upsert(Product product) {
+        upsertAll(List.of(product));
+    }
+
+    public void upsertAll(List<Product> products) {
+        if (!enabled) {
+            return;
+        }
+        List<IndexedDoc> docs = new ArrayList<>(products.size());
+        for (Product product : products) {
+            docs.add(IndexedDoc.of(product.getId(), product.getName(), product.getDescription(), product.getBrand(),
+                    product.getCategory() == null ? null : product.getCategory().getId(), product.getPrice(),
+                    product.getActive()));
+        }
+        writeLock.lock();
+        try {
+            products.forEach(product -> watermark = latest(watermark, product.getUpdatedAt()));
+            apply(docs, List.of());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            apply(List.of(), List.of(id));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replay the rows updated since the last commit and drop products that no longer exist
+     * Called after a restart and after bulk imports, which write rows without going through upsert
+     */
+    @Async
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void catchUp() {
+        if (!enabled || !ready) {
+            return;
+        }
+        LocalDateTime since;
+        writeLock.lock();
+        try {
+            since = watermark == null ? null : watermark.minus(CATCH_UP_MARGIN);
+        } finally {
+            writeLock.unlock();
+        }
+
+        long replayed = 0;
+        try (Stream<ProductSearchView> rows = since == null
+                ? productRepository.streamSearchRows()
+                : productRepository.streamSearchRowsUpdatedSince(since)) {
+            Iterator<ProductSearchView> iterator = rows.iterator();
+            List<ProductSearchView> batch = new ArrayList<>(CATCH_UP_BATCH);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == CATCH_UP_BATCH || !iterator.hasNext()) {
+                    replay(batch);
+                    replayed += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+
+        long[] ids;
+        try (Stream<Long> stream = productRepository.streamIds()) {
+            ids = stream.mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(ids);
+        // Products created after the ids were read are newer than all of them and must stay
+        long highest = ids.length == 0 ? Long.MIN_VALUE : ids[ids.length - 1];
+        int removed;
+        writeLock.lock();
+        try {
+            List<Long> gone = new ArrayList<>();
+            for (Long id : locations.keySet()) {
+                if (id <= highest && Arrays.binarySearch(ids, id) < 0) {
+                    gone.add(id);
+                }
+            }
+            apply(List.of(), gone);
+            removed = gone.size();
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Caught up product search index: {} rows replayed, {} removed", replayed, removed);
+    }
+
+    /**
+     * Write the in-memory segments and the current deletions to the index directory
+     * Committed segments beyond max-segments are merged first, smallest first.
+     */
+    @Scheduled(fixedDelayString = "${product.search.commit-interval-ms:30000}")
+    public void commit() {
+        if (directory.isBlank() || !ready) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            Path dir = Path.of(directory);
+            Files.createDirectories(dir);
+            List<SegmentState> buffered = segments.stream().filter(state -> !state.persisted()).toList();
+            if (buffered.size() > 1) {
+                merge(buffered);
+            }
+            for (SegmentState state : segments) {
+                if (!state.persisted()) {
+                    state.segment().write(dir);
+                }
+            }
+            segments.replaceAll(state -> state.persisted() ? state : state.asPersisted());
+            if (segments.size() > maxSegments) {
+                List<SegmentState> smallest = new ArrayList<>(segments);
+                smallest.sort(Comparator.comparingInt(SegmentState::liveDocs));
+                SegmentState merged = merge(smallest.subList(0, segments.size() - maxSegments + 1));
+                merged.segment().write(dir);
+                segments.replaceAll(state -> state == merged ? merged.asPersisted() : state);
+            }
+            writeCommit(dir);
+            deleteUnreferenced(dir);
+            dirty = false;
+            publish();
+            log.debug("Committed product search index: {} documents in {} segments", size(), segments.size());
+        } catch (IOException ex) {
+            log.error("Could not commit product search index to {}", directory, ex);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        commit();
+    }
+
+    /**
+     * Products matching every term of the query and the category, price and active criteria of the
+     * filter, best BM25 score first with ties by id, sliced to one page, and the number of matches
+     */
+    public Result search(String query, ProductFilter filter, long offset, int limit) {
+        List<String> terms = TextAnalyzer.analyze(query).stream().distinct().toList();
+        Snapshot current = snapshot;
+        if (terms.isEmpty() || current.liveDocs() == 0) {
+            return new Result(List.of(), 0);
+        }
+
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            long docFreq = 0;
+            for (SegmentState state : current.segments()) {
+                Segment.Postings list = state.segment().postings(terms.get(t));
+                docFreq += list == null ? 0 : list.docs().length;
+            }
+            if (docFreq == 0) {
+                return new Result(List.of(), 0);
+            }
+            // Document frequencies include deleted documents until their segment is merged
+            docFreq = Math.min(docFreq, current.liveDocs());
+            idf[t] = Math.log(1 + (current.liveDocs() - docFreq + 0.5) / (docFreq + 0.5));
+        }
+        double averageLength = Math.max(1.0, (double) current.totalLength() / current.liveDocs());
+
+        Criteria criteria = Criteria.of(filter);
+        int wanted = (int) Math.max(1, Math.min(offset + limit, Integer.MAX_VALUE - 1));
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, 1024)), WORST_FIRST);
+        int total = 0;
+        for (SegmentState state : current.segments()) {
+            total += scoreSegment(state, terms, idf, averageLength, criteria, top, wanted);
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(WORST_FIRST.reversed());
+        List<Long> ids = new ArrayList<>(limit);
+        for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size() && ids.size() < limit; i++) {
+            ids.add(ranked.get(i).productId());
+        }
+        return new Result(ids, total);
+    }
+
+    /**
+     * Whether the index has been loaded or built and can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return snapshot.liveDocs();
+    }
+
+    /**
+     * Intersect the terms' postings, driven by the shortest list, and score each surviving document
+     */
+    private static int scoreSegment(SegmentState state, List<String> terms, double[] idf, double averageLength,
+                                    Criteria criteria, PriorityQueue<Hit> top, int wanted) {
+        Segment segment = state.segment();
+        Segment.Postings[] lists = new Segment.Postings[terms.size()];
+        int lead = 0;
+        for (int t = 0; t < terms.size(); t++) {
+            lists[t] = segment.postings(terms.get(t));
+            if (lists[t] == null) {
+                return 0;
+            }
+            if (lists[t].docs().length < lists[lead].docs().length) {
+                lead = t;
+            }
+        }
+        int[] cursors = new int[terms.size()];
+        int matches = 0;
+        int[] leadDocs = lists[lead].docs();
+        for (int p = 0; p < leadDocs.length; p++) {
+            int doc = leadDocs[p];
+            if (state.deleted().get(doc) || !criteria.matches(segment, doc)) {
+                continue;
+            }
+            double norm = K1 * (1 - B + B * segment.length(doc) / averageLength);
+            double score = 0;
+            boolean all = true;
+            for (int t = 0; t < lists.length && all; t++) {
+                int freq;
+                if (t == lead) {
+                    freq = lists[t].freqs()[p];
+                } else {
+                    int[] docs = lists[t].docs();
+                    int found = Arrays.binarySearch(docs, cursors[t], docs.length, doc);
+                    cursors[t] = found >= 0 ? found : -found - 1;
+                    if (found < 0) {
+                        all = false;
+                        continue;
+                    }
+                    freq = lists[t].freqs()[found];
+                }
+                score += idf[t] * freq * (K1 + 1) / (freq + norm);
+            }
+            if (!all) {
+                continue;
+            }
+            matches++;
+            Hit hit = new Hit(segment.productId(doc), score);
+            if (top.size() < wanted) {
+                top.add(hit);
+            } else if (WORST_FIRST.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        return matches;
+    }
+
+    private void replay(List<ProductSearchView> rows) {
+        List<IndexedDoc> docs = new ArrayList<>(rows.size());
+        for (ProductSearchView row : rows) {
+            docs.add(toDoc(row));
+        }
+        writeLock.lock();
+        try {
+            rows.forEach(row -> watermark = latest(watermark, row.getUpdatedAt()));
+            apply(docs, List.of());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Delete the previous documents of the given products, add the new ones as one segment and publish
+     * Each touched deleted-bitset is copied once per call, since published ones are shared with readers.
+     */
+    private void apply(List<IndexedDoc> docs, List<Long> removals) {
+        Map<Segment, BitSet> copies = new IdentityHashMap<>();
+        for (IndexedDoc doc : docs) {
+            delete(doc.productId(), copies);
+        }
+        for (Long id : removals) {
+            delete(id, copies);
+        }
+        if (!copies.isEmpty()) {
+            segments.replaceAll(state -> {
+                BitSet deleted = copies.get(state.segment());
+                return deleted == null ? state : new SegmentState(state.segment(), deleted, state.persisted());
+            });
+        }
+        if (!docs.isEmpty()) {
+            Segment.Builder builder = new Segment.Builder(nextName(), docs.size());
+            docs.forEach(builder::add);
+            addSegment(builder.build(), false);
+        }
+        if (docs.isEmpty() && copies.isEmpty()) {
+            return;
+        }
+        List<SegmentState> buffered = segments.stream().filter(state -> !state.persisted()).toList();
+        if (buffered.size() > MAX_BUFFERED_SEGMENTS) {
+            merge(buffered);
+        }
+        dirty = true;
+        publish();
+    }
+
+    private void delete(Long productId, Map<Segment, BitSet> copies) {
+        Location location = locations.remove(productId);
+        if (location == null) {
+            return;
+        }
+        BitSet deleted = copies.computeIfAbsent(location.segment(),
+                segment -> (BitSet) stateOf(segment).deleted().clone());
+        deleted.set(location.doc());
+        totalLength -= location.segment().length(location.doc());
+    }
+
+    /**
+     * Replace the given segments by one holding their live documents; it is persisted once written
+     */
+    private SegmentState merge(List<SegmentState> toMerge) {
+        List<Segment> merging = new ArrayList<>(toMerge.size());
+        List<BitSet> deleted = new ArrayList<>(toMerge.size());
+        for (SegmentState state : toMerge) {
+            merging.add(state.segment());
+            deleted.add(state.deleted());
+        }
+        Segment merged = Segment.merge(nextName(), merging, deleted);
+        Set<Segment> replaced = new HashSet<>(merging);
+        segments.removeIf(state -> replaced.contains(state.segment()));
+        SegmentState state = new SegmentState(merged, new BitSet(), false);
+        segments.add(state);
+        for (int doc = 0; doc < merged.size(); doc++) {
+            locations.put(merged.productId(doc), new Location(merged, doc));
+        }
+        return state;
+    }
+
+    private void addSegment(Segment segment, boolean persisted) {
+        segments.add(new SegmentState(segment, new BitSet(), persisted));
+        for (int doc = 0; doc < segment.size(); doc++) {
+            Location previous = locations.put(segment.productId(doc), new Location(segment, doc));
+            if (previous != null) {
+                // The same product twice in one batch: keep the later document
+                SegmentState owner = stateOf(previous.segment());
+                owner.deleted().set(previous.doc());
+                totalLength -= previous.segment().length(previous.doc());
+            }
+            totalLength += segment.length(doc);
+        }
+    }
+
+    private SegmentState stateOf(Segment segment) {
+        for (SegmentState state : segments) {
+            if (state.segment() == segment) {
+                return state;
+            }
+        }
+        throw new IllegalStateException("Segment " + segment.name() + " is not part of the index");
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(List.copyOf(segments), locations.size(), totalLength);
+    }
+
+    private String nextName() {
+        return "seg-" + nextGeneration++;
+    }
+
+    /**
+     * Open the last commit, if there is one and all of its files are intact
+     */
+    private boolean load() {
+        if (directory.isBlank()) {
+            return false;
+        }
+        Path dir = Path.of(directory);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(dir.resolve(COMMIT_FILE))))) {
+            if (in.readInt() != COMMIT_MAGIC || in.readInt() != COMMIT_VERSION) {
+                throw new IOException("Not a version " + COMMIT_VERSION + " search commit");
+            }
+            long generation = in.readLong();
+            String committedWatermark = in.readUTF();
+            int count = in.readInt();
+            List<SegmentState> loaded = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long[] words = new long[in.readInt()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readLong();
+                }
+                loaded.add(new SegmentState(Segment.read(dir, name), BitSet.valueOf(words), true));
+            }
+
+            writeLock.lock();
+            try {
+                segments.clear();
+                locations.clear();
+                totalLength = 0;
+                nextGeneration = generation;
+                watermark = committedWatermark.isEmpty() ? null : LocalDateTime.parse(committedWatermark);
+                for (SegmentState state : loaded) {
+                    segments.add(state);
+                    Segment segment = state.segment();
+                    for (int doc = 0; doc < segment.size(); doc++) {
+                        if (!state.deleted().get(doc)) {
+                            locations.put(segment.productId(doc), new Location(segment, doc));
+                            totalLength += segment.length(doc);
+                        }
+                    }
+                }
+                dirty = false;
+                publish();
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not open product search index in {}, rebuilding it", directory, ex);
+            try {
+                // Segments of the rebuilt index reuse the names, so never read this commit again
+                Files.deleteIfExists(dir.resolve(COMMIT_FILE));
+            } catch (IOException deleteFailure) {
+                ex.addSuppressed(deleteFailure);
+            }
+            return false;
+        }
+    }
+
+    private void writeCommit(Path dir) throws IOException {
+        Path temporary = dir.resolve(COMMIT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(COMMIT_MAGIC);
+            out.writeInt(COMMIT_VERSION);
+            out.writeLong(nextGeneration);
+            out.writeUTF(watermark == null ? "" : watermark.toString());
+            out.writeInt(segments.size());
+            for (SegmentState state : segments) {
+                out.writeUTF(state.segment().name());
+                long[] words = state.deleted().toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        Files.move(temporary, dir.resolve(COMMIT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteUnreferenced(Path dir) throws IOException {
+        Set<String> referenced = new HashSet<>();
+        segments.forEach(state -> referenced.add(state.segment().name() + Segment.EXTENSION));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + Segment.EXTENSION)) {
+            for (Path file : files) {
+                if (!referenced.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static IndexedDoc toDoc(ProductSearchView row) {
+        return IndexedDoc.of(row.getId(), row.getName(), row.getDescription(), row.getBrand(), row.getCategoryId(),
+                row.getPrice(), row.getActive());
+    }
+
+    private static LocalDateTime latest(LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    /**
+     * Ids of one page of matching products, best first, and the total number of matches
+     */
+    public static final class Result {
+
+        private final List<Long> ids;
+        private final int total;
+
+        Result(List<Long> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * A segment with the documents deleted from it; a published deleted set is never modified
+     */
+    private record SegmentState(Segment segment, BitSet deleted, boolean persisted) {
+
+        private int liveDocs() {
+            return segment.size() - deleted.cardinality();
+        }
+
+        private SegmentState asPersisted() {
+            return new SegmentState(segment, deleted, true);
+        }
+    }
+
+    private record Location(Segment segment, int doc) {
+    }
+
+    private record Hit(long productId, double score) {
+    }
+
+    private record Snapshot(List<SegmentState> segments, int liveDocs, long totalLength) {
+
+        private static final Snapshot EMPTY = new Snapshot(List.of(), 0, 0);
+    }
+
+    /**
+     * Filter criteria in the segment's units; prices are rounded inwards to whole cents
+     */
+    private record Criteria(Long categoryId, Long minCents, Long maxCents, Boolean active) {
+
+        private static Criteria of(ProductFilter filter) {
+            if (filter == null) {
+                return new Criteria(null, null, null, null);
+            }
+            Long minCents = filter.getMinPrice() == null
+                    ? null : IndexedDoc.toCents(filter.getMinPrice(), RoundingMode.CEILING);
+            Long maxCents = filter.getMaxPrice() == null
+                    ? null : IndexedDoc.toCents(filter.getMaxPrice(), RoundingMode.FLOOR);
+            return new Criteria(filter.getCategoryId(), minCents, maxCents, filter.getActive());
+        }
+
+        private boolean matches(Segment segment, int doc) {
+            return (categoryId == null || segment.categoryId(doc) == categoryId)
+                    && (minCents == null || segment.priceCents(doc) >= minCents)
+                    && (maxCents == null || segment.priceCents(doc) <= maxCents)
+                    && (active == null || segment.active(doc) == active);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.productservice.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Immutable slice of the search index: per-document filter columns plus a postings list per term
+ * Documents are numbered from 0 within the segment and postings are sorted by that number.
+ * Deleted documents are tracked outside the segment, so a written segment never changes.
+ */
+final class Segment {
+
+    static final long NO_CATEGORY = Long.MIN_VALUE;
+
+    static final String EXTENSION = ".seg";
+
+    private static final int MAGIC = 0x50534547;
+    private static final int VERSION = 1;
+
+    private final String name;
+    private final long[] productIds;
+    private final long[] categoryIds;
+    private final long[] priceCents;
+    private final BitSet active;
+    private final int[] lengths;
+    private final Map<String, Postings> postings;
+
+    private Segment(String name, long[] productIds, long[] categoryIds, long[] priceCents, BitSet active,
+                    int[] lengths, Map<String, Postings> postings) {
+        this.name = name;
+        this.productIds = productIds;
+        this.categoryIds = categoryIds;
+        this.priceCents = priceCents;
+        this.active = active;
+        this.lengths = lengths;
+        this.postings = postings;
+    }
+
+    String name() {
+        return name;
+    }
+
+    int size() {
+        return productIds.length;
+    }
+
+    long productId(int doc) {
+        return productIds[doc];
+    }
+
+    long categoryId(int doc) {
+        return categoryIds[doc];
+    }
+
+    long priceCents(int doc) {
+        return priceCents[doc];
+    }
+
+    boolean active(int doc) {
+        return active.get(doc);
+    }
+
+    int length(int doc) {
+        return lengths[doc];
+    }
+
+    /**
+     * Postings of the term, or null when no document in the segment has it
+     */
+    Postings postings(String term) {
+        return postings.get(term);
+    }
+
+    /**
+     * Copy the documents that are not deleted from several segments into one
+     */
+    static Segment merge(String name, List<Segment> segments, List<BitSet> deleted) {
+        int live = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            live += segments.get(i).size() - deleted.get(i).cardinality();
+        }
+        Builder builder = new Builder(name, live);
+        Map<String, PostingsBuilder> merged = builder.postings;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            BitSet gone = deleted.get(i);
+            int[] remap = new int[segment.size()];
+            for (int doc = 0; doc < segment.size(); doc++) {
+                if (gone.get(doc)) {
+                    remap[doc] = -1;
+                } else {
+                    remap[doc] = builder.addColumns(segment.productIds[doc], segment.categoryIds[doc],
+                            segment.priceCents[doc], segment.active.get(doc), segment.lengths[doc]);
+                }
+            }
+            segment.postings.forEach((term, list) -> {
+                PostingsBuilder target = null;
+                for (int p = 0; p < list.docs.length; p++) {
+                    int doc = remap[list.docs[p]];
+                    if (doc >= 0) {
+                        if (target == null) {
+                            target = merged.computeIfAbsent(term, t -> new PostingsBuilder());
+                        }
+                        target.add(doc, list.freqs[p]);
+                    }
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write to a temporary file first and move it into place, so a crash never leaves half a segment
+     */
+    void write(Path directory) throws IOException {
+        Path file = directory.resolve(name + EXTENSION);
+        Path temporary = directory.resolve(name + EXTENSION + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16), checksum))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size());
+            for (int doc = 0; doc < size(); doc++) {
+                out.writeLong(productIds[doc]);
+                out.writeLong(categoryIds[doc]);
+                out.writeLong(priceCents[doc]);
+                out.writeBoolean(active.get(doc));
+                out.writeInt(lengths[doc]);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(list.docs.length);
+                for (int p = 0; p < list.docs.length; p++) {
+                    out.writeInt(list.docs[p]);
+                    out.writeInt(list.freqs[p]);
+                }
+            }
+            out.flush();
+            out.writeLong(checksum.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Segment read(Path directory, String name) throws IOException {
+        Path file = directory.resolve(name + EXTENSION);
+        CRC32 checksum = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), checksum))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " search segment: " + file);
+            }
+            int size = in.readInt();
+            Builder builder = new Builder(name, size);
+            for (int doc = 0; doc < size; doc++) {
+                builder.addColumns(in.readLong(), in.readLong(), in.readLong(), in.readBoolean(), in.readInt());
+            }
+            int terms = in.readInt();
+            Map<String, Postings> postings = new HashMap<>(terms * 4 / 3 + 1);
+            for (int t = 0; t < terms; t++) {
+                String term = in.readUTF();
+                int count = in.readInt();
+                int[] docs = new int[count];
+                int[] freqs = new int[count];
+                for (int p = 0; p < count; p++) {
+                    docs[p] = in.readInt();
+                    freqs[p] = in.readInt();
+                }
+                postings.put(term, new Postings(docs, freqs));
+            }
+            long expected = checksum.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Checksum mismatch in search segment " + file);
+            }
+            return builder.build(postings);
+        }
+    }
+
+    /**
+     * Documents containing a term, ascending, with the term's weighted frequency in each
+     */
+    record Postings(int[] docs, int[] freqs) {
+    }
+
+    /**
+     * Accumulates documents in the order added; postings stay sorted because documents are numbered in that order
+     */
+    static final class Builder {
+
+        private final String name;
+        private long[] productIds;
+        private long[] categoryIds;
+        private long[] priceCents;
+        private final BitSet active = new BitSet();
+        private int[] lengths;
+        private int size;
+        private final Map<String, PostingsBuilder> postings = new HashMap<>();
+
+        Builder(String name, int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            this.name = name;
+            this.productIds = new long[capacity];
+            this.categoryIds = new long[capacity];
+            this.priceCents = new long[capacity];
+            this.lengths = new int[capacity];
+        }
+
+        void add(IndexedDoc indexed) {
+            int doc = addColumns(indexed.productId(), indexed.categoryId(), indexed.priceCents(), indexed.active(),
+                    indexed.length());
+            indexed.termFreqs().forEach((term, freq) ->
+                    postings.computeIfAbsent(term, t -> new PostingsBuilder()).add(doc, freq));
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int addColumns(long productId, long categoryId, long cents, boolean isActive, int length) {
+            if (size == productIds.length) {
+                int capacity = size * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            productIds[size] = productId;
+            categoryIds[size] = categoryId;
+            priceCents[size] = cents;
+            active.set(size, isActive);
+            lengths[size] = length;
+            return size++;
+        }
+
+        Segment build() {
+            Map<String, Postings> built = new HashMap<>(postings.size() * 4 / 3 + 1);
+            postings.forEach((term, list) -> built.put(term, list.build()));
+            return build(built);
+        }
+
+        private Segment build(Map<String, Postings> built) {
+            return new Segment(name, Arrays.copyOf(productIds, size), Arrays.copyOf(categoryIds, size),
+                    Arrays.copyOf(priceCents, size), active, Arrays.copyOf(lengths, size), built);
+        }
+    }
+
+    private static final class PostingsBuilder {
+
+        private int[] docs = new int[2];
+        private int[] freqs = new int[2];
+        private int size;
+
+        private void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        private Postings build() {
+            return new Postings(Arrays.copyOf(docs, size), Arrays.copyOf(freqs, size));
+        }
+    }
+}
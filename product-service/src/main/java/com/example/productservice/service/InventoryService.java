@@ -0,0 +1,34 @@
+package com.example.productservice.service;
+
+import com.example.productservice.model.StockReservation;
+
+import java.util.Optional;
+
+/**
+ * Service interface for stock reservations
+ * Stock is taken when a reservation is made; committing keeps it taken, releasing returns it
+ */
+public interface InventoryService {
+    
+    /**
+     * Reserve quantity of a product, or return empty when not enough is in stock
+     */
+    Optional<StockReservation> reserve(Long productId, int quantity);
+    
+    Optional<StockReservation> getReservation(String reservationId);
+    
+    /**
+     * Make a held, unexpired reservation final; returns false if it is no longer held
+     */
+    boolean commit(String reservationId);
+    
+    /**
+     * Return a held reservation's quantity to stock; returns false if it is no longer held
+     */
+    boolean release(String reservationId);
+    
+    /**
+     * Release every held reservation past its expiry time and return how many were released
+     */
+    int releaseExpired();
+}
@@ -1,9 +1,20 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.BatchLookupResult;
+import com.example.productservice.dto.FacetedProductPage;
+import com.example.productservice.dto.ImportReport;
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.io.DataFormat;
 import com.example.productservice.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,16 +28,72 @@ public interface ProductService {
     
     Product updateProduct(Long id, Product product);
     
+    /**
+     * Apply a JSON Merge Patch with one UPDATE guarded by the expected version
+     * Returns the new version
+     */
+    long patchProduct(Long id, long expectedVersion, JsonNode patch);
+    
+    /**
+     * Bulk insert products read from a CSV or NDJSON stream
+     * Invalid rows are skipped and reported individually
+     */
+    ImportReport importProducts(InputStream in, DataFormat format) throws IOException;
+    
     Optional<Product> getProductById(Long id);
     
+    Optional<Product> getProductBySku(String sku);
+
+    /**
+     * Up to limit active products whose name, a word of it, or SKU starts with the prefix, most viewed first
+     */
+    List<ProductSuggestion> suggestProducts(String prefix, int limit);
+    
+    /**
+     * Look up products by id, in request order with explicit misses
+     */
+    BatchLookupResult<Long, Product> getProductsByIds(List<Long> ids);
+    
+    /**
+     * Look up products by SKU, in request order with explicit misses
+     */
+    BatchLookupResult<String, Product> getProductsBySkus(List<String> skus);
+    
     List<Product> getAllProducts();
     
+    /**
+     * Stream all products to the given output in the given format
+     * Returns the number of rows written
+     */
+    long exportAllProducts(DataFormat format, OutputStream out) throws IOException;
+    
     Page<Product> getProductsPaginated(Pageable pageable);
     
+    /**
+     * Find one page of products matching all non-null filter criteria
+     * Sortable by id, name, price and stockQuantity
+     */
+    Page<Product> filterProducts(ProductFilter filter, Pageable pageable);
+    
+    /**
+     * Like filterProducts, plus counts of all matches per brand, category and price bucket
+     */
+    FacetedProductPage filterProductsWithFacets(ProductFilter filter, Pageable pageable);
+
+    /**
+     * Find one page of products containing every word of the query in their name, brand or
+     * description, most relevant first, restricted by the category, price and active criteria of the filter
+     */
+    Page<Product> searchProducts(String query, ProductFilter filter, Pageable pageable);
+    
     List<Product> getProductsByCategory(Long categoryId);
     
     List<Product> searchProductsByName(String name);
     
+    List<Product> getProductsByBrand(String brand);
+    
+    List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+    
     List<Product> getActiveProducts();
     
     void deleteProduct(Long id);
@@ -0,0 +1,124 @@
+package com.example.productservice.service.impl;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.inventory.StockReservationCoalescer;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import com.example.productservice.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of InventoryService interface
+ * Reservations go through the coalescer; commits and releases are conditional status updates
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class InventoryServiceImpl implements InventoryService {
+
+    private final StockReservationCoalescer reservationCoalescer;
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductCatalog productCatalog;
+
+    /**
+     * Runs outside any caller transaction: the coalescer writes each batch in a transaction of its own
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<StockReservation> reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        return reservationCoalescer.reserve(productId, quantity);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<StockReservation> getReservation(String reservationId) {
+        return reservationRepository.findById(reservationId);
+    }
+
+    @Override
+    public boolean commit(String reservationId) {
+        boolean committed = reservationRepository.transitionIfNotExpired(reservationId, StockReservation.Status.HELD,
+                StockReservation.Status.COMMITTED, LocalDateTime.now()) == 1;
+        log.info("Commit of reservation {}: {}", reservationId, committed ? "committed" : "not held");
+        return committed;
+    }
+
+    @Override
+    public boolean release(String reservationId) {
+        Optional<StockReservation> reservation = reservationRepository.findById(reservationId);
+        if (reservation.isEmpty() || !release(reservation.get())) {
+            log.info("Release of reservation {}: not held", reservationId);
+            return false;
+        }
+        log.info("Released reservation {}", reservationId);
+        return true;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.inventory.expiry-sweep-interval-ms:60000}")
+    public int releaseExpired() {
+        int released = 0;
+        for (StockReservation reservation : reservationRepository.findByStatusAndExpiresAtBefore(
+                StockReservation.Status.HELD, LocalDateTime.now())) {
+            if (release(reservation)) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} expired stock reservations", released);
+        }
+        return released;
+    }
+
+    /**
+     * Move a reservation out of HELD and put its quantity back in the same transaction
+     */
+    private boolean release(StockReservation reservation) {
+        if (reservationRepository.transition(reservation.getId(), StockReservation.Status.HELD,
+                StockReservation.Status.RELEASED) != 1) {
+            return false;
+        }
+        Long productId = reservation.getProductId();
+        productRepository.incrementStock(productId, reservation.getQuantity(), LocalDateTime.now());
+        afterCommit(() -> {
+            productCache.evict(productId);
+            productCatalog.adjustStock(Map.of(productId, reservation.getQuantity()));
+        });
+        return true;
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately outside a transaction
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,30 +1,129 @@
 package com.example.productservice.service.impl;
 
+import com.example.productservice.bulk.ProductImporter;
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.dto.BatchLookupResult;
+import com.example.productservice.dto.FacetedProductPage;
+import com.example.productservice.dto.ImportReport;
+import com.example.productservice.dto.ProductCatalogView;
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.dto.ProductSuggestView;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.io.DataFormat;
+import com.example.productservice.io.ExportColumns;
+import com.example.productservice.io.ExportWriter;
 import com.example.productservice.model.Product;
+import com.example.productservice.patch.MergePatch;
+import com.example.productservice.repository.CategoryRepository;
 import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.search.ProductSearchIndex;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.suggest.ProductSuggester;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of ProductService interface
  * Provides business logic for product management operations
  */
 @Service
+@Timed(value = "product.service", description = "ProductService calls", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    static final int MAX_BATCH_KEYS = 1000;
+
+    /** Keeps each IN list well below driver bind-parameter limits and reuses a few statement shapes */
+    static final int BATCH_CHUNK_SIZE = 500;
+
+    static final int MAX_SUGGESTIONS = 50;
+
+    /** Patched attributes that change how a product is suggested or found by text search */
+    private static final Set<String> INDEXED_FIELDS = Set.of(
+            "name", "description", "brand", "price", "category", "sku", "active");
+
+    static final ExportColumns<Product> EXPORT_COLUMNS = new ExportColumns<Product>()
+            .add("id", Product::getId)
+            .add("name", Product::getName)
+            .add("description", Product::getDescription)
+            .add("price", Product::getPrice)
+            .add("stockQuantity", Product::getStockQuantity)
+            .add("sku", Product::getSku)
+            .add("brand", Product::getBrand)
+            // Reading the id of a lazy proxy does not initialize it
+            .add("categoryId", product -> product.getCategory() == null ? null : product.getCategory().getId())
+            .add("imageUrl", Product::getImageUrl)
+            .add("active", Product::getActive)
+            .add("createdAt", Product::getCreatedAt)
+            .add("updatedAt", Product::getUpdatedAt);
+
     private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final ProductImporter productImporter;
+    private final ProductCache productCache;
+    private final ProductCatalog productCatalog;
+    private final ProductSuggester productSuggester;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategoryRepository categoryRepository;
+    private final Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private MergePatch<Product> productPatch;
+
+    @PostConstruct
+    void initProductPatch() {
+        productPatch = new MergePatch<>(Product.class, objectMapper, validator)
+                .field("name", String.class)
+                .field("description", String.class)
+                .field("price", BigDecimal.class)
+                .field("stockQuantity", Integer.class)
+                .field("sku", String.class)
+                .field("brand", String.class)
+                .field("category", node -> categoryRepository.getReferenceById(
+                        objectMapper.convertValue(node.get("id"), Long.class)))
+                .field("imageUrl", String.class)
+                .field("active", Boolean.class);
+    }
 
     @Override
     public Product createProduct(Product product) {
@@ -32,6 +131,11 @@ public class ProductServiceImpl implements ProductService {
         product.setCreatedAt(LocalDateTime.now());
         product.setUpdatedAt(LocalDateTime.now());
         Product savedProduct = productRepository.save(product);
+        afterCommit(() -> {
+            productCatalog.upsert(savedProduct);
+            productSuggester.upsert(savedProduct);
+            productSearchIndex.upsert(savedProduct);
+        });
         log.info("Product created successfully with ID: {}", savedProduct.getId());
         return savedProduct;
     }
@@ -47,9 +151,15 @@ public class ProductServiceImpl implements ProductService {
                     existingProduct.setStockQuantity(product.getStockQuantity());
                     existingProduct.setCategory(product.getCategory());
                     existingProduct.setImageUrl(product.getImageUrl());
-                    existingProduct.setActive(product.isActive());
+                    existingProduct.setActive(product.getActive());
                     existingProduct.setUpdatedAt(LocalDateTime.now());
+                    evictFromCache(id);
                     Product updated = productRepository.save(existingProduct);
+                    afterCommit(() -> {
+                        productCatalog.upsert(updated);
+                        productSuggester.upsert(updated);
+                        productSearchIndex.upsert(updated);
+                    });
                     log.info("Product updated successfully: {}", id);
                     return updated;
                 })
@@ -59,46 +169,254 @@ public class ProductServiceImpl implements ProductService {
                 });
     }
 
+    /**
+     * Only the patched columns are written, by one UPDATE that also checks and bumps the version;
+     * the product is only looked up again to tell a missing product from a stale version
+     */
     @Override
-    @Transactional(readOnly = true)
+    public long patchProduct(Long id, long expectedVersion, JsonNode patch) {
+        log.info("Patching product with ID: {} at version {}", id, expectedVersion);
+        Map<String, Object> changes = productPatch.changes(patch);
+
+        evictFromCache(id);
+        int updated;
+        try {
+            updated = productRepository.updateFields(id, expectedVersion, changes);
+        } catch (DataIntegrityViolationException ex) {
+            throw translatePatchViolation(ex, id, changes);
+        }
+        if (updated == 0) {
+            if (!productRepository.existsById(id)) {
+                log.error("Product not found with ID: {}", id);
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            throw new OptimisticLockingFailureException("Product " + id + " is no longer at version " + expectedVersion);
+        }
+
+        afterCommit(() -> productCatalog.patch(id, changes));
+        if (changes.keySet().stream().anyMatch(INDEXED_FIELDS::contains)) {
+            // The suggester and search index need the whole row, e.g. for a reactivated product
+            productRepository.findById(id).ifPresent(patched -> afterCommit(() -> {
+                productSuggester.upsert(patched);
+                productSearchIndex.upsert(patched);
+            }));
+        }
+        log.info("Product patched successfully: {} to version {}", id, expectedVersion + 1);
+        return expectedVersion + 1;
+    }
+
+    @Override
+    public ImportReport importProducts(InputStream in, DataFormat format) throws IOException {
+        log.info("Importing products from {} input", format);
+        ImportReport report = productImporter.importProducts(in, format);
+        if (report.getRowsImported() > 0) {
+            // Imported rows are written with plain JDBC, so reload the catalog and suggestions and
+            // replay the changed rows into the search index instead
+            afterCommit(() -> {
+                productCatalog.refresh();
+                productSuggester.refresh();
+                productSearchIndex.catchUp();
+            });
+        }
+        return report;
+    }
+
+    /**
+     * Point lookups only join an existing transaction, so cache hits never check out a connection
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Product> getProductById(Long id) {
         log.info("Fetching product with ID: {}", id);
-        return productRepository.findById(id);
+        Optional<Product> product = productCache.getById(id, productRepository::findWithCategoryById);
+        product.ifPresent(found -> productSuggester.recordView(found.getId()));
+        return product;
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<Product> getProductBySku(String sku) {
+        log.info("Fetching product with SKU: {}", sku);
+        Optional<Product> product = productCache.getBySku(sku, key -> productRepository
+                .findWithCategoryBySkuOrderByIdAsc(key)
+                .stream()
+                .findFirst());
+        product.ifPresent(found -> productSuggester.recordView(found.getId()));
+        return product;
+    }
+
+    /**
+     * Answered from the in-memory prefix index; until it is seeded, by a prefix query ordered by name
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Suggestion limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (productSuggester.isReady()) {
+            return productSuggester.suggest(prefix, limit);
+        }
+        String lowerCase = prefix.strip().toLowerCase(Locale.ROOT);
+        if (lowerCase.isEmpty()) {
+            return List.of();
+        }
+        List<ProductSuggestion> suggestions = new ArrayList<>(limit);
+        for (ProductSuggestView row : productRepository.findSuggestRowsByPrefix(lowerCase, PageRequest.of(0, limit))) {
+            suggestions.add(new ProductSuggestion(row.getId(), row.getName(), row.getSku()));
+        }
+        return suggestions;
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public BatchLookupResult<Long, Product> getProductsByIds(List<Long> ids) {
+        log.info("Fetching {} products by ID", ids.size());
+        Map<Long, Product> found = productCache.getAllById(distinctKeys(ids),
+                misses -> loadInChunks(misses, productRepository::findWithCategoryByIdIn));
+        return BatchLookupResult.of(ids, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public BatchLookupResult<String, Product> getProductsBySkus(List<String> skus) {
+        log.info("Fetching {} products by SKU", skus.size());
+        Map<String, Product> found = productCache.getAllBySku(distinctKeys(skus),
+                misses -> loadInChunks(misses, productRepository::findWithCategoryBySkuInOrderByIdAsc));
+        return BatchLookupResult.of(skus, found);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         log.info("Fetching all products");
-        return productRepository.findAll();
+        return productRepository.findAllWithCategory();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAllProducts(DataFormat format, OutputStream out) throws IOException {
+        log.info("Exporting all products as {}", format);
+        try (Stream<Product> products = productRepository.streamAll();
+             ExportWriter<Product> writer = new ExportWriter<>(format, EXPORT_COLUMNS, out, objectMapper)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                writer.write(product);
+                // Keep the persistence context from growing with the table
+                entityManager.detach(product);
+            }
+            log.info("Exported {} products", writer.getRowCount());
+            return writer.getRowCount();
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Product> getProductsPaginated(Pageable pageable) {
         log.info("Fetching products with pagination");
-        return productRepository.findAll(pageable);
+        return productRepository.findAllWithCategory(pageable);
+    }
+
+    /**
+     * Filters and sorts in the in-memory catalog, then loads only the page's rows;
+     * falls back to a single database query until the catalog is seeded
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> filterProducts(ProductFilter filter, Pageable pageable) {
+        log.info("Filtering products: {}", filter);
+        if (!productCatalog.isReady()) {
+            return productRepository.findByFilter(filter.getCategoryId(), filter.getBrand(), filter.getMinPrice(),
+                    filter.getMaxPrice(), filter.getActive(), filter.getName(), pageable);
+        }
+        ProductCatalog.Result result = productCatalog.query(filter, pageable.getSort(),
+                pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(result.getIds()), pageable, result.getTotal());
+    }
+
+    /**
+     * Ranked by the in-memory BM25 index, then loads only the page's rows; until the index is
+     * open, falls back to the filter query with the whole query as a name substring, unranked
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Product> searchProducts(String query, ProductFilter filter, Pageable pageable) {
+        log.info("Searching products for '{}' with {}", query, filter);
+        if (!productSearchIndex.isReady()) {
+            return productRepository.findByFilter(filter.getCategoryId(), null, filter.getMinPrice(),
+                    filter.getMaxPrice(), filter.getActive(), query.strip(), pageable);
+        }
+        ProductSearchIndex.Result result = productSearchIndex.search(query, filter,
+                pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(result.getIds()), pageable, result.getTotal());
+    }
+
+    /**
+     * Facets are counted in the same catalog scan that selects the page; until the catalog is
+     * seeded they are counted from one streamed projection of the matching rows
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedProductPage filterProductsWithFacets(ProductFilter filter, Pageable pageable) {
+        log.info("Filtering products with facets: {}", filter);
+        if (!productCatalog.isReady()) {
+            Page<Product> page = filterProducts(filter, pageable);
+            ProductFacets facets;
+            try (Stream<ProductCatalogView> rows = productRepository.streamCatalogRowsByFilter(filter.getCategoryId(),
+                    filter.getBrand(), filter.getMinPrice(), filter.getMaxPrice(), filter.getActive(), filter.getName())) {
+                facets = productCatalog.facets(rows);
+            }
+            return FacetedProductPage.builder()
+                    .content(page.getContent())
+                    .page(pageable.getPageNumber())
+                    .size(pageable.getPageSize())
+                    .totalElements(page.getTotalElements())
+                    .facets(facets)
+                    .build();
+        }
+        ProductCatalog.Result result = productCatalog.queryWithFacets(filter, pageable.getSort(),
+                pageable.getOffset(), pageable.getPageSize());
+        return FacetedProductPage.builder()
+                .content(findAllInOrder(result.getIds()))
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements(result.getTotal())
+                .facets(result.getFacets())
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(Long categoryId) {
         log.info("Fetching products for category ID: {}", categoryId);
-        return productRepository.findByCategoryId(categoryId);
+        return productRepository.findWithCategoryByCategoryId(categoryId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> searchProductsByName(String name) {
         log.info("Searching products by name: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return productRepository.findWithCategoryByNameContainingIgnoreCase(name);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByBrand(String brand) {
+        log.info("Fetching products for brand: {}", brand);
+        return productRepository.findWithCategoryByBrand(brand);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        log.info("Fetching products priced between {} and {}", minPrice, maxPrice);
+        return productRepository.findWithCategoryByPriceBetween(minPrice, maxPrice);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getActiveProducts() {
         log.info("Fetching all active products");
-        return productRepository.findByActiveTrue();
+        return productRepository.findWithCategoryByActiveTrue();
     }
 
     @Override
@@ -108,7 +426,13 @@ public class ProductServiceImpl implements ProductService {
             log.error("Product not found with ID: {}", id);
             throw new RuntimeException("Product not found with id: " + id);
         }
+        evictFromCache(id);
         productRepository.deleteById(id);
+        afterCommit(() -> {
+            productCatalog.remove(id);
+            productSuggester.remove(id);
+            productSearchIndex.remove(id);
+        });
         log.info("Product deleted successfully: {}", id);
     }
 
@@ -117,4 +441,98 @@ public class ProductServiceImpl implements ProductService {
     public boolean existsById(Long id) {
         return productRepository.existsById(id);
     }
+
+    /**
+     * Load products by id in the order given, skipping any deleted since the ids were read
+     */
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> byId = productRepository.findWithCategoryByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    private static <K> List<K> distinctKeys(List<K> keys) {
+        if (keys.size() > MAX_BATCH_KEYS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_KEYS + " keys per batch, got " + keys.size());
+        }
+        if (keys.contains(null)) {
+            throw new IllegalArgumentException("Batch keys must not be empty");
+        }
+        return keys.stream().distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Run an IN-list query once per chunk of keys; results keep the per-chunk order of the query
+     */
+    private static <K> List<Product> loadInChunks(List<K> keys, Function<List<K>, List<Product>> query) {
+        List<Product> loaded = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += BATCH_CHUNK_SIZE) {
+            loaded.addAll(query.apply(keys.subList(from, Math.min(keys.size(), from + BATCH_CHUNK_SIZE))));
+        }
+        return loaded;
+    }
+
+    /**
+     * Map a constraint violation of a patch to the error for the field that caused it; SKUs are not
+     * unique in the generated schema, but a database that enforces them gets a matching message
+     */
+    private RuntimeException translatePatchViolation(DataIntegrityViolationException ex, Long id,
+                                                     Map<String, Object> changes) {
+        String constraint = violatedConstraint(ex);
+        if (changes.containsKey("category") && constraint.contains(Product.CATEGORY_CONSTRAINT)) {
+            log.error("Patch of product {} references a missing category", id);
+            return new IllegalArgumentException("Patch of product " + id + " references a missing category");
+        }
+        if (changes.containsKey("sku") && constraint.contains("sku")) {
+            log.error("Product with SKU {} already exists", changes.get("sku"));
+            return new IllegalArgumentException("Product with SKU " + changes.get("sku") + " already exists");
+        }
+        log.error("Patch of product {} violates a constraint", id, ex);
+        return ex;
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Evict a product now and again after commit, so a concurrent read of the old row
+     * cannot leave it cached once the write is visible; should that read finish only after
+     * the new row has been cached again, the cache keeps the higher version
+     */
+    private void evictFromCache(Long id) {
+        productCache.evict(id);
+        afterCommit(() -> productCache.evict(id));
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately outside a transaction
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
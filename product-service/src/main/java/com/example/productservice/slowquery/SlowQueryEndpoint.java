@@ -0,0 +1,41 @@
+package com.example.productservice.slowquery;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the slowest recent statements
+ * GET /actuator/slowqueries lists them slowest first with the endpoint that ran them, DELETE clears the view
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+    private final SlowQueryListener slowQueryListener;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog, SlowQueryListener slowQueryListener) {
+        this.slowQueryLog = slowQueryLog;
+        this.slowQueryListener = slowQueryListener;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("thresholdMs", slowQueryListener.getThresholdMs());
+        view.put("windowMinutes", slowQueryLog.getWindow().toMinutes());
+        view.put("recorded", slowQueryLog.getRecorded());
+        view.put("slowest", slowQueryLog.top());
+        return view;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.productservice.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable radix tree from normalized keys to weighted entries, answering top-k prefix queries
+ * Edges carry whole label strings, so a chain of single-child nodes takes one node. Each node knows
+ * the heaviest entry below it, which lets a best-first walk stop after k results however many keys
+ * share the prefix. Updates copy only the path to the changed node and return a new tree.
+ */
+final class PrefixTree {
+
+    static final PrefixTree EMPTY = new PrefixTree(new Node("", new Node[0], new Entry[0]));
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingLong(Candidate::weight).reversed()
+            .thenComparing(Candidate::path)
+            .thenComparingLong(candidate -> candidate.entry() == null ? Long.MIN_VALUE : candidate.entry().id());
+
+    private final Node root;
+
+    private PrefixTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Add an entry under the key, replacing the entry with the same id there
+     */
+    PrefixTree put(String key, Entry entry) {
+        return new PrefixTree(put(root, key, 0, entry));
+    }
+
+    /**
+     * Drop the entry with the given id from the key; unknown keys and ids leave the tree as it is
+     */
+    PrefixTree remove(String key, long id) {
+        return new PrefixTree(remove(root, key, 0, id));
+    }
+
+    /**
+     * The heaviest distinct entries under keys starting with the prefix, ties in key order
+     */
+    List<Entry> top(String prefix, int limit) {
+        Node node = root;
+        int offset = 0;
+        String path = "";
+        while (offset < prefix.length()) {
+            Node child = node.child(prefix.charAt(offset));
+            if (child == null) {
+                return List.of();
+            }
+            int remaining = prefix.length() - offset;
+            if (child.label.length() >= remaining) {
+                if (!child.label.startsWith(prefix.substring(offset))) {
+                    return List.of();
+                }
+            } else if (!prefix.startsWith(child.label, offset)) {
+                return List.of();
+            }
+            path = prefix.substring(0, offset) + child.label;
+            offset += child.label.length();
+            node = child;
+        }
+        return top(node, path, limit);
+    }
+
+    private static List<Entry> top(Node start, String path, int limit) {
+        List<Entry> result = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        if (start.maxWeight >= 0) {
+            queue.add(new Candidate(start.maxWeight, path, start, null));
+        }
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.entry() != null) {
+                if (seen.add(candidate.entry().id())) {
+                    result.add(candidate.entry());
+                }
+                continue;
+            }
+            Node node = candidate.node();
+            for (Entry entry : node.entries) {
+                queue.add(new Candidate(entry.weight(), candidate.path(), null, entry));
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child.maxWeight, candidate.path() + child.label, child, null));
+            }
+        }
+        return result;
+    }
+
+    private static Node put(Node node, String key, int offset, Entry entry) {
+        if (offset == key.length()) {
+            return new Node(node.label, node.children, withEntry(node.entries, entry));
+        }
+        int index = node.indexOf(key.charAt(offset));
+        if (index < 0) {
+            Node leaf = new Node(key.substring(offset), new Node[0], new Entry[]{entry});
+            return new Node(node.label, insert(node.children, -index - 1, leaf), node.entries);
+        }
+        Node child = node.children[index];
+        int common = commonPrefix(child.label, key, offset);
+        if (common < child.label.length()) {
+            // Split the edge where the key leaves it
+            Node tail = new Node(child.label.substring(common), child.children, child.entries);
+            child = new Node(child.label.substring(0, common), new Node[]{tail}, new Entry[0]);
+        }
+        return node.withChild(index, put(child, key, offset + common, entry));
+    }
+
+    private static Node remove(Node node, String key, int offset, long id) {
+        if (offset == key.length()) {
+            Entry[] entries = withoutEntry(node.entries, id);
+            return entries == node.entries ? node : new Node(node.label, node.children, entries);
+        }
+        int index = node.indexOf(key.charAt(offset));
+        if (index < 0) {
+            return node;
+        }
+        Node child = node.children[index];
+        if (!key.startsWith(child.label, offset)) {
+            return node;
+        }
+        Node updated = remove(child, key, offset + child.label.length(), id);
+        if (updated == child) {
+            return node;
+        }
+        if (updated.entries.length == 0 && updated.children.length == 0) {
+            return new Node(node.label, delete(node.children, index), node.entries);
+        }
+        if (updated.entries.length == 0 && updated.children.length == 1) {
+            // Merge the now redundant node into its only child
+            Node only = updated.children[0];
+            updated = new Node(updated.label + only.label, only.children, only.entries);
+        }
+        return node.withChild(index, updated);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Entry[] withEntry(Entry[] entries, Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].id() == entry.id()) {
+                Entry[] copy = entries.clone();
+                copy[i] = entry;
+                return copy;
+            }
+        }
+        Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+        copy[entries.length] = entry;
+        return copy;
+    }
+
+    private static Entry[] withoutEntry(Entry[] entries, long id) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].id() == id) {
+                Entry[] copy = new Entry[entries.length - 1];
+                System.arraycopy(entries, 0, copy, 0, i);
+                System.arraycopy(entries, i + 1, copy, i, entries.length - i - 1);
+                return copy;
+            }
+        }
+        return entries;
+    }
+
+    private static Node[] insert(Node[] children, int index, Node child) {
+        Node[] copy = new Node[children.length + 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        copy[index] = child;
+        System.arraycopy(children, index, copy, index + 1, children.length - index);
+        return copy;
+    }
+
+    private static Node[] delete(Node[] children, int index) {
+        Node[] copy = new Node[children.length - 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        System.arraycopy(children, index + 1, copy, index, children.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * A product suggestion with its popularity
+     */
+    record Entry(long id, String name, String sku, long weight) {
+    }
+
+    private record Candidate(long weight, String path, Node node, Entry entry) {
+    }
+
+    /**
+     * Children are sorted by the first character of their label, which is unique among siblings
+     */
+    private static final class Node {
+
+        private final String label;
+        private final Node[] children;
+        private final Entry[] entries;
+        // Heaviest entry in this subtree, -1 when it holds none
+        private final long maxWeight;
+
+        private Node(String label, Node[] children, Entry[] entries) {
+            this.label = label;
+            this.children = children;
+            this.entries = entries;
+            long max = -1;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.weight());
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            this.maxWeight = max;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private Node child(char first) {
+            int index = indexOf(first);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node withChild(int index, Node child) {
+            Node[] copy = children.clone();
+            copy[index] = child;
+            return new Node(label, copy, entries);
+        }
+    }
+}
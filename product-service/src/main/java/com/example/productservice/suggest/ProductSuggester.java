@@ -0,0 +1,268 @@
+package com.example.productservice.suggest;
+
+import com.example.productservice.dto.ProductSuggestView;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead suggestions over the names and SKUs of active products, ranked by popularity
+ * Every product is indexed under its normalized name, under the rest of the name from each later
+ * word, and under its SKU, so "pro" finds "Laptop Pro". Popularity is the number of times the
+ * product was looked up since the index was built; views are counted without locking and folded
+ * into the ranking by a periodic flush. Readers query an immutable tree and never lock.
+ */
+@Component
+@Slf4j
+public class ProductSuggester {
+
+    // Words after the first that start a key of their own; longer names are still found by their start
+    static final int MAX_WORD_KEYS = 8;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+
+    @Value("${product.suggest.enabled:true}")
+    private boolean enabled = true;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Indexed entry of each product, only touched by writers holding writeLock
+    private final Map<Long, PrefixTree.Entry> entries = new HashMap<>();
+
+    private final Map<Long, Long> pendingViews = new ConcurrentHashMap<>();
+
+    private volatile PrefixTree tree = PrefixTree.EMPTY;
+
+    private volatile boolean ready;
+
+    public ProductSuggester(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Invoked through the proxy, so the initial load runs in the background in its own transaction;
+     * the call to refresh below is a plain method call
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onApplicationReady() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reload the index from the products table, keeping the popularity gathered so far
+     * Runs in the background in its own transaction on the primary, like the catalog reload
+     */
+    @Async
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh() {
+        long start = System.nanoTime();
+        try (Stream<ProductSuggestView> rows = productRepository.streamSuggestRows()) {
+            rebuild(rows);
+        }
+        log.info("Built product suggestion index with {} products in {} ms",
+                size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replace the index contents with the given rows
+     */
+    public void rebuild(Stream<? extends ProductSuggestView> rows) {
+        writeLock.lock();
+        try {
+            Map<Long, PrefixTree.Entry> previous = new HashMap<>(entries);
+            entries.clear();
+            PrefixTree rebuilt = PrefixTree.EMPTY;
+            for (Iterator<? extends ProductSuggestView> it = rows.iterator(); it.hasNext(); ) {
+                ProductSuggestView row = it.next();
+                if (!Boolean.TRUE.equals(row.getActive()) || row.getName() == null) {
+                    continue;
+                }
+                PrefixTree.Entry old = previous.get(row.getId());
+                PrefixTree.Entry entry = new PrefixTree.Entry(row.getId(), row.getName(), row.getSku(),
+                        old == null ? 0 : old.weight());
+                rebuilt = put(rebuilt, entry);
+                entries.put(entry.id(), entry);
+            }
+            tree = rebuilt;
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add or replace a product; inactive products are removed
+     */
+    public void upsert(Product product) {
+        writeLock.lock();
+        try {
+            PrefixTree.Entry old = entries.get(product.getId());
+            PrefixTree updated = remove(tree, product.getId());
+            if (Boolean.TRUE.equals(product.getActive()) && product.getName() != null) {
+                PrefixTree.Entry entry = new PrefixTree.Entry(product.getId(), product.getName(), product.getSku(),
+                        old == null ? 0 : old.weight());
+                updated = put(updated, entry);
+                entries.put(entry.id(), entry);
+            }
+            tree = updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            tree = remove(tree, id);
+            pendingViews.remove(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Count a lookup of the product towards its popularity
+     */
+    public void recordView(Long id) {
+        if (enabled) {
+            pendingViews.merge(id, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Fold the views counted since the last flush into the ranking
+     */
+    @Scheduled(fixedDelayString = "${product.suggest.popularity-flush-ms:10000}")
+    public void applyViews() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            PrefixTree updated = tree;
+            for (Long id : pendingViews.keySet()) {
+                Long views = pendingViews.remove(id);
+                PrefixTree.Entry old = entries.get(id);
+                if (views == null || old == null) {
+                    continue;
+                }
+                PrefixTree.Entry entry = new PrefixTree.Entry(id, old.name(), old.sku(), old.weight() + views);
+                updated = put(updated, entry);
+                entries.put(id, entry);
+            }
+            tree = updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Up to limit products whose name, a later word of it, or SKU starts with the prefix, most popular first
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<PrefixTree.Entry> top = tree.top(normalized, limit);
+        List<ProductSuggestion> suggestions = new ArrayList<>(top.size());
+        for (PrefixTree.Entry entry : top) {
+            suggestions.add(new ProductSuggestion(entry.id(), entry.name(), entry.sku()));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Whether the index has been seeded and can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        writeLock.lock();
+        try {
+            return entries.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lower case without accents, with every run of punctuation and spaces turned into one space
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    static Set<String> keys(String name, String sku) {
+        Set<String> keys = new LinkedHashSet<>();
+        String normalizedName = normalize(name);
+        if (!normalizedName.isEmpty()) {
+            keys.add(normalizedName);
+            int words = 0;
+            for (int i = normalizedName.indexOf(' '); i >= 0 && words < MAX_WORD_KEYS;
+                 i = normalizedName.indexOf(' ', i + 1)) {
+                keys.add(normalizedName.substring(i + 1));
+                words++;
+            }
+        }
+        String normalizedSku = normalize(sku);
+        if (!normalizedSku.isEmpty()) {
+            keys.add(normalizedSku);
+        }
+        return keys;
+    }
+
+    private static PrefixTree put(PrefixTree tree, PrefixTree.Entry entry) {
+        for (String key : keys(entry.name(), entry.sku())) {
+            tree = tree.put(key, entry);
+        }
+        return tree;
+    }
+
+    private PrefixTree remove(PrefixTree tree, Long id) {
+        PrefixTree.Entry old = entries.remove(id);
+        if (old == null) {
+            return tree;
+        }
+        for (String key : keys(old.name(), old.sku())) {
+            tree = tree.remove(key, id);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.productservice.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Server-Timing Configuration
+ * Hooks serialization and repository calls into the per-request timing
+ */
+@Configuration
+public class ServerTimingConfig {
+
+    private static final MethodInterceptor REPOSITORY_TIMING = invocation -> {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return invocation.proceed();
+        }
+        timing.repositoryEntered();
+        try {
+            return invocation.proceed();
+        } finally {
+            timing.repositoryExited();
+        }
+    };
+
+    /**
+     * Replaces Boot's default JSON converter
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "product.server-timing", name = "enabled", matchIfMissing = true)
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper,
+            @Value("${product.server-timing.max-buffered-bytes:65536}") int maxBufferedBytes) {
+        return new ServerTimingHttpMessageConverter(objectMapper, maxBufferedBytes);
+    }
+
+    /**
+     * Time every repository call; must customize the factory beans before they create the repositories
+     */
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(REPOSITORY_TIMING)));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.productservice.timing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Records how long each connection checkout from the pool takes
+ */
+public class ServerTimingDataSource extends DelegatingDataSource {
+
+    public ServerTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return super.getConnection();
+        }
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            timing.addPoolWait(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.productservice.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Binds a ServerTiming to each API request and writes its header just before the body starts
+ * JSON bodies get the header from ServerTimingHttpMessageConverter, which knows the serialization time
+ */
+@Component
+@ConditionalOnProperty(prefix = "product.server-timing", name = "enabled", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.begin();
+        try {
+            chain.doFilter(request, new TimingResponse(response, timing));
+            if (!response.isCommitted()) {
+                writeTimingHeader(response, timing);
+            }
+        } finally {
+            ServerTiming.end();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    private static void writeTimingHeader(HttpServletResponse response, ServerTiming timing) {
+        if (!response.containsHeader(ServerTiming.HEADER)) {
+            response.setHeader(ServerTiming.HEADER, timing.headerValue());
+        }
+    }
+
+    /**
+     * Sets the header, if nobody has yet, when the body is first written
+     */
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+
+        private TimingResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeTimingHeader(this, timing);
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeTimingHeader(this, timing);
+            return super.getWriter();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.productservice.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that times serialization for the Server-Timing header
+ * Within a timed request the body is rendered into a buffer first, so the header can carry the
+ * serialization time and still go out before the body. A body that outgrows the buffer is
+ * streamed from then on, and its header goes out without the serialization time.
+ */
+public class ServerTimingHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final int maxBufferedBytes;
+
+    public ServerTimingHttpMessageConverter(ObjectMapper objectMapper, int maxBufferedBytes) {
+        super(objectMapper);
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        TimedBody body = new TimedBody(timing, outputMessage);
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        timing.addSerialization(System.nanoTime() - start);
+        body.finish();
+    }
+
+    /**
+     * Buffers up to maxBufferedBytes; past that, sends the header and the buffer and streams the rest
+     */
+    private final class TimedBody extends OutputStream {
+
+        private final ServerTiming timing;
+        private final HttpOutputMessage outputMessage;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        private OutputStream streamed;
+
+        private TimedBody(ServerTiming timing, HttpOutputMessage outputMessage) {
+            this.timing = timing;
+            this.outputMessage = outputMessage;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (streamed == null && buffer.size() + len > maxBufferedBytes) {
+                timing.serializationStreamed();
+                streamed = startBody();
+            }
+            if (streamed != null) {
+                streamed.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (streamed != null) {
+                streamed.flush();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (streamed == null) {
+                startBody();
+            }
+        }
+
+        private OutputStream startBody() throws IOException {
+            outputMessage.getHeaders().set(ServerTiming.HEADER, timing.headerValue());
+            OutputStream body = outputMessage.getBody();
+            buffer.writeTo(body);
+            buffer = null;
+            return body;
+        }
+    }
+}
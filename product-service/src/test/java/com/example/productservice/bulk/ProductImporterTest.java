@@ -0,0 +1,74 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SKU conflicts of an import are reported per row instead of failing the whole import
+ * Batches of two rows put the in-file duplicate and the existing SKU in different batches
+ */
+@SpringBootTest(properties = "product.import.batch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImporterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+
+        Product existing = new Product();
+        existing.setName("Desk Lamp");
+        existing.setSku("LMP-1");
+        existing.setPrice(new BigDecimal("39.00"));
+        existing.setStockQuantity(10);
+        productRepository.save(existing);
+    }
+
+    @Test
+    void importProducts_SkuConflictsAreRowErrors() throws Exception {
+        String csv = "name,price,stockQuantity,sku\n"
+                + "Mouse,9.99,3,MSE-1\n"
+                + "Lamp,19.99,1,LMP-1\n"
+                + "Mouse again,9.99,3,MSE-1\n"
+                + "Hub,24.99,5,HUB-1\n"
+                + "Cable,4.99,8,LMP-1\n";
+
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(5))
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.rowsRejected").value(3))
+                .andExpect(jsonPath("$.errors.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Product with SKU LMP-1 already exists"))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("Duplicate SKU in file: MSE-1"))
+                .andExpect(jsonPath("$.errors[2].line").value(6))
+                .andExpect(jsonPath("$.errors[2].message").value("Duplicate SKU in file: LMP-1"));
+
+        assertEquals(3, productRepository.count());
+        assertEquals(1, productRepository.findWithCategoryBySkuOrderByIdAsc("LMP-1").size());
+        assertEquals("Mouse", productRepository.findWithCategoryBySkuOrderByIdAsc("MSE-1").get(0).getName());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.io.DataFormat;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductRowReader and ProductRowValidator
+ */
+class ProductRowReaderTest {
+
+    private final ObjectReader jsonReader = new ObjectMapper().readerFor(ProductImportRow.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    void readCsv_HandlesQuotingAndExportColumns() throws Exception {
+        String csv = "id,name,description,price,stock_quantity,sku,categoryId,active\r\n"
+                + "1,Mouse,\"Small, \"\"fast\"\"\nmouse\",9.99,3,M-1,,true\r\n"
+                + "\r\n"
+                + "2,Hub,,abc,1,H-1,,\r\n";
+
+        List<ProductRowReader.ParsedRow> rows = readAll(csv, DataFormat.CSV);
+
+        assertEquals(2, rows.size());
+        ProductImportRow mouse = rows.get(0).getRow();
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Small, \"fast\"\nmouse", mouse.getDescription());
+        assertEquals(new BigDecimal("9.99"), mouse.getPrice());
+        assertEquals(3, mouse.getStockQuantity());
+        assertNull(mouse.getCategoryId());
+        assertTrue(mouse.getActive());
+
+        assertEquals(5, rows.get(1).getLine());
+        assertEquals("Invalid price: abc", rows.get(1).getError());
+    }
+
+    @Test
+    void readNdjson_ReportsMalformedLines() throws Exception {
+        String ndjson = "{\"name\":\"Mouse\",\"price\":9.99,\"stockQuantity\":3,\"id\":7}\n"
+                + "\n"
+                + "{\"name\":\n";
+
+        List<ProductRowReader.ParsedRow> rows = readAll(ndjson, DataFormat.NDJSON);
+
+        assertEquals(2, rows.size());
+        assertEquals("Mouse", rows.get(0).getRow().getName());
+        assertEquals(3, rows.get(1).getLine());
+        assertTrue(rows.get(1).getError().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void validate_RejectsRowsViolatingConstraints() {
+        ProductRowValidator validator = new ProductRowValidator(Set.of(1L));
+        ProductImportRow row = ProductImportRow.builder()
+                .name("Mouse").price(BigDecimal.TEN).stockQuantity(1).categoryId(1L).build();
+
+        assertNull(validator.validate(row));
+
+        row.setCategoryId(2L);
+        assertEquals("Category not found with id: 2", validator.validate(row));
+
+        row.setCategoryId(null);
+        row.setStockQuantity(-1);
+        assertEquals("Stock quantity must not be negative", validator.validate(row));
+
+        row.setName(" ");
+        assertEquals("Name is required", validator.validate(row));
+    }
+
+    private List<ProductRowReader.ParsedRow> readAll(String input, DataFormat format) throws Exception {
+        List<ProductRowReader.ParsedRow> rows = new ArrayList<>();
+        try (ProductRowReader reader = new ProductRowReader(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format, jsonReader)) {
+            ProductRowReader.ParsedRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductCache
+ */
+class ProductCacheTest {
+
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(100, 60, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void put_OlderVersionDoesNotReplaceNewer() {
+        Product current = product(1L, "LMP-2", 2L);
+        Product stale = product(1L, "LMP-1", 1L);
+
+        cache.put(current);
+        cache.put(stale);
+
+        assertSame(current, cache.getById(1L, id -> Optional.of(stale)).orElseThrow());
+        assertSame(current, cache.getBySku("LMP-2", sku -> Optional.empty()).orElseThrow());
+        assertTrue(cache.getBySku("LMP-1", sku -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void put_NewerVersionReplacesOlder() {
+        Product stale = product(1L, "LMP-1", 1L);
+        Product current = product(1L, "LMP-1", 2L);
+
+        cache.put(stale);
+        cache.put(current);
+
+        assertSame(current, cache.getById(1L, id -> Optional.empty()).orElseThrow());
+    }
+
+    private static Product product(Long id, String sku, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku(sku);
+        product.setVersion(version);
+        return product;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.productservice.catalog;
+
+import com.example.productservice.dto.ProductCatalogView;
+import com.example.productservice.dto.ProductFacets;
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProductCatalog
+ */
+class ProductCatalogTest {
+
+    private ProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProductCatalog(null);
+        catalog.rebuild(Stream.empty());
+        catalog.upsertAll(List.of(
+                product(1L, "Laptop", "999.00", "Acme", 10L, true),
+                product(2L, "Phone", "499.99", "Acme", 10L, true),
+                product(3L, "Novel", "12.50", "Penguin", 20L, true),
+                product(4L, "Cookbook", "25.00", "Penguin", 20L, false),
+                product(5L, "Shovel", "30.00", null, null, true)
+        ));
+    }
+
+    @Test
+    void query_CombinesFilters() {
+        ProductFilter filter = ProductFilter.builder()
+                .brand("Penguin")
+                .minPrice(new BigDecimal("10"))
+                .maxPrice(new BigDecimal("30"))
+                .active(true)
+                .build();
+
+        assertEquals(List.of(3L), ids(filter, Sort.unsorted()));
+    }
+
+    @Test
+    void query_PriceBoundsAreInclusive() {
+        ProductFilter filter = ProductFilter.builder()
+                .minPrice(new BigDecimal("25.00"))
+                .maxPrice(new BigDecimal("499.99"))
+                .build();
+
+        assertEquals(List.of(2L, 4L, 5L), ids(filter, Sort.unsorted()));
+    }
+
+    @Test
+    void query_FiltersByCategoryNameAndInactive() {
+        assertEquals(List.of(1L, 2L), ids(ProductFilter.builder().categoryId(10L).build(), Sort.unsorted()));
+        assertEquals(List.of(4L), ids(ProductFilter.builder().active(false).build(), Sort.unsorted()));
+        assertEquals(List.of(5L, 3L), ids(ProductFilter.builder().name("OV").build(), Sort.by("name").descending()));
+    }
+
+    @Test
+    void query_UnknownBrandMatchesNothing() {
+        assertTrue(ids(ProductFilter.builder().brand("Nobody").build(), Sort.unsorted()).isEmpty());
+    }
+
+    @Test
+    void query_SortsAndPages() {
+        ProductCatalog.Result result = catalog.query(new ProductFilter(), Sort.by(Sort.Direction.DESC, "price"), 1, 2);
+
+        assertEquals(List.of(2L, 5L), result.getIds());
+        assertEquals(5, result.getTotal());
+    }
+
+    @Test
+    void query_RejectsUnknownSortProperty() {
+        assertThrows(IllegalArgumentException.class,
+                () -> catalog.query(new ProductFilter(), Sort.by("createdAt"), 0, 10));
+    }
+
+    @Test
+    void queryWithFacets_CountsAllMatches() {
+        ProductCatalog.Result result = catalog.queryWithFacets(ProductFilter.builder().active(true).build(),
+                Sort.unsorted(), 0, 1);
+        ProductFacets facets = result.getFacets();
+
+        assertEquals(List.of(1L), result.getIds());
+        assertEquals(List.of(new ProductFacets.ValueCount<>("Acme", 2), new ProductFacets.ValueCount<>("Penguin", 1)),
+                facets.getBrands());
+        assertEquals(List.of(new ProductFacets.ValueCount<>(10L, 2), new ProductFacets.ValueCount<>(20L, 1)),
+                facets.getCategories());
+        assertEquals(List.of(1, 1, 0, 0, 1, 1, 0),
+                facets.getPrices().stream().map(ProductFacets.PriceBucket::getCount).toList());
+        assertEquals(new BigDecimal("25.00"), facets.getPrices().get(1).getMin());
+        assertNull(facets.getPrices().get(6).getMax());
+    }
+
+    @Test
+    void bucketOf_UsesLowerBoundInclusive() {
+        long[] bounds = {0, 2500, 5000};
+
+        assertEquals(-1, ProductCatalog.bucketOf(bounds, -1));
+        assertEquals(0, ProductCatalog.bucketOf(bounds, 2499));
+        assertEquals(1, ProductCatalog.bucketOf(bounds, 2500));
+        assertEquals(2, ProductCatalog.bucketOf(bounds, 999999));
+    }
+
+    @Test
+    void upsert_ReplacesPreviousRow() {
+        catalog.upsert(product(3L, "Novel", "99.00", "Acme", 10L, true));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(ProductFilter.builder().brand("Acme").build(), Sort.by("id")));
+        assertEquals(5, catalog.size());
+    }
+
+    @Test
+    void remove_DropsRow() {
+        catalog.remove(1L);
+
+        assertEquals(List.of(2L), ids(ProductFilter.builder().categoryId(10L).build(), Sort.unsorted()));
+        assertEquals(4, catalog.size());
+    }
+
+    @Test
+    void upsert_CompactsAfterManyUpdates() {
+        for (int i = 0; i < 3000; i++) {
+            catalog.upsert(product(1L, "Laptop", Integer.toString(1000 + i), "Acme", 10L, true));
+        }
+
+        ProductCatalog.Result result = catalog.query(ProductFilter.builder().brand("Acme").build(),
+                Sort.by(Sort.Direction.DESC, "price"), 0, 10);
+        assertEquals(List.of(1L, 2L), result.getIds());
+        assertEquals(5, catalog.size());
+    }
+
+    @Test
+    void sortRows_IsStable() {
+        int[] rows = new int[100];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = rows.length - 1 - i;
+        }
+        ProductCatalog.sortRows(rows, rows.length, (left, right) -> Integer.compare(left / 10, right / 10));
+
+        List<Integer> firstGroup = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            firstGroup.add(rows[i]);
+        }
+        assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 2, 1, 0), firstGroup);
+    }
+
+    @Test
+    void restoreSnapshot_ReplaysChangesSinceWrite(@TempDir Path directory) {
+        LocalDateTime written = LocalDateTime.of(2024, 1, 1, 12, 0);
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findMaxUpdatedAt()).thenReturn(written);
+        ProductCatalog writer = withSnapshot(new ProductCatalog(repository), directory);
+        writer.rebuild(Stream.empty());
+        writer.upsertAll(List.of(
+                product(1L, "Laptop", "999.00", "Acme", 10L, true),
+                product(2L, "Phone", "499.99", "Acme", 10L, true),
+                product(3L, "Novel", "12.50", "Penguin", 20L, false)));
+        writer.writeSnapshot();
+
+        // Since then: product 2 repriced and moved to Penguin, product 1 deleted, product 4 created
+        when(repository.findMaxUpdatedAt()).thenReturn(written.plusMinutes(5));
+        when(repository.streamCatalogRowsUpdatedSince(any())).thenAnswer(invocation -> Stream.of(
+                new CatalogRow(2L, "Phone", new BigDecimal("399.99"), 5, "Penguin", 20L, true),
+                new CatalogRow(4L, "Tablet", new BigDecimal("299.00"), 5, "Acme", 10L, true)));
+        when(repository.streamIds()).thenAnswer(invocation -> Stream.of(2L, 3L, 4L));
+        ProductCatalog restored = withSnapshot(new ProductCatalog(repository), directory);
+
+        assertTrue(restored.restoreSnapshot());
+        assertTrue(restored.isReady());
+        assertEquals(3, restored.size());
+        assertEquals(List.of(4L), restored.query(ProductFilter.builder().brand("Acme").build(), Sort.by("id"), 0, 10)
+                .getIds());
+        assertEquals(List.of(3L, 2L), restored.query(ProductFilter.builder().categoryId(20L).build(),
+                Sort.by("price"), 0, 10).getIds());
+        assertEquals(List.of(3L), restored.query(ProductFilter.builder().active(false).build(), Sort.unsorted(), 0, 10)
+                .getIds());
+    }
+
+    @Test
+    void restoreSnapshot_RejectsSnapshotNewerThanDatabase(@TempDir Path directory) {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findMaxUpdatedAt()).thenReturn(LocalDateTime.of(2024, 1, 1, 12, 0));
+        ProductCatalog writer = withSnapshot(new ProductCatalog(repository), directory);
+        writer.rebuild(Stream.empty());
+        writer.upsert(product(1L, "Laptop", "999.00", "Acme", 10L, true));
+        writer.writeSnapshot();
+
+        // The database was restored from a backup taken before the snapshot
+        when(repository.findMaxUpdatedAt()).thenReturn(LocalDateTime.of(2023, 12, 31, 0, 0));
+        ProductCatalog restored = withSnapshot(new ProductCatalog(repository), directory);
+
+        assertFalse(restored.restoreSnapshot());
+        assertFalse(restored.isReady());
+    }
+
+    private static ProductCatalog withSnapshot(ProductCatalog catalog, Path directory) {
+        ReflectionTestUtils.setField(catalog, "snapshotFile", directory.resolve("catalog.snapshot").toString());
+        return catalog;
+    }
+
+    private List<Long> ids(ProductFilter filter, Sort sort) {
+        return catalog.query(filter, sort, 0, 100).getIds();
+    }
+
+    private static Product product(Long id, String name, String price, String brand, Long categoryId, boolean active) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(5);
+        product.setBrand(brand);
+        product.setActive(active);
+        if (categoryId != null) {
+            Category category = new Category();
+            category.setId(categoryId);
+            product.setCategory(category);
+        }
+        return product;
+    }
+
+    private record CatalogRow(Long getId, String getName, BigDecimal getPrice, Integer getStockQuantity,
+                              String getBrand, Long getCategoryId, Boolean getActive) implements ProductCatalogView {
+    }
+}
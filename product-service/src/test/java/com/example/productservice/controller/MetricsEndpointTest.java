@@ -0,0 +1,57 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that service timers, repository timers, Hibernate statistics and Hikari pool
+ * metrics all reach the Prometheus endpoint
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void prometheus_ExposesHotPathMetrics() throws Exception {
+        Product product = new Product();
+        product.setName("Lamp");
+        product.setSku("LMP-1");
+        product.setPrice(new BigDecimal("19.99"));
+        product.setStockQuantity(3);
+        product = productRepository.save(product);
+
+        mockMvc.perform(get("/api/products/{id}", product.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/{id}", -1L)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("product_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"getProductById\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("hibernate_statements_total{")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")));
+    }
+}
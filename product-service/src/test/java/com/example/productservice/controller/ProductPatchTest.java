@@ -0,0 +1,89 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.productservice.patch.MergePatch;
+import com.example.productservice.repository.CategoryRepository;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Constraint violations of a product patch are reported for the field that caused them
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductPatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category lighting;
+    private Product lamp;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        lighting = new Category();
+        lighting.setName("Lighting");
+        lighting = categoryRepository.save(lighting);
+
+        lamp = new Product();
+        lamp.setName("Desk Lamp");
+        lamp.setSku("LMP-1");
+        lamp.setPrice(new BigDecimal("39.00"));
+        lamp.setStockQuantity(10);
+        lamp.setCategory(lighting);
+        lamp = productRepository.save(lamp);
+    }
+
+    @Test
+    void patch_MissingCategoryIsReported() throws Exception {
+        mockMvc.perform(patch("/api/products/{id}", lamp.getId())
+                        .contentType(MergePatch.MEDIA_TYPE)
+                        .header(HttpHeaders.IF_MATCH, lamp.getVersion())
+                        .content("{\"category\": {\"id\": 999999}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Patch of product " + lamp.getId() + " references a missing category"));
+
+        assertEquals(lighting.getId(), productRepository.findWithCategoryById(lamp.getId())
+                .orElseThrow().getCategory().getId());
+    }
+
+    @Test
+    void patch_ExistingCategoryIsApplied() throws Exception {
+        Category desks = new Category();
+        desks.setName("Desks");
+        desks = categoryRepository.save(desks);
+
+        mockMvc.perform(patch("/api/products/{id}", lamp.getId())
+                        .contentType(MergePatch.MEDIA_TYPE)
+                        .header(HttpHeaders.IF_MATCH, lamp.getVersion())
+                        .content("{\"category\": {\"id\": " + desks.getId() + "}}"))
+                .andExpect(status().isNoContent());
+
+        assertEquals(desks.getId(), productRepository.findWithCategoryById(lamp.getId())
+                .orElseThrow().getCategory().getId());
+    }
+}
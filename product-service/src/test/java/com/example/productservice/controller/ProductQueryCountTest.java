@@ -0,0 +1,172 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.CategoryRepository;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Asserts how many SQL statements each product read endpoint issues,
+ * so a lazy association that starts loading per row fails the build
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    private Category electronics;
+    private Product laptop;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productCache.evictAll();
+
+        electronics = categoryRepository.save(category("Electronics"));
+        Category books = categoryRepository.save(category("Books"));
+        Category garden = categoryRepository.save(category("Garden"));
+
+        laptop = productRepository.save(product("Laptop", "LAP-1", "Acme", "999.00", electronics));
+        productRepository.save(product("Phone", "PHN-1", "Acme", "499.00", electronics));
+        productRepository.save(product("Novel", "BK-1", "Penguin", "12.00", books));
+        productRepository.save(product("Cookbook", "BK-2", "Penguin", "25.00", books));
+        productRepository.save(product("Shovel", "GRD-1", "Acme", "30.00", garden));
+    }
+
+    @Test
+    void getAllProducts_SingleStatement() throws Exception {
+        assertStatements(get("/api/products"), 1, 5);
+    }
+
+    @Test
+    void getProductsPage_SelectAndCount() throws Exception {
+        assertStatements(get("/api/products/page").param("size", "2"), 2, -1);
+    }
+
+    @Test
+    void getProductsByCategory_SingleStatement() throws Exception {
+        assertStatements(get("/api/products/category/{id}", electronics.getId()), 1, 2);
+    }
+
+    @Test
+    void searchProducts_SingleStatement() throws Exception {
+        assertStatements(get("/api/products/search").param("name", "ov"), 1, 2);
+    }
+
+    @Test
+    void getProductsByBrand_SingleStatement() throws Exception {
+        assertStatements(get("/api/products/brand/{brand}", "Acme"), 1, 3);
+    }
+
+    @Test
+    void getProductsByPriceRange_SingleStatement() throws Exception {
+        assertStatements(get("/api/products/price").param("min", "10").param("max", "100"), 1, 3);
+    }
+
+    @Test
+    void getActiveProducts_SingleStatement() throws Exception {
+        assertStatements(get("/api/products/active"), 1, 5);
+    }
+
+    @Test
+    void getProductById_SingleStatementThenCached() throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/products/{id}", laptop.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category.name").value("Electronics"));
+        assertEquals(1, SqlStatementCounter.count());
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/products/{id}", laptop.getId()))
+                .andExpect(status().isOk());
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    void getProductsBatch_SingleStatementInRequestOrderThenCached() throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/products/_mget")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"skus\": [\"BK-2\", \"NOPE\", \"LAP-1\", \"BK-2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(4)))
+                .andExpect(jsonPath("$.results[0].value.name").value("Cookbook"))
+                .andExpect(jsonPath("$.results[1].found").value(false))
+                .andExpect(jsonPath("$.results[2].value.category.name").value("Electronics"))
+                .andExpect(jsonPath("$.results[3].value.name").value("Cookbook"))
+                .andExpect(jsonPath("$.missing[0]").value("NOPE"));
+        assertEquals(1, SqlStatementCounter.count());
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/products/_mget")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + laptop.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].value.sku").value("LAP-1"));
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    /**
+     * Perform a request that returns a product list and check the statement count;
+     * pass a negative size to skip checking the number of products returned
+     */
+    private void assertStatements(MockHttpServletRequestBuilder request, int statements, int size) throws Exception {
+        SqlStatementCounter.reset();
+        ResultActions result = mockMvc.perform(request).andExpect(status().isOk());
+        if (size >= 0) {
+            result.andExpect(jsonPath("$", hasSize(size)))
+                    .andExpect(jsonPath("$[0].category.name").exists());
+        }
+        assertEquals(statements, SqlStatementCounter.count());
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(String name, String sku, String brand, String price, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(10);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.model.Product;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import com.example.productservice.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrent checkouts against one hot product must never sell more than its stock
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class StockReservationStressTest {
+
+    private static final int STOCK = 2_000;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 250;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        Product product = new Product();
+        product.setName("Flash Sale Console");
+        product.setSku("HOT-1");
+        product.setPrice(new BigDecimal("299.00"));
+        product.setStockQuantity(STOCK);
+        productId = productRepository.save(product).getId();
+    }
+
+    @Test
+    void reserve_HotProductNeverOversells() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int granted = 0;
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    // Mixed sizes make the batches exceed the remaining stock in varying ways
+                    if (inventoryService.reserve(productId, 1 + i % 3).isPresent()) {
+                        granted += 1 + i % 3;
+                    }
+                }
+                return granted;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        int granted = 0;
+        for (Future<Integer> result : results) {
+            granted += result.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("{} reservation attempts on one product in {} s ({} per second)",
+                attempts, String.format("%.2f", seconds), String.format("%.0f", attempts / seconds));
+
+        int reserved = reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getProductId().equals(productId))
+                .mapToInt(StockReservation::getQuantity)
+                .sum();
+        int stockLeft = productRepository.findStockQuantityById(productId).orElseThrow();
+        assertEquals(granted, reserved);
+        assertEquals(STOCK, reserved + stockLeft);
+        assertTrue(stockLeft >= 0 && stockLeft < 3, "stock left over while requests were refused: " + stockLeft);
+    }
+
+    @Test
+    void release_ReturnsStockOnce() {
+        StockReservation reservation = inventoryService.reserve(productId, 5).orElseThrow();
+
+        assertTrue(inventoryService.release(reservation.getId()));
+        assertFalse(inventoryService.release(reservation.getId()));
+        assertFalse(inventoryService.commit(reservation.getId()));
+        assertEquals(STOCK, productRepository.findStockQuantityById(productId).orElseThrow());
+    }
+
+    @Test
+    void reserve_MoreThanStockIsRefused() {
+        Optional<StockReservation> reservation = inventoryService.reserve(productId, STOCK + 1);
+
+        assertTrue(reservation.isEmpty());
+        assertEquals(STOCK, productRepository.findStockQuantityById(productId).orElseThrow());
+    }
+
+    @Test
+    void reserve_MissingProductOnlyFailsItsOwnRequests() throws Exception {
+        // One stripe, and the first batch is held open until the other two requests have queued
+        // behind its lock, so they are drained together in the second batch
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        ProductRepository gatedRepository = mock(ProductRepository.class, delegatesTo(productRepository));
+        doAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await();
+            }
+            return productRepository.decrementStock(
+                    invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+        }).when(gatedRepository).decrementStock(anyLong(), anyInt(), any());
+        StockReservationCoalescer coalescer = new StockReservationCoalescer(gatedRepository, jdbcTemplate,
+                transactionManager, productCache, productCatalog, 1, 900);
+
+        Thread holder = new Thread(() -> coalescer.reserve(productId, 1));
+        holder.start();
+        assertTrue(firstBatchStarted.await(30, TimeUnit.SECONDS));
+
+        AtomicReference<Object> missingResult = new AtomicReference<>();
+        AtomicReference<Object> validResult = new AtomicReference<>();
+        Thread missing = new Thread(() -> missingResult.set(outcome(coalescer, Long.MAX_VALUE, 1)));
+        Thread valid = new Thread(() -> validResult.set(outcome(coalescer, productId, 2)));
+        missing.start();
+        valid.start();
+        while (missing.getState() != Thread.State.WAITING || valid.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        releaseFirstBatch.countDown();
+        for (Thread thread : List.of(holder, missing, valid)) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        RuntimeException notFound = assertInstanceOf(RuntimeException.class, missingResult.get());
+        assertEquals("Product not found with id: " + Long.MAX_VALUE, notFound.getMessage());
+        Optional<?> reservation = assertInstanceOf(Optional.class, validResult.get());
+        assertTrue(reservation.isPresent());
+        assertEquals(STOCK - 3, productRepository.findStockQuantityById(productId).orElseThrow());
+        assertEquals(2, reservationRepository.count());
+    }
+
+    private static Object outcome(StockReservationCoalescer coalescer, Long productId, int quantity) {
+        try {
+            return coalescer.reserve(productId, quantity);
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+}
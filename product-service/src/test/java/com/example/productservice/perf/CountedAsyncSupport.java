@@ -0,0 +1,64 @@
+package com.example.productservice.perf;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Runs async request processing, such as a streamed export, on a thread of its own and waits for it,
+ * then charges its statements and allocated bytes to the thread that handled the request
+ * The work cannot run on the request thread itself: open-in-view has bound an entity manager there.
+ */
+@TestConfiguration
+public class CountedAsyncSupport implements WebMvcConfigurer {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<long[]> ASYNC_ALLOCATED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final StatementCountingListener statementCounter;
+
+    public CountedAsyncSupport(StatementCountingListener statementCounter) {
+        this.statementCounter = statementCounter;
+    }
+
+    /**
+     * Bytes allocated so far by the async work of requests handled on the calling thread
+     */
+    public static long asyncAllocatedBytes() {
+        return ASYNC_ALLOCATED.get()[0];
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(this::runAndWait));
+    }
+
+    private void runAndWait(Runnable task) {
+        int[] statements = new int[1];
+        long[] allocated = new long[1];
+        Thread worker = new Thread(() -> {
+            statementCounter.reset();
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            try {
+                task.run();
+            } finally {
+                allocated[0] = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                statements[0] = statementCounter.count();
+            }
+        }, "async-request");
+        worker.start();
+        try {
+            worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for async request processing", ex);
+        }
+        statementCounter.add(statements[0]);
+        ASYNC_ALLOCATED.get()[0] += allocated[0];
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.productservice.perf;
+
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * What one request may cost: SQL statements, bytes allocated on the request thread and p95 latency
+ * The request is built anew for every run, so writes can use fresh keys or the current version
+ */
+public final class RequestBudget {
+
+    private final String name;
+    private final Supplier<MockHttpServletRequestBuilder> request;
+    private Runnable before = () -> { };
+    private int status = 200;
+    private int statements;
+    private long allocatedBytes;
+    private Duration p95;
+
+    private RequestBudget(String name, Supplier<MockHttpServletRequestBuilder> request) {
+        this.name = name;
+        this.request = request;
+    }
+
+    public static RequestBudget of(String name, Supplier<MockHttpServletRequestBuilder> request) {
+        return new RequestBudget(name, request);
+    }
+
+    /**
+     * Run before every request, outside the measurement, e.g. to evict a cache
+     */
+    public RequestBudget before(Runnable before) {
+        this.before = before;
+        return this;
+    }
+
+    public RequestBudget status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public RequestBudget statements(int statements) {
+        this.statements = statements;
+        return this;
+    }
+
+    public RequestBudget allocatedKb(long kilobytes) {
+        this.allocatedBytes = kilobytes * 1024;
+        return this;
+    }
+
+    public RequestBudget p95Millis(long millis) {
+        this.p95 = Duration.ofMillis(millis);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Supplier<MockHttpServletRequestBuilder> getRequest() {
+        return request;
+    }
+
+    public Runnable getBefore() {
+        return before;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public Duration getP95() {
+        return p95;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
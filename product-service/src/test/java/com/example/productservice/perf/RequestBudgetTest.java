@@ -0,0 +1,295 @@
+package com.example.productservice.perf;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.catalog.ProductCatalog;
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.productservice.patch.MergePatch;
+import com.example.productservice.repository.CategoryRepository;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.search.ProductSearchIndex;
+import com.example.productservice.service.InventoryService;
+import com.example.productservice.suggest.ProductSuggester;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Every product endpoint with its budget of SQL statements, allocated bytes and p95 latency
+ * A request over its statement or allocation budget fails the build. Statement budgets are exact
+ * expectations; allocation and latency budgets leave headroom over what the test profile measures
+ * and are logged for tightening. Latency depends on the machine, so a p95 over budget only logs a
+ * warning unless -Dperf.enforce-latency=true; -Dperf.latency-factor scales the latency budgets.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({StatementCountingListener.class, CountedAsyncSupport.class})
+@Slf4j
+class RequestBudgetTest {
+
+    private static final double LATENCY_FACTOR = Double.parseDouble(System.getProperty("perf.latency-factor", "1"));
+
+    private static final boolean ENFORCE_LATENCY = Boolean.getBoolean("perf.enforce-latency");
+
+    private static final int PRODUCTS = 60;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatementCountingListener statementCounter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong victimId = new AtomicLong();
+    private final AtomicReference<String> reservationId = new AtomicReference<>();
+
+    private Category electronics;
+    private Product laptop;
+    private Product cable;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        awaitStartupLoads();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productCache.evictAll();
+
+        electronics = categoryRepository.save(category("Electronics"));
+        Category books = categoryRepository.save(category("Books"));
+        Category garden = categoryRepository.save(category("Garden"));
+        List<Category> categories = List.of(electronics, books, garden);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            productRepository.save(product("Product " + i, "SKU-" + i, i % 2 == 0 ? "Acme" : "Globex",
+                    BigDecimal.valueOf(i * 5L), categories.get(i % categories.size())));
+        }
+        laptop = productRepository.save(product("Laptop", "LAP-1", "Acme", new BigDecimal("999.00"), electronics));
+        // Enough stock for every reservation the budgets make
+        Product stocked = product("Cable", "CBL-1", "Globex", new BigDecimal("4.99"), electronics);
+        stocked.setStockQuantity(1_000_000);
+        cable = productRepository.save(stocked);
+
+        // Rows saved through the repository bypass the in-memory indexes, so reload them from the table
+        List<Product> saved = productRepository.findAll();
+        productCatalog.rebuild(Stream.empty());
+        productCatalog.upsertAll(saved);
+        productSuggester.rebuild(Stream.empty());
+        saved.forEach(productSuggester::upsert);
+        productSearchIndex.rebuild(Stream.empty());
+        productSearchIndex.upsertAll(saved);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> requestsStayWithinBudget() {
+        RequestProfiler profiler = new RequestProfiler(mockMvc, statementCounter);
+        return budgets().stream().map(budget -> DynamicTest.dynamicTest(budget.getName(), () -> {
+            RequestProfile profile = profiler.profile(budget);
+            log.info("{}: {}", budget.getName(), profile);
+            long p95Budget = (long) (budget.getP95().toNanos() * LATENCY_FACTOR);
+            boolean withinLatency = profile.getP95().toNanos() <= p95Budget;
+            if (!withinLatency && !ENFORCE_LATENCY) {
+                log.warn("{}: p95 {} ms, budget {} ms", budget.getName(), profile.getP95().toMillis(),
+                        p95Budget / 1_000_000);
+            }
+            assertAll(budget.getName(),
+                    () -> assertTrue(profile.getStatements() <= budget.getStatements(),
+                            () -> profile.getStatements() + " SQL statements, budget " + budget.getStatements()),
+                    () -> assertTrue(profile.getAllocatedBytes() <= budget.getAllocatedBytes(),
+                            () -> profile.getAllocatedBytes() / 1024 + " KB allocated, budget "
+                                    + budget.getAllocatedBytes() / 1024),
+                    () -> assertTrue(withinLatency || !ENFORCE_LATENCY,
+                            () -> "p95 " + profile.getP95().toMillis() + " ms, budget " + p95Budget / 1_000_000));
+        }));
+    }
+
+    /**
+     * Reads first, then writes, so the writes do not change what the reads return
+     */
+    private List<RequestBudget> budgets() {
+        return List.of(
+                RequestBudget.of("GET /api/products/{id}", () -> get("/api/products/{id}", laptop.getId()))
+                        .before(productCache::evictAll)
+                        .statements(1).allocatedKb(512).p95Millis(50),
+                RequestBudget.of("GET /api/products/{id} cached", () -> get("/api/products/{id}", laptop.getId()))
+                        .statements(0).allocatedKb(256).p95Millis(20),
+                RequestBudget.of("GET /api/products/sku/{sku}", () -> get("/api/products/sku/{sku}", "LAP-1"))
+                        .before(productCache::evictAll)
+                        .statements(1).allocatedKb(512).p95Millis(50),
+                RequestBudget.of("POST /api/products/_mget", () -> post("/api/products/_mget")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"skus\": [\"SKU-1\", \"SKU-2\", \"SKU-3\", \"NOPE\"]}"))
+                        .before(productCache::evictAll)
+                        .statements(1).allocatedKb(768).p95Millis(50),
+                RequestBudget.of("GET /api/products", () -> get("/api/products"))
+                        .statements(1).allocatedKb(2048).p95Millis(100),
+                // Streamed row by row from one query
+                RequestBudget.of("GET /api/products/export", () -> get("/api/products/export"))
+                        .statements(1).allocatedKb(2048).p95Millis(100),
+                RequestBudget.of("GET /api/products/page", () -> get("/api/products/page").param("size", "20"))
+                        .statements(2).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/products/category/{id}",
+                                () -> get("/api/products/category/{id}", electronics.getId()))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                // Answered by the in-memory prefix index
+                RequestBudget.of("GET /api/products/suggest",
+                                () -> get("/api/products/suggest").param("q", "prod").param("limit", "10"))
+                        .statements(0).allocatedKb(256).p95Millis(20),
+                RequestBudget.of("GET /api/products/search",
+                                () -> get("/api/products/search").param("name", "product 1"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                // Ranked by the in-memory BM25 index; only the page's rows are loaded
+                RequestBudget.of("GET /api/products/search/text",
+                                () -> get("/api/products/search/text").param("q", "product 1").param("size", "20"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/products/brand/{brand}", () -> get("/api/products/brand/{brand}", "Acme"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/products/active", () -> get("/api/products/active"))
+                        .statements(1).allocatedKb(2048).p95Millis(100),
+                RequestBudget.of("GET /api/products/price",
+                                () -> get("/api/products/price").param("min", "50").param("max", "150"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/products/filter",
+                                () -> get("/api/products/filter").param("brand", "Acme").param("size", "20"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/products/filter/facets",
+                                () -> get("/api/products/filter/facets").param("brand", "Acme").param("size", "20"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("POST /api/products", () -> post("/api/products")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(productJson("NEW-" + sequence.incrementAndGet())))
+                        .status(201)
+                        .statements(1).allocatedKb(1024).p95Millis(100),
+                RequestBudget.of("PUT /api/products/{id}", () -> put("/api/products/{id}", laptop.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(productJson("LAP-1")))
+                        .statements(2).allocatedKb(1024).p95Millis(100),
+                RequestBudget.of("PATCH /api/products/{id}", () -> patch("/api/products/{id}", laptop.getId())
+                                .contentType(MergePatch.MEDIA_TYPE)
+                                .header(HttpHeaders.IF_MATCH, currentVersion(laptop.getId()))
+                                .content("{\"stockQuantity\": 7}"))
+                        .status(204)
+                        .statements(1).allocatedKb(768).p95Millis(100),
+                // The conditional stock decrement, then the reservation row
+                RequestBudget.of("POST /api/inventory/reservations", () -> post("/api/inventory/reservations")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"productId\": " + cable.getId() + ", \"quantity\": 1}"))
+                        .status(201)
+                        .statements(2).allocatedKb(768).p95Millis(100),
+                RequestBudget.of("GET /api/inventory/reservations/{id}",
+                                () -> get("/api/inventory/reservations/{id}", reservationId.get()))
+                        .before(this::reserveCable)
+                        .statements(1).allocatedKb(512).p95Millis(50),
+                RequestBudget.of("POST /api/inventory/reservations/{id}/commit",
+                                () -> post("/api/inventory/reservations/{id}/commit", reservationId.get()))
+                        .before(this::reserveCable)
+                        .status(204)
+                        .statements(1).allocatedKb(512).p95Millis(100),
+                // The reservation, its status change, then the stock it puts back
+                RequestBudget.of("POST /api/inventory/reservations/{id}/release",
+                                () -> post("/api/inventory/reservations/{id}/release", reservationId.get()))
+                        .before(this::reserveCable)
+                        .status(204)
+                        .statements(3).allocatedKb(512).p95Millis(100),
+                // existsById, then the find and the DELETE inside deleteById
+                RequestBudget.of("DELETE /api/products/{id}", () -> delete("/api/products/{id}", victimId.get()))
+                        .before(() -> victimId.set(productRepository.save(
+                                product("Victim", "DEL-" + sequence.incrementAndGet(), "Acme",
+                                        BigDecimal.ONE, null)).getId()))
+                        .status(204)
+                        .statements(3).allocatedKb(768).p95Millis(100),
+                // Category ids, the SKUs of the batch already taken, then one JDBC batch;
+                // the catalog reloads in the background
+                RequestBudget.of("POST /api/products/import", () -> post("/api/products/import")
+                                .contentType("text/csv")
+                                .content(importCsv(20)))
+                        .statements(3).allocatedKb(2048).p95Millis(200)
+        );
+    }
+
+    private void awaitStartupLoads() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!productCatalog.isReady() || !productSuggester.isReady() || !productSearchIndex.isReady()) {
+            assertTrue(System.currentTimeMillis() < deadline, "In-memory product indexes did not load");
+            Thread.sleep(20);
+        }
+    }
+
+    private void reserveCable() {
+        reservationId.set(inventoryService.reserve(cable.getId(), 1).orElseThrow().getId());
+    }
+
+    private String currentVersion(Long id) {
+        return "\"" + productRepository.findById(id).orElseThrow().getVersion() + "\"";
+    }
+
+    private String importCsv(int rows) {
+        StringBuilder csv = new StringBuilder("name,price,stockQuantity,sku,brand\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Imported ").append(i).append(",9.99,3,IMP-").append(sequence.incrementAndGet())
+                    .append(",Acme\n");
+        }
+        return csv.toString();
+    }
+
+    private static String productJson(String sku) {
+        return "{\"name\": \"Laptop\", \"description\": \"Budget test\", \"price\": 999.00,"
+                + " \"stockQuantity\": 10, \"sku\": \"" + sku + "\", \"brand\": \"Acme\", \"active\": true}";
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(String name, String sku, String brand, BigDecimal price, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setBrand(brand);
+        product.setPrice(price);
+        product.setStockQuantity(10);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.productservice.perf;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * What a request measured over the profiled runs
+ * Statements are the most any run issued; allocation is the median, p95 the 95th percentile
+ */
+@Value
+public class RequestProfile {
+
+    int statements;
+    long allocatedBytes;
+    Duration p95;
+
+    @Override
+    public String toString() {
+        return String.format("%d statements, %d KB allocated, p95 %.2f ms",
+                statements, allocatedBytes / 1024, p95.toNanos() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.productservice.perf;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Runs a request repeatedly through MockMvc and measures statements, allocation and latency
+ * MockMvc handles the request on the calling thread, so the per-thread statement count and
+ * allocated bytes cover the whole request; work handed to other threads is not counted, except
+ * async request processing such as a streamed export, which CountedAsyncSupport charges to the
+ * request thread. Such a request is completed with an async dispatch.
+ */
+public class RequestProfiler {
+
+    private static final int WARMUP_RUNS = 20;
+
+    private static final int MEASURED_RUNS = 50;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final MockMvc mockMvc;
+    private final StatementCountingListener statementCounter;
+
+    public RequestProfiler(MockMvc mockMvc, StatementCountingListener statementCounter) {
+        this.mockMvc = mockMvc;
+        this.statementCounter = statementCounter;
+    }
+
+    public RequestProfile profile(RequestBudget budget) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            budget.getBefore().run();
+            perform(budget, budget.getRequest().get());
+        }
+
+        int statements = 0;
+        long[] allocated = new long[MEASURED_RUNS];
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            budget.getBefore().run();
+            MockHttpServletRequestBuilder request = budget.getRequest().get();
+            statementCounter.reset();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            perform(budget, request);
+            nanos[i] = System.nanoTime() - start;
+            allocated[i] = allocatedBytes() - allocatedBefore;
+            statements = Math.max(statements, statementCounter.count());
+        }
+
+        Arrays.sort(allocated);
+        Arrays.sort(nanos);
+        return new RequestProfile(statements, allocated[MEASURED_RUNS / 2],
+                Duration.ofNanos(nanos[(int) Math.ceil(MEASURED_RUNS * 0.95) - 1]));
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes() + CountedAsyncSupport.asyncAllocatedBytes();
+    }
+
+    private void perform(RequestBudget budget, MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        if (result.getResponse().getStatus() != budget.getStatus()) {
+            fail(budget.getName() + " answered " + result.getResponse().getStatus() + ": "
+                    + result.getResponse().getContentAsString());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.productservice.routing;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routes reads between the primary and a second H2 database standing in for a replica
+ * Each database holds a differently named product, so the response shows which one answered.
+ */
+@SpringBootTest(properties = {
+        "product.read-replicas.enabled=true",
+        "product.read-replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "product.read-replicas.max-lag-ms=1000",
+        "product.read-replicas.lag-query=SELECT lag_ms FROM replica_status",
+        "product.read-replicas.lag-check-interval-ms=3600000",
+        "product.catalog.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:productreplica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("replica-schema.sql")).execute(replica.getDataSource());
+        replica.update("DELETE FROM products");
+        replica.update("DELETE FROM replica_status");
+        replica.update("INSERT INTO replica_status (lag_ms) VALUES (0)");
+        replica.update("INSERT INTO products (name, price, stock_quantity, sku, brand, active, version)"
+                + " VALUES ('From replica', 10.00, 1, 'REP-1', 'Acme', TRUE, 0)");
+
+        productRepository.deleteAll();
+        productRepository.save(product("From primary", "PRI-1"));
+
+        replicaRouter.checkLag();
+    }
+
+    @Test
+    void readOnlyRequest_ReadsReplica() throws Exception {
+        mockMvc.perform(get("/api/products/brand/{brand}", "Acme"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("From replica")))
+                .andExpect(content().string(not(containsString("From primary"))));
+    }
+
+    @Test
+    void laggingReplica_ReadsPrimary() throws Exception {
+        replica.update("UPDATE replica_status SET lag_ms = 5000");
+        replicaRouter.checkLag();
+
+        mockMvc.perform(get("/api/products/brand/{brand}", "Acme"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("From primary")));
+    }
+
+    @Test
+    void write_PinsClientToPrimaryForItsWindow() throws Exception {
+        Cookie window = mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Written\", \"price\": 5.00, \"stockQuantity\": 1,"
+                                + " \"sku\": \"NEW-1\", \"brand\": \"Acme\", \"active\": true}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(window);
+
+        mockMvc.perform(get("/api/products/brand/{brand}", "Acme").cookie(window))
+                .andExpect(content().string(containsString("Written")));
+        // Another client has no window and still reads the replica, which never received the write
+        mockMvc.perform(get("/api/products/brand/{brand}", "Acme"))
+                .andExpect(content().string(not(containsString("Written"))));
+    }
+
+    private static Product product(String name, String sku) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setBrand("Acme");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStockQuantity(1);
+        return product;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.productservice.search;
+
+import com.example.productservice.dto.ProductFilter;
+import com.example.productservice.dto.ProductSearchView;
+import com.example.productservice.model.Category;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProductSearchIndex
+ */
+class ProductSearchIndexTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null);
+        index.rebuild(Stream.of(
+                row(1L, "Running Shoes", "Light shoes for road running", "Stride", 10L, "89.90", true),
+                row(2L, "Trail Shoe", "Grippy sole", "Stride", 10L, "119.00", true),
+                row(3L, "Shoe Rack", "Holds ten pairs of running shoes", "HomeCo", 20L, "35.00", true),
+                row(4L, "Wireless Headphones", "Noise cancelling", "Sonic", 30L, "199.99", false)
+        ));
+    }
+
+    @Test
+    void analyze_StemsAndDropsStopWords() {
+        assertEquals(List.of("run", "shoe", "box"), TextAnalyzer.analyze("Running the Shoes, in BOXES"));
+        assertEquals(List.of("cafe", "battery"), TextAnalyzer.analyze("Café batteries"));
+    }
+
+    @Test
+    void search_RanksNameMatchesFirst() {
+        ProductSearchIndex.Result result = index.search("running shoes", new ProductFilter(), 0, 10);
+
+        assertEquals(List.of(1L, 3L), result.getIds());
+        assertEquals(2, result.getTotal());
+    }
+
+    @Test
+    void search_RequiresEveryTerm() {
+        assertEquals(List.of(2L), index.search("shoe grippy", new ProductFilter(), 0, 10).getIds());
+        assertTrue(index.search("shoe headphones", new ProductFilter(), 0, 10).getIds().isEmpty());
+        assertTrue(index.search("the", new ProductFilter(), 0, 10).getIds().isEmpty());
+    }
+
+    @Test
+    void search_AppliesFiltersAndPages() {
+        ProductFilter filter = ProductFilter.builder().categoryId(10L).maxPrice(new BigDecimal("100")).build();
+        assertEquals(List.of(1L), index.search("shoes", filter, 0, 10).getIds());
+        assertTrue(index.search("headphones", ProductFilter.builder().active(true).build(), 0, 10)
+                .getIds().isEmpty());
+
+        ProductSearchIndex.Result page = index.search("shoe", new ProductFilter(), 1, 1);
+        assertEquals(1, page.getIds().size());
+        assertEquals(3, page.getTotal());
+    }
+
+    @Test
+    void upsertAndRemove_UpdateMatches() {
+        index.upsert(product(2L, "Trail Runner", "Grippy sole", "Stride", 10L, "119.00"));
+        index.remove(3L);
+
+        assertEquals(List.of(1L), index.search("shoe", new ProductFilter(), 0, 10).getIds());
+        assertEquals(List.of(2L), index.search("runner", new ProductFilter(), 0, 10).getIds());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void commit_ReopensAndReplaysChanges(@TempDir Path directory) {
+        ReflectionTestUtils.setField(index, "directory", directory.toString());
+        index.upsert(product(5L, "Canvas Shoe", "Everyday", "Stride", 10L, "49.00"));
+        index.commit();
+
+        // Changed while the service was down: product 1 renamed, product 3 deleted
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.streamSearchRowsUpdatedSince(any())).thenAnswer(invocation -> Stream.of(
+                row(1L, "Road Sneaker", "Light", "Stride", 10L, "89.90", true)));
+        when(repository.streamIds()).thenAnswer(invocation -> Stream.of(1L, 2L, 4L, 5L));
+        ProductSearchIndex reopened = new ProductSearchIndex(repository);
+        ReflectionTestUtils.setField(reopened, "directory", directory.toString());
+        reopened.onApplicationReady();
+
+        assertTrue(reopened.isReady());
+        assertEquals(List.of(5L, 2L), reopened.search("shoe", new ProductFilter(), 0, 10).getIds());
+        assertEquals(List.of(1L), reopened.search("sneaker", new ProductFilter(), 0, 10).getIds());
+        assertEquals(4, reopened.size());
+    }
+
+    private static ProductSearchView row(Long id, String name, String description, String brand, Long categoryId,
+                                         String price, boolean active) {
+        return new Row(id, name, description, brand, categoryId, new BigDecimal(price), active, CREATED);
+    }
+
+    private static Product product(Long id, String name, String description, String brand, Long categoryId,
+                                   String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setBrand(brand);
+        product.setPrice(new BigDecimal(price));
+        product.setActive(true);
+        product.setUpdatedAt(CREATED.plusHours(1));
+        Category category = new Category();
+        category.setId(categoryId);
+        product.setCategory(category);
+        return product;
+    }
+
+    private record Row(Long getId, String getName, String getDescription, String getBrand, Long getCategoryId,
+                       BigDecimal getPrice, Boolean getActive, LocalDateTime getUpdatedAt)
+            implements ProductSearchView {
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.productservice.slowquery;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With a zero threshold every statement is slow, so each one must be recorded with its
+ * endpoint, bind parameters and row count
+ * The in-memory indexes are off, so their background loads do not fill the log while the test runs.
+ */
+@SpringBootTest(properties = {
+        "product.slow-query.threshold-ms=0",
+        "product.catalog.enabled=false",
+        "product.suggest.enabled=false",
+        "product.search.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SlowQueryListenerTest {
+
+    private static final String ENDPOINT = "GET /api/products/{id} -> ProductController.getProductById";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Test
+    void select_RecordedWithEndpointParametersAndRows() throws Exception {
+        productCache.evictAll();
+        Product lamp = new Product();
+        lamp.setName("Lamp");
+        lamp.setSku("LMP-1");
+        lamp.setPrice(new BigDecimal("19.99"));
+        lamp.setStockQuantity(3);
+        Long id = productRepository.save(lamp).getId();
+        slowQueryLog.clear();
+
+        mockMvc.perform(get("/api/products/{id}", id)).andExpect(status().isOk());
+
+        SlowQuery query = slowQueryLog.top().stream()
+                .filter(recorded -> ENDPOINT.equals(recorded.getEndpoint()))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(query.getSql().toLowerCase().startsWith("select"));
+        assertEquals("[" + id + "]", query.getParameters());
+        assertEquals(1L, query.getRows());
+
+        mockMvc.perform(get("/actuator/slowqueries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.thresholdMs").value(0))
+                .andExpect(jsonPath("$.slowest[*].endpoint", hasItem(ENDPOINT)));
+    }
+}
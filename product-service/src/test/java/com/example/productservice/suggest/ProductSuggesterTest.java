@@ -0,0 +1,119 @@
+package com.example.productservice.suggest;
+
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProductSuggester
+ */
+class ProductSuggesterTest {
+
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new ProductSuggester(null);
+        suggester.rebuild(Stream.empty());
+        suggester.upsert(product(1L, "Laptop Pro 14", "P-14", true));
+        suggester.upsert(product(2L, "Laptop Air", "P-AIR", true));
+        suggester.upsert(product(3L, "Lamp", "LMP-1", true));
+        suggester.upsert(product(4L, "Crème Brûlée Torch", "TRC-1", true));
+        suggester.upsert(product(5L, "Lantern", "LNT-1", false));
+    }
+
+    @Test
+    void suggest_MatchesPrefixInKeyOrderWithoutViews() {
+        assertEquals(List.of(3L, 2L, 1L), ids("la", 10));
+        assertEquals(List.of(2L, 1L), ids("LAPTOP", 10));
+        assertEquals(List.of(3L), ids("la", 1));
+    }
+
+    @Test
+    void suggest_MatchesLaterWordsSkusAndAccents() {
+        assertEquals(List.of(1L), ids("pro", 10));
+        assertEquals(List.of(1L), ids("p-14", 10));
+        assertEquals(List.of(4L), ids("creme bru", 10));
+        assertEquals(List.of(4L), ids("brulee", 10));
+    }
+
+    @Test
+    void suggest_SkipsInactiveAndUnknownPrefixes() {
+        assertTrue(ids("lant", 10).isEmpty());
+        assertTrue(ids("xyz", 10).isEmpty());
+        assertTrue(ids("  ", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_RanksByViewsOnceFlushed() {
+        suggester.recordView(1L);
+        suggester.recordView(1L);
+        suggester.recordView(2L);
+        assertEquals(List.of(3L, 2L, 1L), ids("la", 10));
+
+        suggester.applyViews();
+
+        assertEquals(List.of(1L, 2L, 3L), ids("la", 10));
+        assertEquals(List.of(1L), ids("la", 1));
+    }
+
+    @Test
+    void upsertAndRemove_KeepIndexCurrent() {
+        suggester.recordView(2L);
+        suggester.applyViews();
+        suggester.upsert(product(2L, "Notebook Air", "P-AIR", true));
+        suggester.remove(3L);
+
+        assertEquals(List.of(1L), ids("la", 10));
+        assertEquals(List.of(2L), ids("note", 10));
+        // The renamed product keeps its view
+        assertEquals(List.of(2L, 1L), ids("p", 10));
+
+        suggester.upsert(product(1L, "Laptop Pro 14", "P-14", false));
+        assertEquals(List.of(2L), ids("p", 10));
+        // Products 2 and 4 are still active
+        assertEquals(2, suggester.size());
+    }
+
+    @Test
+    void upsert_InactiveRemovesEveryKeyOfTheProduct() {
+        suggester.upsert(product(1L, "Laptop Pro 14", "P-14", false));
+
+        assertEquals(List.of(2L), ids("laptop", 10));
+        assertTrue(ids("pro", 10).isEmpty());
+        assertTrue(ids("14", 10).isEmpty());
+        assertTrue(ids("p-14", 10).isEmpty());
+        assertEquals(3, suggester.size());
+    }
+
+    @Test
+    void prefixTree_SplitsAndMergesEdges() {
+        PrefixTree.Entry tea = new PrefixTree.Entry(1L, "Tea", null, 0);
+        PrefixTree.Entry team = new PrefixTree.Entry(2L, "Team", null, 5);
+        PrefixTree tree = PrefixTree.EMPTY.put("team", team).put("tea", tea);
+
+        assertEquals(List.of(team, tea), tree.top("te", 10));
+        assertEquals(List.of(team), tree.remove("tea", 1L).top("t", 10));
+        assertEquals(List.of(tea), tree.remove("team", 2L).top("tea", 10));
+        assertTrue(tree.remove("team", 2L).top("team", 10).isEmpty());
+    }
+
+    private List<Long> ids(String prefix, int limit) {
+        return suggester.suggest(prefix, limit).stream().map(ProductSuggestion::getId).toList();
+    }
+
+    private static Product product(Long id, String name, String sku, boolean active) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setSku(sku);
+        product.setActive(active);
+        return product;
+    }
+}
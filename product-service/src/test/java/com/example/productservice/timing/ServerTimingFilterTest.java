@@ -0,0 +1,80 @@
+package com.example.productservice.timing;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the Server-Timing header on JSON, cached and bodiless responses
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ServerTimingFilterTest {
+
+    private static final String HEADER_PATTERN = "pool;dur=\\d+\\.\\d{3}, db;dur=\\d+\\.\\d{3};desc=\"\\d+ quer(y|ies)\", "
+            + "orm;dur=\\d+\\.\\d{3}, ser;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        productCache.evictAll();
+        Product lamp = new Product();
+        lamp.setName("Lamp");
+        lamp.setSku("LMP-1");
+        lamp.setPrice(new BigDecimal("19.99"));
+        lamp.setStockQuantity(3);
+        product = productRepository.save(lamp);
+    }
+
+    @Test
+    void getProductById_ReportsQueryThenCacheHit() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTiming.HEADER, matchesPattern(HEADER_PATTERN)))
+                .andExpect(header().string(ServerTiming.HEADER, containsString("desc=\"1 query\"")));
+
+        mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTiming.HEADER, containsString("desc=\"0 queries\"")));
+    }
+
+    @Test
+    void bodilessResponse_StillCarriesHeader() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", -1L))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(ServerTiming.HEADER, matchesPattern(HEADER_PATTERN)));
+    }
+
+    @Test
+    void actuator_NotTimed() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(header().doesNotExist(ServerTiming.HEADER));
+    }
+}
@@ -0,0 +1,30 @@
+-- Stands in for a streaming replica of the products tables in ReplicaRoutingTest
+CREATE TABLE IF NOT EXISTS categories (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(500),
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    price NUMERIC(38, 2) NOT NULL,
+    stock_quantity INTEGER NOT NULL,
+    sku VARCHAR(50),
+    brand VARCHAR(50),
+    category_id BIGINT REFERENCES categories (id),
+    image_url VARCHAR(255),
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+-- Answers the lag query the test configures in place of the PostgreSQL one
+CREATE TABLE IF NOT EXISTS replica_status (
+    lag_ms BIGINT
+);
@@ -0,0 +1,52 @@
+package com.example.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Bounded pool of canonical strings for low-cardinality column values such as city, state and country
+ * Equal values hydrated from different rows resolve to one String instance, so a result list or a
+ * cache of entities holds each distinct value once. Past the bound the least used values are evicted
+ * and new copies simply stay unshared; hits, misses, size and evictions are exported as strings.interned.
+ */
+@Component
+public class StringInterner implements MeterBinder {
+
+    private final boolean enabled;
+    private final Cache<String, String> pool;
+
+    public StringInterner(@Value("${user.intern.enabled:true}") boolean enabled,
+                          @Value("${user.intern.maximum-size:10000}") long maximumSize) {
+        this.enabled = enabled;
+        this.pool = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The pooled instance equal to the value, or the value itself if it is null or interning is off
+     */
+    public String intern(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+        return pool.get(value, Function.identity());
+    }
+
+    public long size() {
+        return pool.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pool, "strings.interned");
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.lookup.UserKeyIndex;
+import com.example.userservice.model.UserProfile;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of user profiles, reachable by id, userId and email
+ * Profiles are stored once by id; userId and email resolve to the id through the off-heap
+ * UserKeyIndex and are verified against the profile on every hit. A resolved id that is not
+ * cached is loaded by primary key, so a secondary-key query only runs for keys the index does
+ * not know or that lead to a profile which no longer carries them; such keys are dropped.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, UserProfile> byId;
+    private final UserKeyIndex userKeyIndex;
+
+    public UserCache(@Value("${user.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+                     UserKeyIndex userKeyIndex, MeterRegistry meterRegistry) {
+        this.byId = newCache(maximumSize, expireAfterWriteSeconds);
+        this.userKeyIndex = userKeyIndex;
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+    }
+
+    public Optional<UserProfile> getById(Long id, Function<Long, Optional<UserProfile>> loader) {
+        UserProfile cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(() -> loader.apply(id));
+    }
+
+    /**
+     * Look up a profile by userId; an id resolved through the index is loaded by primary key,
+     * and only an unknown or stale userId falls back to the userId query
+     */
+    public Optional<UserProfile> getByUserId(Long userId, Function<Long, Optional<UserProfile>> idLoader,
+                                             Function<Long, Optional<UserProfile>> loader) {
+        long id = userKeyIndex.idOfUserId(userId);
+        if (id != UserKeyIndex.NOT_FOUND) {
+            UserProfile resolved = viaSecondaryKey(id, idLoader);
+            if (resolved != null && Objects.equals(resolved.getUserId(), userId)) {
+                return Optional.of(resolved);
+            }
+            userKeyIndex.removeUserId(userId, id);
+        }
+        return load(() -> loader.apply(userId));
+    }
+
+    /**
+     * Look up a profile by email; an id resolved through the index is loaded by primary key,
+     * and only an unknown or stale email falls back to the email query
+     */
+    public Optional<UserProfile> getByEmail(String email, Function<Long, Optional<UserProfile>> idLoader,
+                                            Function<String, Optional<UserProfile>> loader) {
+        long id = userKeyIndex.idOfEmail(email);
+        if (id != UserKeyIndex.NOT_FOUND) {
+            UserProfile resolved = viaSecondaryKey(id, idLoader);
+            if (resolved != null && Objects.equals(resolved.getEmail(), email)) {
+                return Optional.of(resolved);
+            }
+            userKeyIndex.removeEmail(email, id);
+        }
+        return load(() -> loader.apply(email));
+    }
+
+    /**
+     * Look up many profiles by id, loading all misses with a single call to the loader
+     */
+    public Map<Long, UserProfile> getAllById(Collection<Long> ids, Function<List<Long>, List<UserProfile>> loader) {
+        return getAll(ids, byId::getIfPresent, UserProfile::getId, loader);
+    }
+
+    /**
+     * Look up many profiles by userId, loading all misses with a single call to the loader
+     */
+    public Map<Long, UserProfile> getAllByUserId(Collection<Long> userIds,
+                                                 Function<List<Long>, List<UserProfile>> loader) {
+        return getAll(userIds, userId -> {
+            UserProfile cached = viaSecondaryKey(userKeyIndex.idOfUserId(userId));
+            return cached != null && Objects.equals(cached.getUserId(), userId) ? cached : null;
+        }, UserProfile::getUserId, loader);
+    }
+
+    /**
+     * Cache a loaded profile; its keys are also recorded in the index, which picks up rows
+     * written by other instances this way
+     */
+    /**
+     * Cache a profile unless a newer version of it is already cached, e.g. by a read that started after a write
+     */
+    public void put(UserProfile userProfile) {
+        UserProfile cached = byId.asMap().merge(userProfile.getId(), userProfile, UserCache::newer);
+        if (cached == userProfile) {
+            userKeyIndex.put(userProfile.getId(), userProfile.getUserId(), userProfile.getEmail());
+        }
+    }
+
+    /**
+     * Drop a profile; its keys stay in the index and are verified on the next lookup
+     */
+    public void evict(Long id) {
+        byId.invalidate(id);
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+    }
+
+    private UserProfile viaSecondaryKey(long id) {
+        return id == UserKeyIndex.NOT_FOUND ? null : byId.getIfPresent(id);
+    }
+
+    /**
+     * The profile an index mapping leads to, from the cache or else by primary key; null if it is gone
+     */
+    private UserProfile viaSecondaryKey(long id, Function<Long, Optional<UserProfile>> idLoader) {
+        UserProfile cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        return load(() -> idLoader.apply(id)).orElse(null);
+    }
+
+    private <K> Map<K, UserProfile> getAll(Collection<K> keys, Function<K, UserProfile> cachedLookup,
+                                           Function<UserProfile, K> keyOf,
+                                           Function<List<K>, List<UserProfile>> loader) {
+        Map<K, UserProfile> found = new HashMap<>();
+        List<K> misses = new ArrayList<>();
+        for (K key : keys) {
+            UserProfile cached = cachedLookup.apply(key);
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (UserProfile loaded : loader.apply(misses)) {
+                put(loaded);
+                found.put(keyOf.apply(loaded), loaded);
+            }
+        }
+        return found;
+    }
+
+    private Optional<UserProfile> load(Supplier<Optional<UserProfile>> loader) {
+        Optional<UserProfile> loaded = loader.get();
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    private static UserProfile newer(UserProfile cached, UserProfile loaded) {
+        if (cached.getVersion() == null || loaded.getVersion() == null) {
+            return loaded;
+        }
+        return loaded.getVersion() >= cached.getVersion() ? loaded : cached;
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, long expireAfterWriteSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+    }
+}
@@ -48,7 +48,8 @@ public class CorsConfig {
         corsConfiguration.setExposedHeaders(Arrays.asList(
             "Authorization",
             "Content-Type",
-            "X-Total-Count"
+            "X-Total-Count",
+            "Server-Timing"
         ));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,22 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics Configuration
+ * Enables @Timed on service beans; repository, Hikari and Hibernate metrics are auto-configured
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Record a timer per call of every @Timed method, tagged with class, method and exception
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
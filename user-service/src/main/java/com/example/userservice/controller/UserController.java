@@ -1,16 +1,22 @@
 package com.example.userservice.controller;
 
-import com.example.userservice.dto.UserDTO;
+import com.example.userservice.dto.BatchLookupResult;
+import com.example.userservice.dto.UserFeedPage;
+import com.example.userservice.io.DataFormat;
 import com.example.userservice.model.UserProfile;
+import com.example.userservice.patch.MergePatch;
 import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -33,8 +39,8 @@ public class UserController {
      */
     @PostMapping
     @Operation(summary = "Create new user", description = "Creates a new user profile")
-    public ResponseEntity<UserProfile> createUser(@Valid @RequestBody UserDTO userDTO) {
-        UserProfile createdUser = userService.createUser(userDTO);
+    public ResponseEntity<UserProfile> createUser(@Valid @RequestBody UserProfile userProfile) {
+        UserProfile createdUser = userService.save(userProfile);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
     }
 
@@ -44,8 +50,9 @@ public class UserController {
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Retrieves a user profile by ID")
     public ResponseEntity<UserProfile> getUserById(@PathVariable Long id) {
-        UserProfile user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return userService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
@@ -54,8 +61,9 @@ public class UserController {
     @GetMapping("/email/{email}")
     @Operation(summary = "Get user by email", description = "Retrieves a user profile by email address")
     public ResponseEntity<UserProfile> getUserByEmail(@PathVariable String email) {
-        UserProfile user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(user);
+        return userService.findByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
@@ -64,119 +72,119 @@ public class UserController {
     @GetMapping
     @Operation(summary = "Get all users", description = "Retrieves all user profiles")
     public ResponseEntity<List<UserProfile>> getAllUsers() {
-        List<UserProfile> users = userService.getAllUsers();
+        List<UserProfile> users = userService.findAll();
         return ResponseEntity.ok(users);
     }
 
     /**
-     * Get users with pagination
+     * Get many users by ID
      */
-    @GetMapping("/page")
-    @Operation(summary = "Get users with pagination", description = "Retrieves users with pagination support")
-    public ResponseEntity<Page<UserProfile>> getUsersPage(Pageable pageable) {
-        Page<UserProfile> usersPage = userService.getUsersPage(pageable);
-        return ResponseEntity.ok(usersPage);
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get users by IDs", description = "Retrieves user profiles by ID in one round trip; results follow request order and misses are listed")
+    public ResponseEntity<BatchLookupResult<Long, UserProfile>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.findAllById(ids));
     }
 
     /**
-     * Update user
+     * Get many users by userId
      */
-    @PutMapping("/{id}")
-    @Operation(summary = "Update user", description = "Updates an existing user profile")
-    public ResponseEntity<UserProfile> updateUser(
-            @PathVariable Long id,
-            @Valid @RequestBody UserDTO userDTO) {
-        UserProfile updatedUser = userService.updateUser(id, userDTO);
-        return ResponseEntity.ok(updatedUser);
+    @GetMapping(params = "userIds")
+    @Operation(summary = "Get users by userIds", description = "Retrieves user profiles by userId in one round trip; results follow request order and misses are listed")
+    public ResponseEntity<BatchLookupResult<Long, UserProfile>> getUsersByUserIds(@RequestParam List<Long> userIds) {
+        return ResponseEntity.ok(userService.findAllByUserId(userIds));
     }
 
     /**
-     * Delete user
+     * Export all users as a stream
      */
-    @DeleteMapping("/{id}")
-    @Operation(summary = "Delete user", description = "Deletes a user profile")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+    @GetMapping("/export")
+    @Operation(summary = "Export users", description = "Streams all user profiles as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        DataFormat dataFormat = DataFormat.fromParam(format);
+        StreamingResponseBody body = out -> userService.exportAll(dataFormat, out);
+        return ResponseEntity.ok()
+                .contentType(dataFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + dataFormat.getExtension())
+                .body(body);
     }
 
     /**
-     * Activate user account
+     * Get users with pagination
      */
-    @PatchMapping("/{id}/activate")
-    @Operation(summary = "Activate user", description = "Activates a user account")
-    public ResponseEntity<UserProfile> activateUser(@PathVariable Long id) {
-        UserProfile user = userService.activateUser(id);
-        return ResponseEntity.ok(user);
+    @GetMapping("/page")
+    @Operation(summary = "Get users with pagination", description = "Retrieves users with pagination support")
+    public ResponseEntity<Page<UserProfile>> getUsersPage(Pageable pageable) {
+        Page<UserProfile> usersPage = userService.findAll(pageable);
+        return ResponseEntity.ok(usersPage);
     }
 
     /**
-     * Deactivate user account
+     * Get users feed with keyset pagination
      */
-    @PatchMapping("/{id}/deactivate")
-    @Operation(summary = "Deactivate user", description = "Deactivates a user account")
-    public ResponseEntity<UserProfile> deactivateUser(@PathVariable Long id) {
-        UserProfile user = userService.deactivateUser(id);
-        return ResponseEntity.ok(user);
+    @GetMapping("/feed")
+    @Operation(summary = "Get users feed", description = "Retrieves users newest first, continuing after an opaque cursor")
+    public ResponseEntity<UserFeedPage> getUsersFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        UserFeedPage feedPage = userService.getFeed(cursor, size);
+        return ResponseEntity.ok(feedPage);
     }
 
     /**
-     * Search users by first name
+     * Update user
      */
-    @GetMapping("/search/firstname")
-    @Operation(summary = "Search by first name", description = "Searches users by first name")
-    public ResponseEntity<List<UserProfile>> searchByFirstName(@RequestParam String firstName) {
-        List<UserProfile> users = userService.searchByFirstName(firstName);
-        return ResponseEntity.ok(users);
+    @PutMapping("/{id}")
+    @Operation(summary = "Update user", description = "Updates an existing user profile")
+    public ResponseEntity<UserProfile> updateUser(
+            @PathVariable Long id,
+            @RequestBody UserProfile userProfile) {
+        UserProfile updatedUser = userService.update(id, userProfile);
+        return ResponseEntity.ok(updatedUser);
     }
 
     /**
-     * Search users by last name
+     * Partially update user
      */
-    @GetMapping("/search/lastname")
-    @Operation(summary = "Search by last name", description = "Searches users by last name")
-    public ResponseEntity<List<UserProfile>> searchByLastName(@RequestParam String lastName) {
-        List<UserProfile> users = userService.searchByLastName(lastName);
-        return ResponseEntity.ok(users);
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @Operation(summary = "Patch user", description = "Applies a JSON Merge Patch; If-Match must carry the current version")
+    public ResponseEntity<Void> patchUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        long version = userService.patch(id, parseVersion(ifMatch), patch);
+        return ResponseEntity.noContent().eTag(Long.toString(version)).build();
     }
 
     /**
-     * Get active users
+     * Delete user
      */
-    @GetMapping("/active")
-    @Operation(summary = "Get active users", description = "Retrieves all active users")
-    public ResponseEntity<List<UserProfile>> getActiveUsers() {
-        List<UserProfile> users = userService.getActiveUsers();
-        return ResponseEntity.ok(users);
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete user", description = "Deletes a user profile")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+        userService.deleteById(id);
+        return ResponseEntity.noContent().build();
     }
 
     /**
-     * Get users by role
+     * Search users by name
      */
-    @GetMapping("/role/{role}")
-    @Operation(summary = "Get users by role", description = "Retrieves users by role")
-    public ResponseEntity<List<UserProfile>> getUsersByRole(@PathVariable String role) {
-        List<UserProfile> users = userService.getUsersByRole(role);
+    @GetMapping("/search")
+    @Operation(summary = "Search users", description = "Searches users by first or last name")
+    public ResponseEntity<List<UserProfile>> searchUsers(@RequestParam String name) {
+        List<UserProfile> users = userService.searchByName(name);
         return ResponseEntity.ok(users);
     }
 
-    /**
-     * Count total users
-     */
-    @GetMapping("/count")
-    @Operation(summary = "Count users", description = "Returns total number of users")
-    public ResponseEntity<Long> countUsers() {
-        Long count = userService.countUsers();
-        return ResponseEntity.ok(count);
-    }
-
     /**
      * Check if email exists
      */
     @GetMapping("/exists/email/{email}")
     @Operation(summary = "Check email exists", description = "Checks if email already exists")
     public ResponseEntity<Boolean> emailExists(@PathVariable String email) {
-        Boolean exists = userService.emailExists(email);
+        boolean exists = userService.existsByEmail(email);
         return ResponseEntity.ok(exists);
     }
 
@@ -188,4 +196,19 @@ public class UserController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("User Service is running");
     }
+
+    /**
+     * Read the version from an If-Match entity tag such as "3" or W/"3"
+     */
+    private static long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match must carry a version, got " + ifMatch);
+        }
+    }
 }
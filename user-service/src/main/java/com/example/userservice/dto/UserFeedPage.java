@@ -0,0 +1,26 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.model.UserProfile;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the user feed, newest first
+ * nextCursor is null once the end of the feed is reached
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFeedPage {
+
+    private List<UserProfile> items;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,14 @@
+package com.example.userservice.dto;
+
+/**
+ * Projection of the unique keys of a user profile
+ * Used to seed in-memory lookup structures without hydrating full entities
+ */
+public interface UserKeyView {
+
+    Long getId();
+
+    Long getUserId();
+
+    String getEmail();
+}
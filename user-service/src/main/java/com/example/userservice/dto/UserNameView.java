@@ -0,0 +1,14 @@
+package com.example.userservice.dto;
+
+/**
+ * Projection of the name columns of a user profile
+ * Used to seed in-memory indexes without hydrating full entities
+ */
+public interface UserNameView {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+}
@@ -0,0 +1,44 @@
+package com.example.userservice.io;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Line-oriented formats used for bulk data transfer
+ */
+public enum DataFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    DataFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolve a format from a request parameter such as "ndjson" or "csv"
+     */
+    public static DataFormat fromParam(String value) {
+        if (value != null) {
+            for (DataFormat format : values()) {
+                if (format.extension.equals(value.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + value);
+    }
+}
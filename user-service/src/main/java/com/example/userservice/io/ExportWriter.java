@@ -0,0 +1,116 @@
+package com.example.userservice.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes rows one at a time as NDJSON or CSV straight to an output stream
+ * Nothing is buffered beyond a fixed-size write buffer, so memory use does not grow with row count
+ */
+public class ExportWriter<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final DataFormat format;
+    private final ExportColumns<T> columns;
+    private final Writer writer;
+    private final JsonGenerator generator;
+    private long rows;
+
+    public ExportWriter(DataFormat format, ExportColumns<T> columns, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == DataFormat.NDJSON) {
+            this.generator = objectMapper.createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are terminated explicitly with a newline instead of Jackson's space separator
+            this.generator.setRootValueSeparator(null);
+        } else {
+            this.generator = null;
+            writeCsvLine(columns.getNames().toArray());
+        }
+    }
+
+    public void write(T row) throws IOException {
+        if (format == DataFormat.NDJSON) {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.getNames().get(i));
+                generator.writeObject(columns.value(row, i));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } else {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns.value(row, i);
+            }
+            writeCsvLine(values);
+        }
+
+        // Flush the first row immediately so the client gets its first byte early
+        if (++rows == 1 || rows % FLUSH_EVERY_ROWS == 0) {
+            flush();
+        }
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    public void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Flushes remaining output; the underlying stream is left open for the caller
+     */
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.userservice.lookup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash table from 64-bit keys to non-zero 64-bit values, held in a direct buffer
+ * Each slot is 16 bytes, key then value, and a zero value marks an empty slot, so the table adds
+ * nothing to the Java heap beyond this object. Keys must already be well-mixed hashes: the low bits
+ * pick the slot and collisions probe linearly. Removal shifts the following run back instead of
+ * leaving tombstones. Reads are optimistic and only take the read lock if a write overlapped them.
+ */
+final class OffHeapLongIndex {
+
+    static final long NO_VALUE = 0;
+
+    private static final int SLOT_BYTES = 16;
+    /** A direct buffer holds at most 2 GB */
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table;
+    private volatile int size;
+
+    OffHeapLongIndex(int expectedEntries) {
+        this.table = new Table(capacityFor(expectedEntries));
+    }
+
+    long get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = table.find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = table.find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    void put(long key, long value) {
+        if (value == NO_VALUE) {
+            throw new IllegalArgumentException("Value must not be " + NO_VALUE);
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (table.put(key, value)) {
+                size++;
+                if (size > table.capacity() / 4 * 3) {
+                    table = table.resized(table.capacity() * 2);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove the key only if it still maps to the given value, so a stale removal cannot drop a newer mapping
+     */
+    boolean remove(long key, long expectedValue) {
+        long stamp = lock.writeLock();
+        try {
+            if (table.remove(key, expectedValue)) {
+                size--;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return (long) table.capacity() * SLOT_BYTES;
+    }
+
+    private static int capacityFor(int expectedEntries) {
+        long wanted = Math.max(16, (long) Math.ceil(expectedEntries / 0.75));
+        if (wanted > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many entries for one index: " + expectedEntries);
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private static final class Table {
+
+        private final ByteBuffer slots;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        /**
+         * Bounded by the capacity, since an optimistic read may probe a table that is being rewritten
+         */
+        private long find(long key) {
+            int slot = (int) key & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long value = value(slot);
+                if (value == NO_VALUE) {
+                    return NO_VALUE;
+                }
+                if (key(slot) == key) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NO_VALUE;
+        }
+
+        /**
+         * @return whether the key was added rather than replaced
+         */
+        private boolean put(long key, long value) {
+            int slot = (int) key & mask;
+            while (value(slot) != NO_VALUE) {
+                if (key(slot) == key) {
+                    slots.putLong(slot * SLOT_BYTES + 8, value);
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots.putLong(slot * SLOT_BYTES, key);
+            slots.putLong(slot * SLOT_BYTES + 8, value);
+            return true;
+        }
+
+        private boolean remove(long key, long expectedValue) {
+            int slot = (int) key & mask;
+            while (true) {
+                long value = value(slot);
+                if (value == NO_VALUE) {
+                    return false;
+                }
+                if (key(slot) == key) {
+                    if (value != expectedValue) {
+                        return false;
+                    }
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Move back every following entry whose home slot is not between the hole and where it sits
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (value(next) != NO_VALUE) {
+                int home = (int) key(next) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots.putLong(hole * SLOT_BYTES, key(next));
+                    slots.putLong(hole * SLOT_BYTES + 8, value(next));
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            slots.putLong(hole * SLOT_BYTES, 0);
+            slots.putLong(hole * SLOT_BYTES + 8, NO_VALUE);
+            return true;
+        }
+
+        private Table resized(int capacity) {
+            if (capacity > MAX_CAPACITY) {
+                throw new IllegalStateException("Index is full at " + capacity() + " slots");
+            }
+            Table resized = new Table(capacity);
+            for (int slot = 0; slot <= mask; slot++) {
+                long value = value(slot);
+                if (value != NO_VALUE) {
+                    resized.put(key(slot), value);
+                }
+            }
+            return resized;
+        }
+
+        private long key(int slot) {
+            return slots.getLong(slot * SLOT_BYTES);
+        }
+
+        private long value(int slot) {
+            return slots.getLong(slot * SLOT_BYTES + 8);
+        }
+    }
+}
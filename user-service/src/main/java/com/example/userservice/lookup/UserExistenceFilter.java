@@ -0,0 +1,193 @@
+package com.example.userservice.lookup;
+
+import com.example.userservice.dto.UserKeyView;
+import com.example.userservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters over the userIds and emails present in user_profiles
+ * Lets existence checks answer definite negatives without a database round trip.
+ * Keys are added before they are inserted, so the filters never miss a committed row;
+ * deleted keys stay in the filters until the next rebuild and only cost a database check.
+ * The most recently added keys are also kept in a ring and replayed into rebuilt filters:
+ * a key added before a rebuild whose row commits after the rebuild's snapshot is in neither.
+ */
+@Component
+@Slf4j
+public class UserExistenceFilter {
+
+    private final UserRepository userRepository;
+
+    @Value("${user.existence-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.existence-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${user.existence-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /** Adds a rebuild replays; covers writes in flight when it starts, however long it runs */
+    private static final int RECENT_KEYS = 4096;
+
+    private volatile Filters current;
+    private volatile Filters building;
+    private final AtomicLong deletesSinceRebuild = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicReferenceArray<RecentKey> recentKeys = new AtomicReferenceArray<>(RECENT_KEYS);
+    private final AtomicLong recentKeyCount = new AtomicLong();
+
+    public UserExistenceFilter(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reseed the filters from the table; keys added while seeding go into both the old and the new filters,
+     * and the most recent keys added before it are replayed, as their rows may commit after the snapshot.
+     * Not read-only, so the seed comes from the primary: a lagging replica would drop recent keys.
+     */
+    @Transactional
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            long rows = userRepository.count();
+            Filters filters = new Filters(Math.max(expectedInsertions, rows * 2), falsePositiveRate);
+            building = filters;
+            deletesSinceRebuild.set(0);
+            try (Stream<UserKeyView> keys = userRepository.streamAllKeys()) {
+                keys.forEach(key -> filters.add(key.getUserId(), key.getEmail()));
+                replayRecentKeys(filters);
+            } finally {
+                building = null;
+            }
+            current = filters;
+            log.info("Built user existence filters over {} rows ({} bytes) in {} ms",
+                    rows, filters.sizeInBytes(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Record keys that are about to be written; call before the insert or update is issued
+     */
+    public void add(Long userId, String email) {
+        recentKeys.set((int) (recentKeyCount.getAndIncrement() % RECENT_KEYS), new RecentKey(userId, email));
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(userId, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.add(userId, email);
+        }
+    }
+
+    /**
+     * Record that a row was deleted; its keys remain as false positives until the next rebuild
+     */
+    public void recordDelete() {
+        deletesSinceRebuild.incrementAndGet();
+    }
+
+    /**
+     * False only if no row can have this userId
+     */
+    public boolean mightContainUserId(Long userId) {
+        Filters filters = current;
+        return filters == null || userId == null || filters.userIds.mightContain(BloomFilter.hash(userId));
+    }
+
+    /**
+     * False only if no row can have this email
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return filters == null || email == null || filters.emails.mightContain(BloomFilter.hash(email));
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Filters filters = current;
+        stats.put("enabled", enabled);
+        stats.put("ready", filters != null);
+        stats.put("deletesSinceRebuild", deletesSinceRebuild.get());
+        if (filters != null) {
+            stats.put("userIds", describe(filters.userIds));
+            stats.put("emails", describe(filters.emails));
+            stats.put("sizeInBytes", filters.sizeInBytes());
+        }
+        return stats;
+    }
+
+    private void replayRecentKeys(Filters filters) {
+        for (int i = 0; i < RECENT_KEYS; i++) {
+            RecentKey key = recentKeys.get(i);
+            if (key != null) {
+                filters.add(key.userId(), key.email());
+            }
+        }
+    }
+
+    private static Map<String, Object> describe(BloomFilter filter) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("expectedInsertions", filter.getExpectedInsertions());
+        description.put("insertions", filter.getInsertions());
+        description.put("bitSize", filter.getBitSize());
+        description.put("hashFunctions", filter.getHashFunctions());
+        description.put("estimatedFalsePositiveRate", filter.estimatedFalsePositiveRate());
+        return description;
+    }
+
+    private static final class Filters {
+
+        private final BloomFilter userIds;
+        private final BloomFilter emails;
+
+        private Filters(long expectedInsertions, double falsePositiveRate) {
+            this.userIds = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        private void add(Long userId, String email) {
+            if (userId != null) {
+                userIds.put(BloomFilter.hash(userId));
+            }
+            if (email != null) {
+                emails.put(BloomFilter.hash(email));
+            }
+        }
+
+        private long sizeInBytes() {
+            return userIds.getSizeInBytes() + emails.getSizeInBytes();
+        }
+    }
+
+    private record RecentKey(Long userId, String email) {
+    }
+}
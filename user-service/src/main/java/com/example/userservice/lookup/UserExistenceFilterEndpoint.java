@@ -0,0 +1,34 @@
+package com.example.userservice.lookup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the user existence filters
+ * GET /actuator/existencefilter shows sizing and false positive rates, POST rebuilds them from the table
+ */
+@Component
+@Endpoint(id = "existencefilter")
+public class UserExistenceFilterEndpoint {
+
+    private final UserExistenceFilter existenceFilter;
+
+    public UserExistenceFilterEndpoint(UserExistenceFilter existenceFilter) {
+        this.existenceFilter = existenceFilter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return existenceFilter.stats();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        existenceFilter.rebuild();
+        return existenceFilter.stats();
+    }
+}
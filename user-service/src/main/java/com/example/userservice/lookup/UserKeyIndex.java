@@ -0,0 +1,213 @@
+package com.example.userservice.lookup;
+
+import com.example.userservice.dto.UserKeyView;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap maps from userId and from email to the primary key of every user profile
+ * userIds are stored exactly; emails are stored as their 64-bit hash, so neither map keeps
+ * strings or boxed values on the heap. A mapping is a hint rather than a fact: callers verify
+ * the profile it leads to, and mappings left behind by deletes, email changes or hash collisions
+ * only cost the query they would have run anyway, after which they are removed.
+ */
+@Component
+@Slf4j
+public class UserKeyIndex {
+
+    public static final long NOT_FOUND = OffHeapLongIndex.NO_VALUE;
+
+    private final UserRepository userRepository;
+
+    @Value("${user.key-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.key-index.expected-users:1000000}")
+    private int expectedUsers;
+
+    private volatile Maps current;
+    private volatile Maps building;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public UserKeyIndex(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        gauge(meterRegistry, "user.key.index.entries", "userId", "Mappings held", maps -> maps.userIds.size());
+        gauge(meterRegistry, "user.key.index.entries", "email", "Mappings held", maps -> maps.emails.size());
+        gauge(meterRegistry, "user.key.index.bytes", "userId", "Off-heap bytes reserved",
+                maps -> maps.userIds.sizeInBytes());
+        gauge(meterRegistry, "user.key.index.bytes", "email", "Off-heap bytes reserved",
+                maps -> maps.emails.sizeInBytes());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload both maps from the table; keys written while loading go into both the old and the new maps
+     * Not read-only, so the keys come from the primary like the existence filter's.
+     */
+    @Transactional
+    public void rebuild() {
+        try (Stream<UserKeyView> keys = userRepository.streamAllKeys()) {
+            rebuild(userRepository.count(), keys);
+        }
+    }
+
+    /**
+     * Replace both maps with the given keys, sized for the expected row count plus a quarter for growth
+     */
+    public void rebuild(long rows, Stream<? extends UserKeyView> keys) {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            Maps maps = new Maps((int) Math.min(Math.max(expectedUsers, rows + rows / 4), Integer.MAX_VALUE));
+            building = maps;
+            try {
+                keys.forEach(key -> maps.put(key.getId(), key.getUserId(), key.getEmail()));
+            } finally {
+                building = null;
+            }
+            current = maps;
+            log.info("Built user key index over {} rows ({} off-heap bytes) in {} ms",
+                    rows, maps.sizeInBytes(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * The id last recorded for this userId, or NOT_FOUND
+     */
+    public long idOfUserId(Long userId) {
+        Maps maps = current;
+        return maps == null || userId == null ? NOT_FOUND : maps.userIds.get(BloomFilter.hash(userId));
+    }
+
+    /**
+     * The id last recorded for an email with this hash, or NOT_FOUND
+     */
+    public long idOfEmail(String email) {
+        Maps maps = current;
+        return maps == null || email == null ? NOT_FOUND : maps.emails.get(BloomFilter.hash(email));
+    }
+
+    /**
+     * Record the keys of a committed or loaded profile; either key may be null
+     */
+    public void put(Long id, Long userId, String email) {
+        if (id == null) {
+            return;
+        }
+        Maps maps = current;
+        if (maps != null) {
+            maps.put(id, userId, email);
+        }
+        Maps next = building;
+        if (next != null) {
+            next.put(id, userId, email);
+        }
+    }
+
+    /**
+     * Drop the userId's mapping if it still leads to this id
+     */
+    public void removeUserId(Long userId, long id) {
+        if (userId != null) {
+            remove(BloomFilter.hash(userId), id, true);
+        }
+    }
+
+    /**
+     * Drop the email's mapping if it still leads to this id
+     */
+    public void removeEmail(String email, long id) {
+        if (email != null) {
+            remove(BloomFilter.hash(email), id, false);
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public int size() {
+        Maps maps = current;
+        return maps == null ? 0 : maps.userIds.size();
+    }
+
+    public long sizeInBytes() {
+        Maps maps = current;
+        return maps == null ? 0 : maps.sizeInBytes();
+    }
+
+    private void remove(long key, long id, boolean userId) {
+        Maps maps = current;
+        if (maps != null) {
+            (userId ? maps.userIds : maps.emails).remove(key, id);
+        }
+        Maps next = building;
+        if (next != null) {
+            (userId ? next.userIds : next.emails).remove(key, id);
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String key, String description,
+                       ToDoubleFunction<Maps> value) {
+        Gauge.builder(name, this, index -> {
+                    Maps maps = index.current;
+                    return maps == null ? 0 : value.applyAsDouble(maps);
+                })
+                .tag("key", key)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private static final class Maps {
+
+        private final OffHeapLongIndex userIds;
+        private final OffHeapLongIndex emails;
+
+        private Maps(int expectedUsers) {
+            this.userIds = new OffHeapLongIndex(expectedUsers);
+            this.emails = new OffHeapLongIndex(expectedUsers);
+        }
+
+        /**
+         * Loaded profiles are recorded on every cache miss, so skip the write lock when nothing changed
+         */
+        private void put(long id, Long userId, String email) {
+            if (userId != null) {
+                long key = BloomFilter.hash(userId);
+                if (userIds.get(key) != id) {
+                    userIds.put(key, id);
+                }
+            }
+            if (email != null) {
+                long key = BloomFilter.hash(email);
+                if (emails.get(key) != id) {
+                    emails.put(key, id);
+                }
+            }
+        }
+
+        private long sizeInBytes() {
+            return userIds.sizeInBytes() + emails.sizeInBytes();
+        }
+    }
+}
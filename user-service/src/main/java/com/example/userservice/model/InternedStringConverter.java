@@ -0,0 +1,30 @@
+package com.example.userservice.model;
+
+import com.example.userservice.cache.StringInterner;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Replaces each value Hibernate hydrates with its pooled copy from the StringInterner
+ * Only for columns with few distinct values; writes pass through unchanged. Hibernate obtains the
+ * converter from the Spring context, which supplies the interner.
+ */
+@Converter
+public class InternedStringConverter implements AttributeConverter<String, String> {
+
+    private final StringInterner stringInterner;
+
+    public InternedStringConverter(StringInterner stringInterner) {
+        this.stringInterner = stringInterner;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return attribute;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return stringInterner.intern(dbData);
+    }
+}
@@ -5,24 +5,33 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreatedDate;
+import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_profiles")
+@Table(name = "user_profiles", uniqueConstraints = {
+        @UniqueConstraint(name = UserProfile.USER_ID_CONSTRAINT, columnNames = "user_id"),
+        @UniqueConstraint(name = UserProfile.EMAIL_CONSTRAINT, columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_user_profiles_created_at_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserProfile {
 
+    public static final String USER_ID_CONSTRAINT = "uk_user_profiles_user_id";
+
+    public static final String EMAIL_CONSTRAINT = "uk_user_profiles_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotNull(message = "User ID is required")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private Long userId;
 
     @NotBlank(message = "First name is required")
@@ -36,7 +45,7 @@ public class UserProfile {
     private String lastName;
 
     @Email(message = "Email should be valid")
-    @Column(unique = true, length = 100)
+    @Column(length = 100)
     private String email;
 
     @Size(max = 20, message = "Phone number must be less than 20 characters")
@@ -48,21 +57,24 @@ public class UserProfile {
 
     @Size(max = 50, message = "City must be less than 50 characters")
     @Column(length = 50)
+    @Convert(converter = InternedStringConverter.class)
     private String city;
 
     @Size(max = 50, message = "State must be less than 50 characters")
     @Column(length = 50)
+    @Convert(converter = InternedStringConverter.class)
     private String state;
 
     @Size(max = 50, message = "Country must be less than 50 characters")
     @Column(length = 50)
+    @Convert(converter = InternedStringConverter.class)
     private String country;
 
     @Size(max = 10, message = "Zip code must be less than 10 characters")
     @Column(name = "zip_code", length = 10)
     private String zipCode;
 
-    @CreatedDate
+    @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -70,6 +82,11 @@ public class UserProfile {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Existing rows start at 0; partial updates compare and bump it in their WHERE and SET clauses
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
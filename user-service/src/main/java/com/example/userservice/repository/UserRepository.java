@@ -1,21 +1,32 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserKeyView;
+import com.example.userservice.dto.UserNameView;
 import com.example.userservice.model.UserProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserProfile, Long> {
+public interface UserRepository extends JpaRepository<UserProfile, Long>, UserRepositoryCustom {
 
     Optional<UserProfile> findByUserId(Long userId);
 
     Optional<UserProfile> findByEmail(String email);
 
+    List<UserProfile> findByUserIdIn(Collection<Long> userIds);
+
     boolean existsByUserId(Long userId);
 
     boolean existsByEmail(String email);
@@ -29,6 +40,35 @@ public interface UserRepository extends JpaRepository<UserProfile, Long> {
            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<UserProfile> searchByName(@Param("searchTerm") String searchTerm);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM UserProfile u ORDER BY u.id")
+    Stream<UserProfile> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.userId AS userId, u.email AS email FROM UserProfile u")
+    Stream<UserKeyView> streamAllKeys();
+
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName FROM UserProfile u")
+    List<UserNameView> findAllNames();
+
+    /**
+     * @deprecated loads the whole table, use the keyset feed queries instead
+     */
+    @Deprecated
     @Query("SELECT u FROM UserProfile u ORDER BY u.createdAt DESC")
     List<UserProfile> findAllOrderedByCreatedDate();
+
+    @Query("SELECT u FROM UserProfile u ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserProfile> findFeedFirstPage(Pageable pageable);
+
+    @Query("SELECT u FROM UserProfile u WHERE u.createdAt <= :createdAt AND " +
+           "(u.createdAt < :createdAt OR u.id < :id) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserProfile> findFeedPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
 }
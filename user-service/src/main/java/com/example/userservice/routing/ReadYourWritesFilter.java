@@ -0,0 +1,120 @@
+package com.example.userservice.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Keeps a client's reads on the primary for read-your-writes-ms after it wrote
+ * A request that writes gets a cookie holding the end of the window; requests carrying an
+ * unexpired cookie are pinned to the primary, so replica lag never hides the client's own writes
+ */
+@Component
+@ConditionalOnProperty(prefix = "user.read-replicas", name = "enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "primary-until";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(@Value("${user.read-replicas.read-your-writes-ms:5000}") long windowMillis) {
+        this.window = Duration.ofMillis(windowMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.begin(pinnedUntil(request) > System.currentTimeMillis());
+        try {
+            chain.doFilter(request, new WindowResponse(response));
+            if (!response.isCommitted()) {
+                setCookie(response);
+            }
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Open the window once per request, if the request wrote
+     */
+    private void setCookie(HttpServletResponse response) {
+        if (!ReadYourWrites.claimWindow()) {
+            return;
+        }
+        long until = System.currentTimeMillis() + window.toMillis();
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(until))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /**
+     * Sets the cookie before the body starts, while headers can still be added
+     */
+    private final class WindowResponse extends HttpServletResponseWrapper {
+
+        private WindowResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setCookie(this);
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCookie(this);
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCookie(this);
+            super.flushBuffer();
+        }
+    }
+}
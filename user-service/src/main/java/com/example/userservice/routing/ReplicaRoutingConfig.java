@@ -0,0 +1,75 @@
+package com.example.userservice.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read Replica Routing Configuration
+ * Replaces the auto-configured pool with a primary pool and one pool per replica URL, all sharing
+ * the spring.datasource credentials and hikari settings. Read-only transactions go to a replica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "user.read-replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private static final String DEFAULT_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = "
+            + "pg_last_wal_replay_lsn() THEN 0 ELSE COALESCE(EXTRACT(EPOCH FROM now() - "
+            + "pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties properties, Environment environment,
+                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${user.read-replicas.urls:}") List<String> urls,
+                                       @Value("${user.read-replicas.max-lag-ms:5000}") long maxLagMillis,
+                                       @Value("${user.read-replicas.lag-query:" + DEFAULT_LAG_QUERY + "}")
+                                       String lagQuery) {
+        HikariDataSource primary = pool(properties, environment, meterRegistry, properties.determineUrl(),
+                ReplicaRouter.PRIMARY);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.isBlank()) {
+                replicas.add(pool(properties, environment, meterRegistry, url.trim(), "replica-" + replicas.size()));
+            }
+        }
+        return new ReplicaRouter(primary, replicas, maxLagMillis, lagQuery);
+    }
+
+    /**
+     * Connections are only fetched once the statement runs, after the transaction is marked read-only
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaRouter);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // The pools are not beans, so the Hikari metrics are not bound for them automatically
+        meterRegistry.ifAvailable(pool::setMetricRegistry);
+        return pool;
+    }
+}
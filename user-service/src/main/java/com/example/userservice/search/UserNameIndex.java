@@ -0,0 +1,260 @@
+package com.example.userservice.search;
+
+import com.example.userservice.dto.UserNameView;
+import com.example.userservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram index over user first and last names
+ * Answers case-insensitive substring searches without scanning user_profiles
+ */
+@Component
+@Slf4j
+public class UserNameIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public UserNameIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Build the index from the database once the application has started
+     * Not read-only, so it reads the primary rather than a replica that may be behind.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        long start = System.nanoTime();
+        rebuild(userRepository.findAllNames());
+        log.info("Built user name index with {} entries and {} trigrams in {} ms",
+                entries.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replace the index contents with the given names
+     */
+    public void rebuild(Iterable<? extends UserNameView> names) {
+        ready = false;
+        entries.clear();
+        postings.clear();
+        for (UserNameView name : names) {
+            // Entries written concurrently while seeding are newer than the snapshot, keep them
+            entries.computeIfAbsent(name.getId(), id -> {
+                Entry entry = new Entry(id, normalize(name.getFirstName()), normalize(name.getLastName()));
+                addPostings(entry);
+                return entry;
+            });
+        }
+        ready = true;
+    }
+
+    /**
+     * Add or replace the names indexed for a user profile
+     */
+    public void index(Long id, String firstName, String lastName) {
+        entries.compute(id, (key, previous) -> {
+            Entry entry = new Entry(key, normalize(firstName), normalize(lastName));
+            if (previous != null) {
+                removePostings(previous);
+            }
+            addPostings(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Replace the first name, the last name or both of an indexed user profile;
+     * a null name keeps the indexed one, and profiles not in the index are left out
+     */
+    public void indexChangedNames(Long id, String firstName, String lastName) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            Entry entry = new Entry(key,
+                    firstName == null ? previous.firstName : normalize(firstName),
+                    lastName == null ? previous.lastName : normalize(lastName));
+            removePostings(previous);
+            addPostings(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Remove a user profile from the index
+     */
+    public void remove(Long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            removePostings(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Whether the index has been seeded and can answer searches
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Find the IDs of users whose first or last name contains the search term,
+     * ranked exact match first, then prefix, then word prefix, then plain substring
+     */
+    public List<Long> search(String searchTerm) {
+        if (searchTerm == null) {
+            return Collections.emptyList();
+        }
+        String needle = normalize(searchTerm);
+
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates(needle)) {
+            if (entry.contains(needle)) {
+                matches.add(entry);
+            }
+        }
+
+        matches.sort(Comparator.<Entry>comparingInt(entry -> entry.rank(needle))
+                .thenComparing(entry -> entry.lastName)
+                .thenComparing(entry -> entry.firstName)
+                .thenComparing(entry -> entry.id));
+
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    private Iterable<Entry> candidates(String needle) {
+        if (needle.length() < GRAM_LENGTH) {
+            // Too short to form a trigram, verify every entry
+            return entries.values();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(needle)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Entry> candidates = new ArrayList<>();
+        Set<Long> smallest = lists.get(0);
+        for (Long id : smallest) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            Entry entry = inAll ? entries.get(id) : null;
+            if (entry != null) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    private void addPostings(Entry entry) {
+        for (String gram : entry.grams()) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry.id);
+        }
+    }
+
+    private void removePostings(Entry entry) {
+        for (String gram : entry.grams()) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(entry.id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Normalized names of a single user profile
+     */
+    private static final class Entry {
+
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+
+        private Entry(Long id, String firstName, String lastName) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = UserNameIndex.grams(firstName);
+            grams.addAll(UserNameIndex.grams(lastName));
+            return grams;
+        }
+
+        private boolean contains(String needle) {
+            return firstName.contains(needle) || lastName.contains(needle);
+        }
+
+        private int rank(String needle) {
+            return Math.min(rank(firstName, needle), rank(lastName, needle));
+        }
+
+        private static int rank(String name, String needle) {
+            if (name.equals(needle)) {
+                return 0;
+            }
+            if (name.startsWith(needle)) {
+                return 1;
+            }
+            int index = name.indexOf(needle);
+            if (index < 0) {
+                return Integer.MAX_VALUE;
+            }
+            while (index >= 0) {
+                if (!Character.isLetterOrDigit(name.charAt(index - 1))) {
+                    return 2;
+                }
+                index = name.indexOf(needle, index + 1);
+            }
+            return 3;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.userservice.service;
+
+import com.example.userservice.model.UserProfile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for the user feed
+ * Encodes the (createdAt, id) keyset position of the last row of a page
+ */
+public final class FeedCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public FeedCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Cursor positioned after the given user profile
+     */
+    public static FeedCursor after(UserProfile userProfile) {
+        return new FeedCursor(userProfile.getCreatedAt(), userProfile.getId());
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     */
+    public static FeedCursor decode(String token) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid feed cursor: " + token, ex);
+        }
+
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid feed cursor: " + token);
+        }
+        try {
+            return new FeedCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid feed cursor: " + token, ex);
+        }
+    }
+
+    public String encode() {
+        String value = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.BatchLookupResult;
+import com.example.userservice.dto.UserFeedPage;
+import com.example.userservice.io.DataFormat;
 import com.example.userservice.model.UserProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +20,17 @@ public interface UserService {
      */
     List<UserProfile> findAll();
 
+    /**
+     * Get one page of user profiles
+     */
+    Page<UserProfile> findAll(Pageable pageable);
+
+    /**
+     * Stream all user profiles to the given output in the given format
+     * Returns the number of rows written
+     */
+    long exportAll(DataFormat format, OutputStream out) throws IOException;
+
     /**
      * Find user profile by ID
      */
@@ -27,6 +46,16 @@ public interface UserService {
      */
     Optional<UserProfile> findByEmail(String email);
 
+    /**
+     * Find user profiles by ID, in request order with explicit misses
+     */
+    BatchLookupResult<Long, UserProfile> findAllById(List<Long> ids);
+
+    /**
+     * Find user profiles by userId, in request order with explicit misses
+     */
+    BatchLookupResult<Long, UserProfile> findAllByUserId(List<Long> userIds);
+
     /**
      * Create new user profile
      */
@@ -37,6 +66,12 @@ public interface UserService {
      */
     UserProfile update(Long id, UserProfile userProfile);
 
+    /**
+     * Apply a JSON Merge Patch with one UPDATE guarded by the expected version
+     * Returns the new version
+     */
+    long patch(Long id, long expectedVersion, JsonNode patch);
+
     /**
      * Delete user profile by ID
      */
@@ -74,6 +109,15 @@ public interface UserService {
 
     /**
      * Get all users ordered by creation date
+     *
+     * @deprecated loads the whole table, use {@link #getFeed(String, int)} instead
      */
+    @Deprecated
     List<UserProfile> findAllOrderedByCreatedDate();
+
+    /**
+     * Get one page of users ordered by creation date, newest first,
+     * continuing after the given cursor (null for the first page)
+     */
+    UserFeedPage getFeed(String cursor, int size);
 }
@@ -1,27 +1,111 @@
 package com.example.userservice.service.impl;
 
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.dto.BatchLookupResult;
+import com.example.userservice.dto.UserFeedPage;
+import com.example.userservice.io.DataFormat;
+import com.example.userservice.io.ExportColumns;
+import com.example.userservice.io.ExportWriter;
+import com.example.userservice.lookup.UserExistenceFilter;
+import com.example.userservice.lookup.UserKeyIndex;
 import com.example.userservice.model.UserProfile;
+import com.example.userservice.patch.MergePatch;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.search.UserNameIndex;
+import com.example.userservice.service.FeedCursor;
 import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "user.service", description = "UserService calls", histogram = true)
 @Transactional
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    static final int MAX_FEED_PAGE_SIZE = 100;
+
+    static final int MAX_BATCH_KEYS = 1000;
+
+    /** Keeps each IN list well below driver bind-parameter limits and reuses a few statement shapes */
+    static final int BATCH_CHUNK_SIZE = 500;
+
+    static final ExportColumns<UserProfile> EXPORT_COLUMNS = new ExportColumns<UserProfile>()
+            .add("id", UserProfile::getId)
+            .add("userId", UserProfile::getUserId)
+            .add("firstName", UserProfile::getFirstName)
+            .add("lastName", UserProfile::getLastName)
+            .add("email", UserProfile::getEmail)
+            .add("phone", UserProfile::getPhone)
+            .add("address", UserProfile::getAddress)
+            .add("city", UserProfile::getCity)
+            .add("state", UserProfile::getState)
+            .add("country", UserProfile::getCountry)
+            .add("zipCode", UserProfile::getZipCode)
+            .add("createdAt", UserProfile::getCreatedAt)
+            .add("updatedAt", UserProfile::getUpdatedAt);
+
     private final UserRepository userRepository;
+    private final UserNameIndex userNameIndex;
+    private final UserExistenceFilter existenceFilter;
+    private final UserKeyIndex userKeyIndex;
+    private final UserCache userCache;
+    private final ObjectMapper objectMapper;
+    private final MergePatch<UserProfile> userPatch;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserNameIndex userNameIndex,
+                           UserExistenceFilter existenceFilter, UserKeyIndex userKeyIndex, UserCache userCache,
+                           ObjectMapper objectMapper, Validator validator) {
         this.userRepository = userRepository;
+        this.userNameIndex = userNameIndex;
+        this.existenceFilter = existenceFilter;
+        this.userKeyIndex = userKeyIndex;
+        this.userCache = userCache;
+        this.objectMapper = objectMapper;
+        this.userPatch = new MergePatch<>(UserProfile.class, objectMapper, validator)
+                .field("firstName", String.class)
+                .field("lastName", String.class)
+                .field("email", String.class)
+                .field("phone", String.class)
+                .field("address", String.class)
+                .field("city", String.class)
+                .field("state", String.class)
+                .field("country", String.class)
+                .field("zipCode", String.class);
     }
 
     @Override
@@ -33,45 +117,89 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
+    public Page<UserProfile> findAll(Pageable pageable) {
+        log.debug("Finding user profiles page: {}", pageable);
+        return userRepository.findAll(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAll(DataFormat format, OutputStream out) throws IOException {
+        log.info("Exporting all user profiles as {}", format);
+        try (Stream<UserProfile> profiles = userRepository.streamAll();
+             ExportWriter<UserProfile> writer = new ExportWriter<>(format, EXPORT_COLUMNS, out, objectMapper)) {
+            for (UserProfile profile : (Iterable<UserProfile>) profiles::iterator) {
+                writer.write(profile);
+                // Keep the persistence context from growing with the table
+                entityManager.detach(profile);
+            }
+            log.info("Exported {} user profiles", writer.getRowCount());
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * Point lookups only join an existing transaction, so cache hits never check out a connection
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<UserProfile> findById(Long id) {
         log.debug("Finding user profile by ID: {}", id);
-        return userRepository.findById(id);
+        return userCache.getById(id, userRepository::findById);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<UserProfile> findByUserId(Long userId) {
         log.debug("Finding user profile by userId: {}", userId);
-        return userRepository.findByUserId(userId);
+        return userCache.getByUserId(userId, userRepository::findById, userRepository::findByUserId);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<UserProfile> findByEmail(String email) {
         log.debug("Finding user profile by email: {}", email);
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email, userRepository::findById, userRepository::findByEmail);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public BatchLookupResult<Long, UserProfile> findAllById(List<Long> ids) {
+        log.debug("Finding {} user profiles by ID", ids.size());
+        Map<Long, UserProfile> found = userCache.getAllById(distinctKeys(ids),
+                misses -> loadInChunks(misses, userRepository::findAllById));
+        return BatchLookupResult.of(ids, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public BatchLookupResult<Long, UserProfile> findAllByUserId(List<Long> userIds) {
+        log.debug("Finding {} user profiles by userId", userIds.size());
+        Map<Long, UserProfile> found = userCache.getAllByUserId(distinctKeys(userIds),
+                misses -> loadInChunks(misses, userRepository::findByUserIdIn));
+        return BatchLookupResult.of(userIds, found);
     }
 
     @Override
     public UserProfile save(UserProfile userProfile) {
         log.info("Creating new user profile for userId: {}", userProfile.getUserId());
         
-        // Check if userId already exists
-        if (userProfile.getUserId() != null && userRepository.existsByUserId(userProfile.getUserId())) {
-            log.error("User with userId {} already exists", userProfile.getUserId());
-            throw new IllegalArgumentException("User with userId " + userProfile.getUserId() + " already exists");
-        }
-        
-        // Check if email already exists
-        if (userProfile.getEmail() != null && userRepository.existsByEmail(userProfile.getEmail())) {
-            log.error("User with email {} already exists", userProfile.getEmail());
-            throw new IllegalArgumentException("User with email " + userProfile.getEmail() + " already exists");
-        }
-        
         userProfile.setCreatedAt(LocalDateTime.now());
         userProfile.setUpdatedAt(LocalDateTime.now());
         
-        UserProfile savedProfile = userRepository.save(userProfile);
+        // Uniqueness of userId and email is enforced by the table constraints, so the insert is the
+        // only round trip and concurrent signups cannot race past a separate existence check
+        existenceFilter.add(userProfile.getUserId(), userProfile.getEmail());
+        UserProfile savedProfile;
+        try {
+            savedProfile = userRepository.saveAndFlush(userProfile);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateUniqueViolation(ex, userProfile.getUserId(), userProfile.getEmail());
+        }
+        afterCommit(() -> {
+            userNameIndex.index(savedProfile.getId(), savedProfile.getFirstName(), savedProfile.getLastName());
+            userKeyIndex.put(savedProfile.getId(), savedProfile.getUserId(), savedProfile.getEmail());
+        });
         log.info("Successfully created user profile with ID: {}", savedProfile.getId());
         
         return savedProfile;
@@ -92,10 +220,17 @@ public class UserServiceImpl implements UserService {
                     }
                     if (userProfile.getEmail() != null && !userProfile.getEmail().equals(existingProfile.getEmail())) {
                         // Check if new email is already taken
-                        if (userRepository.existsByEmail(userProfile.getEmail())) {
+                        if (existsByEmail(userProfile.getEmail())) {
                             throw new IllegalArgumentException("Email " + userProfile.getEmail() + " is already taken");
                         }
-                        existingProfile.setEmail(userProfile.getEmail());
+                        existenceFilter.add(null, userProfile.getEmail());
+                        String previousEmail = existingProfile.getEmail();
+                        String email = userProfile.getEmail();
+                        afterCommit(() -> {
+                            userKeyIndex.removeEmail(previousEmail, id);
+                            userKeyIndex.put(id, null, email);
+                        });
+                        existingProfile.setEmail(email);
                     }
                     if (userProfile.getPhone() != null) {
                         existingProfile.setPhone(userProfile.getPhone());
@@ -118,7 +253,10 @@ public class UserServiceImpl implements UserService {
                     
                     existingProfile.setUpdatedAt(LocalDateTime.now());
                     
+                    evictFromCache(id);
                     UserProfile updatedProfile = userRepository.save(existingProfile);
+                    afterCommit(() -> userNameIndex.index(
+                            id, updatedProfile.getFirstName(), updatedProfile.getLastName()));
                     log.info("Successfully updated user profile with ID: {}", id);
                     
                     return updatedProfile;
@@ -129,6 +267,48 @@ public class UserServiceImpl implements UserService {
                 });
     }
 
+    /**
+     * Only the patched columns are written, by one UPDATE that also checks and bumps the version;
+     * the profile is only looked up again to tell a missing profile from a stale version
+     */
+    @Override
+    public long patch(Long id, long expectedVersion, JsonNode patch) {
+        log.info("Patching user profile with ID: {} at version {}", id, expectedVersion);
+        Map<String, Object> changes = userPatch.changes(patch);
+        String email = (String) changes.get("email");
+        if (email != null) {
+            existenceFilter.add(null, email);
+        }
+
+        evictFromCache(id);
+        int updated;
+        try {
+            updated = userRepository.updateFields(id, expectedVersion, changes);
+        } catch (DataIntegrityViolationException ex) {
+            // userId cannot be patched, so only the email constraint can be the duplicate
+            throw translateUniqueViolation(ex, null, email);
+        }
+        if (updated == 0) {
+            if (!userRepository.existsById(id)) {
+                log.error("User profile with ID {} not found", id);
+                throw new IllegalArgumentException("User profile with ID " + id + " not found");
+            }
+            throw new OptimisticLockingFailureException(
+                    "User profile " + id + " is no longer at version " + expectedVersion);
+        }
+
+        if (email != null) {
+            // The previous email is not read back; its mapping is dropped when a lookup misses
+            afterCommit(() -> userKeyIndex.put(id, null, email));
+        }
+        if (changes.containsKey("firstName") || changes.containsKey("lastName")) {
+            afterCommit(() -> userNameIndex.indexChangedNames(
+                    id, (String) changes.get("firstName"), (String) changes.get("lastName")));
+        }
+        log.info("Successfully patched user profile with ID: {} to version {}", id, expectedVersion + 1);
+        return expectedVersion + 1;
+    }
+
     @Override
     public void deleteById(Long id) {
         log.info("Deleting user profile with ID: {}", id);
@@ -138,7 +318,12 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("User profile with ID " + id + " not found");
         }
         
+        evictFromCache(id);
         userRepository.deleteById(id);
+        afterCommit(() -> {
+            userNameIndex.remove(id);
+            existenceFilter.recordDelete();
+        });
         log.info("Successfully deleted user profile with ID: {}", id);
     }
 
@@ -151,12 +336,18 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public boolean existsByUserId(Long userId) {
+        if (!existenceFilter.mightContainUserId(userId)) {
+            return false;
+        }
         return userRepository.existsByUserId(userId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
+        if (!existenceFilter.mightContainEmail(email)) {
+            return false;
+        }
         return userRepository.existsByEmail(email);
     }
 
@@ -164,7 +355,20 @@ public class UserServiceImpl implements UserService {
     @Transactional(readOnly = true)
     public List<UserProfile> searchByName(String searchTerm) {
         log.debug("Searching users by name: {}", searchTerm);
-        return userRepository.searchByName(searchTerm);
+        if (!userNameIndex.isReady()) {
+            return userRepository.searchByName(searchTerm);
+        }
+
+        List<Long> rankedIds = userNameIndex.search(searchTerm);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserProfile> profilesById = userRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(UserProfile::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(profilesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -182,9 +386,111 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Deprecated
     @Transactional(readOnly = true)
     public List<UserProfile> findAllOrderedByCreatedDate() {
         log.debug("Finding all users ordered by created date");
         return userRepository.findAllOrderedByCreatedDate();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserFeedPage getFeed(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        log.debug("Fetching user feed page of size {} after cursor: {}", pageSize, cursor);
+
+        // Fetch one extra row to learn whether another page follows
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<UserProfile> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userRepository.findFeedFirstPage(limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            rows = userRepository.findFeedPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserProfile> items = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        String nextCursor = hasMore ? FeedCursor.after(items.get(items.size() - 1)).encode() : null;
+
+        return UserFeedPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Map a unique constraint violation on insert or patch to the error reported for duplicate users
+     */
+    private RuntimeException translateUniqueViolation(DataIntegrityViolationException ex, Long userId, String email) {
+        // Match on the column name so both the named constraints and database defaults are recognised;
+        // email is checked first because a userId violation can never mention it
+        String constraint = violatedConstraint(ex);
+        if (constraint.contains("email")) {
+            log.error("User with email {} already exists", email);
+            return new IllegalArgumentException("User with email " + email + " already exists");
+        }
+        if (constraint.contains("user_id")) {
+            log.error("User with userId {} already exists", userId);
+            return new IllegalArgumentException("User with userId " + userId + " already exists");
+        }
+        return ex;
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Evict a profile now and again after commit, so a concurrent read of the old row
+     * cannot leave it cached once the write is visible; should that read finish only after
+     * the new row has been cached again, the cache keeps the higher version
+     */
+    private void evictFromCache(Long id) {
+        userCache.evict(id);
+        afterCommit(() -> userCache.evict(id));
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately outside a transaction
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <K> List<K> distinctKeys(List<K> keys) {
+        if (keys.size() > MAX_BATCH_KEYS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_KEYS + " keys per batch, got " + keys.size());
+        }
+        if (keys.contains(null)) {
+            throw new IllegalArgumentException("Batch keys must not be empty");
+        }
+        return keys.stream().distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Run an IN-list query once per chunk of keys
+     */
+    private static <K> List<UserProfile> loadInChunks(List<K> keys, Function<List<K>, List<UserProfile>> query) {
+        List<UserProfile> loaded = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += BATCH_CHUNK_SIZE) {
+            loaded.addAll(query.apply(keys.subList(from, Math.min(keys.size(), from + BATCH_CHUNK_SIZE))));
+        }
+        return loaded;
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.userservice.slowquery;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * One statement execution that took longer than the slow-query threshold
+ * rows is the number of rows read or updated, or null when the driver did not report it
+ */
+@Value
+public class SlowQuery {
+
+    Instant timestamp;
+
+    long durationMs;
+
+    Long rows;
+
+    String sql;
+
+    String parameters;
+
+    String endpoint;
+}
@@ -0,0 +1,239 @@
+package com.example.userservice.slowquery;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logs every JDBC statement slower than the threshold with its bind parameters, row count and
+ * the controller method that ran it, and keeps it in the SlowQueryLog
+ * Fast statements cost one comparison. A slow SELECT is reported when its result set is closed,
+ * so its rows can be counted and the fetch time included.
+ */
+@Component
+@Slf4j
+public class SlowQueryListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final int MAX_PARAMETER_SETS = 10;
+    private static final int MAX_VALUE_LENGTH = 100;
+    private static final int MAX_OPEN_RESULTS = 16;
+
+    // Slow SELECTs whose rows are still being read, by statement; null on threads that never had one
+    private static final ThreadLocal<Map<Statement, OpenResult>> OPEN_RESULTS = new ThreadLocal<>();
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdMs;
+    private final boolean logParameters;
+    private final boolean countSelectRows;
+
+    public SlowQueryListener(SlowQueryLog slowQueryLog,
+                             @Value("${user.slow-query.threshold-ms:200}") long thresholdMs,
+                             @Value("${user.slow-query.log-parameters:true}") boolean logParameters,
+                             @Value("${user.slow-query.count-select-rows:true}") boolean countSelectRows) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMs = thresholdMs;
+        this.logParameters = logParameters;
+        this.countSelectRows = countSelectRows;
+    }
+
+    public long getThresholdMs() {
+        return thresholdMs;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMs) {
+            return;
+        }
+        OpenResult open = new OpenResult(execInfo.getElapsedTime(), sql(queryInfoList), parameters(queryInfoList),
+                endpoint());
+        if (!(execInfo.getResult() instanceof ResultSet)) {
+            finish(open, updateCount(execInfo.getResult()));
+            return;
+        }
+        if (!countSelectRows) {
+            finish(open, null);
+            return;
+        }
+        Map<Statement, OpenResult> openResults = OPEN_RESULTS.get();
+        if (openResults == null) {
+            openResults = new IdentityHashMap<>();
+            OPEN_RESULTS.set(openResults);
+        } else if (openResults.size() >= MAX_OPEN_RESULTS) {
+            // Result sets that were never closed through the proxy; report what was read
+            openResults.values().forEach(stale -> finish(stale, stale.rows));
+            openResults.clear();
+        }
+        openResults.put(execInfo.getStatement(), open);
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        Map<Statement, OpenResult> openResults = OPEN_RESULTS.get();
+        if (openResults == null || openResults.isEmpty()) {
+            return;
+        }
+        Object target = executionContext.getTarget();
+        String method = executionContext.getMethod().getName();
+        if (target instanceof ResultSet resultSet) {
+            if ("next".equals(method) && Boolean.TRUE.equals(executionContext.getResult())) {
+                OpenResult open = openResults.get(statementOf(resultSet));
+                if (open != null) {
+                    open.rows++;
+                }
+            } else if ("close".equals(method)) {
+                close(openResults, statementOf(resultSet));
+            }
+        } else if (target instanceof Statement statement && "close".equals(method)) {
+            close(openResults, statement);
+        }
+    }
+
+    private void close(Map<Statement, OpenResult> openResults, Statement statement) {
+        OpenResult open = statement == null ? null : openResults.remove(statement);
+        if (open != null) {
+            finish(open, open.rows);
+        }
+    }
+
+    private void finish(OpenResult open, Long rows) {
+        SlowQuery query = new SlowQuery(open.timestamp, open.durationMs(), rows, open.sql, open.parameters,
+                open.endpoint);
+        log.warn("Slow query took {} ms for {} rows in {}: {} {}", query.getDurationMs(), rows, query.getEndpoint(),
+                query.getSql(), query.getParameters() == null ? "" : query.getParameters());
+        slowQueryLog.record(query);
+    }
+
+    private static Statement statementOf(ResultSet resultSet) {
+        try {
+            return resultSet.getStatement();
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    private static Long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return null;
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+
+    private String parameters(List<QueryInfo> queryInfoList) {
+        if (!logParameters) {
+            return null;
+        }
+        List<String> sets = new ArrayList<>();
+        for (QueryInfo queryInfo : queryInfoList) {
+            for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+                if (sets.size() == MAX_PARAMETER_SETS) {
+                    sets.add("...");
+                    return String.join(" ", sets);
+                }
+                sets.add(operations.stream().map(SlowQueryListener::value)
+                        .collect(Collectors.joining(", ", "[", "]")));
+            }
+        }
+        return sets.isEmpty() ? null : String.join(" ", sets);
+    }
+
+    private static String value(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if ("setNull".equals(operation.getMethod().getName()) || args.length < 2 || args[1] == null) {
+            return "null";
+        }
+        String value = String.valueOf(args[1]);
+        return value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) + "..." : value;
+    }
+
+    /**
+     * The request mapping and controller method being served on this thread, if any
+     */
+    private static String endpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "no request (" + Thread.currentThread() + ")";
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        Object handler = attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        String method = attributes instanceof ServletRequestAttributes servletAttributes
+                ? servletAttributes.getRequest().getMethod() : "";
+        String target = handler instanceof HandlerMethod handlerMethod
+                ? handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName()
+                : String.valueOf(handler);
+        return method + " " + pattern + " -> " + target;
+    }
+
+    private static final class OpenResult {
+
+        private final Instant timestamp = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final long executeMs;
+        private final String sql;
+        private final String parameters;
+        private final String endpoint;
+        private long rows;
+
+        private OpenResult(long executeMs, String sql, String parameters, String endpoint) {
+            this.executeMs = executeMs;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * Execution time plus the time spent reading rows since
+         */
+        private long durationMs() {
+            return executeMs + (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.userservice.slowquery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rolling view of the slowest statements: the top N recorded within the last window
+ * Kept as a min-heap on duration, so a new entry only has to beat the fastest one kept
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Comparator<SlowQuery> BY_DURATION = Comparator.comparingLong(SlowQuery::getDurationMs);
+
+    private final int capacity;
+    private final Duration window;
+    private final PriorityQueue<SlowQuery> slowest;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong recorded = new AtomicLong();
+
+    public SlowQueryLog(@Value("${user.slow-query.top-size:20}") int capacity,
+                        @Value("${user.slow-query.window-minutes:60}") long windowMinutes) {
+        this.capacity = capacity;
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.slowest = new PriorityQueue<>(capacity + 1, BY_DURATION);
+    }
+
+    public void record(SlowQuery query) {
+        recorded.incrementAndGet();
+        lock.lock();
+        try {
+            expire(Instant.now());
+            if (slowest.size() < capacity) {
+                slowest.add(query);
+            } else if (BY_DURATION.compare(query, slowest.peek()) > 0) {
+                slowest.poll();
+                slowest.add(query);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The slowest statements of the window, slowest first
+     */
+    public List<SlowQuery> top() {
+        List<SlowQuery> top;
+        lock.lock();
+        try {
+            expire(Instant.now());
+            top = new ArrayList<>(slowest);
+        } finally {
+            lock.unlock();
+        }
+        top.sort(BY_DURATION.reversed());
+        return top;
+    }
+
+    /**
+     * Number of slow statements seen since startup or the last clear
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            slowest.clear();
+            recorded.set(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expire(Instant now) {
+        Instant cutoff = now.minus(window);
+        slowest.removeIf(query -> query.getTimestamp().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.userservice.timing;
+
+/**
+ * Where the time of the current request went, reported in the W3C Server-Timing header
+ * One instance per request, bound to the request thread by ServerTimingFilter; all methods are
+ * no-ops for work outside a request, such as scheduled jobs or async exports
+ */
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long poolNanos;
+    private long dbNanos;
+    private long ormNanos;
+    private long serNanos;
+    private boolean serStreamed;
+    private int queries;
+    private long queryStartNanos;
+    private int repositoryDepth;
+    private long repositoryStartNanos;
+    private long jdbcNanosAtRepositoryStart;
+
+    private ServerTiming() {
+    }
+
+    static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    void addPoolWait(long nanos) {
+        poolNanos += nanos;
+    }
+
+    void queryStarted() {
+        queryStartNanos = System.nanoTime();
+    }
+
+    void queryFinished() {
+        dbNanos += System.nanoTime() - queryStartNanos;
+        queries++;
+    }
+
+    void addSerialization(long nanos) {
+        serNanos += nanos;
+    }
+
+    /**
+     * The body is streamed while it is serialized, so the header goes out without a ser metric
+     */
+    void serializationStreamed() {
+        serStreamed = true;
+    }
+
+    /**
+     * Time spent in repositories beyond their JDBC calls is Hibernate's: hydration, dirty checks, flushes
+     */
+    void repositoryEntered() {
+        if (repositoryDepth++ == 0) {
+            repositoryStartNanos = System.nanoTime();
+            jdbcNanosAtRepositoryStart = poolNanos + dbNanos;
+        }
+    }
+
+    void repositoryExited() {
+        if (--repositoryDepth == 0) {
+            long jdbcNanos = poolNanos + dbNanos - jdbcNanosAtRepositoryStart;
+            ormNanos += Math.max(0, System.nanoTime() - repositoryStartNanos - jdbcNanos);
+        }
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    /**
+     * e.g. pool;dur=0.012, db;dur=1.250;desc="2 queries", orm;dur=0.301, ser;dur=0.094, total;dur=2.113
+     * ser is left out for a streamed body
+     */
+    public String headerValue() {
+        StringBuilder value = new StringBuilder(112);
+        appendMetric(value, "pool", poolNanos).append(", ");
+        appendMetric(value, "db", dbNanos).append(";desc=\"").append(queries)
+                .append(queries == 1 ? " query\", " : " queries\", ");
+        appendMetric(value, "orm", ormNanos).append(", ");
+        if (!serStreamed) {
+            appendMetric(value, "ser", serNanos).append(", ");
+        }
+        return appendMetric(value, "total", System.nanoTime() - startNanos).toString();
+    }
+
+    private static StringBuilder appendMetric(StringBuilder value, String name, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        value.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            value.append(fraction < 10 ? "00" : "0");
+        }
+        return value.append(fraction);
+    }
+}
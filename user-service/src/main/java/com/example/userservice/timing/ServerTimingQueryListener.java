@@ -0,0 +1,31 @@
+package com.example.userservice.timing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Adds every statement execution to the current request's timing; a JDBC batch counts once
+ */
+@Component
+public class ServerTimingQueryListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.queryStarted();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.queryFinished();
+        }
+    }
+}
@@ -18,8 +18,8 @@ class UserServiceApplicationTests {
 
     @Test
     void mainMethodTest() {
-        // Test that the main method runs without exceptions
-        String[] args = {};
+        // Test that the main method runs without exceptions, against H2 and on a free port
+        String[] args = {"--spring.profiles.active=test", "--server.port=0"};
         UserServiceApplication.main(args);
     }
 }
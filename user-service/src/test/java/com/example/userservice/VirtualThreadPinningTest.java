@@ -0,0 +1,62 @@
+package com.example.userservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails when service code takes a monitor, since a virtual thread that blocks while holding one
+ * pins its carrier thread on Java 21; use a ReentrantLock instead
+ */
+class VirtualThreadPinningTest {
+
+    @Test
+    void serviceClasses_UseNoSynchronized() throws Exception {
+        Path classes = Path.of(UserServiceApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> offenders = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".class"))::iterator) {
+                offenders.addAll(synchronizedMethods(file));
+            }
+        }
+        assertTrue(offenders.isEmpty(), "synchronized code found in " + offenders);
+    }
+
+    private static List<String> synchronizedMethods(Path classFile) throws IOException {
+        List<String> found = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(classFile)) {
+            ClassReader reader = new ClassReader(in);
+            reader.accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                                 String[] exceptions) {
+                    String method = reader.getClassName() + "." + name;
+                    if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                        found.add(method);
+                    }
+                    return new MethodVisitor(Opcodes.ASM9) {
+                        @Override
+                        public void visitInsn(int opcode) {
+                            if (opcode == Opcodes.MONITORENTER) {
+                                found.add(method);
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_DEBUG);
+        }
+        return found;
+    }
+}
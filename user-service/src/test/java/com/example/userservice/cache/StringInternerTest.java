@@ -0,0 +1,35 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.model.InternedStringConverter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StringInterner and InternedStringConverter
+ */
+class StringInternerTest {
+
+    @Test
+    void intern_ReturnsOneInstancePerValue() {
+        StringInterner interner = new StringInterner(true, 100);
+        InternedStringConverter converter = new InternedStringConverter(interner);
+
+        String first = converter.convertToEntityAttribute(new String("Lisbon"));
+        String second = converter.convertToEntityAttribute(new String("Lisbon"));
+
+        assertEquals("Lisbon", first);
+        assertSame(first, second);
+        assertNull(converter.convertToEntityAttribute(null));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    void intern_PassesValuesThroughWhenDisabled() {
+        StringInterner interner = new StringInterner(false, 100);
+        String value = new String("Lisbon");
+
+        assertSame(value, interner.intern(value));
+        assertEquals(0, interner.size());
+    }
+}
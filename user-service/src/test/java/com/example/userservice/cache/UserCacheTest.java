@@ -0,0 +1,129 @@
+package com.example.userservice.cache;
+
+import com.example.userservice.lookup.UserKeyIndex;
+import com.example.userservice.model.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserCache lookups by userId and email through the key index
+ */
+class UserCacheTest {
+
+    private UserKeyIndex keyIndex;
+    private UserCache cache;
+    private UserProfile john;
+
+    private final AtomicInteger idLoads = new AtomicInteger();
+    private final AtomicInteger keyLoads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        keyIndex = new UserKeyIndex(null, new SimpleMeterRegistry());
+        keyIndex.rebuild(0, Stream.empty());
+        cache = new UserCache(100, 60, keyIndex, new SimpleMeterRegistry());
+        john = profile(1L, 1001L, "john@example.com");
+    }
+
+    @Test
+    void getByUserId_ResolvedIdIsLoadedByPrimaryKey() {
+        keyIndex.put(1L, 1001L, "john@example.com");
+
+        assertEquals(Optional.of(john), cache.getByUserId(1001L, byId(john), byKey(Optional.empty())));
+        assertEquals(Optional.of(john), cache.getByUserId(1001L, byId(john), byKey(Optional.empty())));
+
+        assertEquals(1, idLoads.get());
+        assertEquals(0, keyLoads.get());
+    }
+
+    @Test
+    void getByEmail_ResolvedIdIsLoadedByPrimaryKey() {
+        keyIndex.put(1L, 1001L, "john@example.com");
+
+        assertEquals(Optional.of(john), cache.getByEmail("john@example.com", byId(john), byKey(Optional.empty())));
+
+        assertEquals(1, idLoads.get());
+        assertEquals(0, keyLoads.get());
+    }
+
+    @Test
+    void getByEmail_UnknownEmailRunsEmailQueryAndIsIndexed() {
+        assertEquals(Optional.of(john), cache.getByEmail("john@example.com", byId(john), byKey(Optional.of(john))));
+
+        assertEquals(0, idLoads.get());
+        assertEquals(1, keyLoads.get());
+        assertEquals(1L, keyIndex.idOfEmail("john@example.com"));
+    }
+
+    @Test
+    void getByEmail_StaleMappingFallsBackToEmailQuery() {
+        // John changed his email elsewhere, and Jane has taken the old one since
+        keyIndex.put(1L, 1001L, "john@example.com");
+        UserProfile moved = profile(1L, 1001L, "john.doe@example.com");
+        UserProfile jane = profile(2L, 1002L, "john@example.com");
+
+        assertEquals(Optional.of(jane), cache.getByEmail("john@example.com", byId(moved), byKey(Optional.of(jane))));
+
+        assertEquals(1, idLoads.get());
+        assertEquals(1, keyLoads.get());
+        assertEquals(2L, keyIndex.idOfEmail("john@example.com"));
+    }
+
+    @Test
+    void getByUserId_DeletedProfileDropsMapping() {
+        keyIndex.put(1L, 1001L, "john@example.com");
+
+        assertTrue(cache.getByUserId(1001L, id -> {
+            idLoads.incrementAndGet();
+            return Optional.empty();
+        }, byKey(Optional.empty())).isEmpty());
+
+        assertEquals(1, idLoads.get());
+        assertEquals(1, keyLoads.get());
+        assertEquals(UserKeyIndex.NOT_FOUND, keyIndex.idOfUserId(1001L));
+    }
+
+    @Test
+    void put_OlderVersionDoesNotReplaceNewer() {
+        UserProfile current = profile(1L, 1001L, "john.doe@example.com");
+        current.setVersion(2L);
+        john.setVersion(1L);
+
+        cache.put(current);
+        cache.put(john);
+
+        assertSame(current, cache.getById(1L, byId(john)).orElseThrow());
+        assertEquals(0, idLoads.get());
+        assertEquals(UserKeyIndex.NOT_FOUND, keyIndex.idOfEmail("john@example.com"));
+    }
+
+    private Function<Long, Optional<UserProfile>> byId(UserProfile profile) {
+        return id -> {
+            idLoads.incrementAndGet();
+            return id.equals(profile.getId()) ? Optional.of(profile) : Optional.empty();
+        };
+    }
+
+    private <K> Function<K, Optional<UserProfile>> byKey(Optional<UserProfile> result) {
+        return key -> {
+            keyLoads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static UserProfile profile(Long id, Long userId, String email) {
+        UserProfile profile = new UserProfile();
+        profile.setId(id);
+        profile.setUserId(userId);
+        profile.setEmail(email);
+        return profile;
+    }
+}
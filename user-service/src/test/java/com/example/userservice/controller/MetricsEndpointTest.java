@@ -0,0 +1,55 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that service timers, repository timers, Hibernate statistics and Hikari pool
+ * metrics all reach the Prometheus endpoint
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void prometheus_ExposesHotPathMetrics() throws Exception {
+        UserProfile user = new UserProfile();
+        user.setUserId(9015L);
+        user.setFirstName("Mia");
+        user.setLastName("Metrics");
+        user.setEmail("mia.metrics@example.com");
+        user = userRepository.save(user);
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}", -1L)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("user_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"findById\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("hibernate_statements_total{")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.userservice.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExportWriter
+ */
+class ExportWriterTest {
+
+    private static final ExportColumns<Map<String, Object>> COLUMNS = new ExportColumns<Map<String, Object>>()
+            .add("id", row -> row.get("id"))
+            .add("name", row -> row.get("name"));
+
+    @Test
+    void write_Ndjson() throws Exception {
+        String output = export(DataFormat.NDJSON);
+
+        assertEquals("{\"id\":1,\"name\":\"Doe, John\"}\n{\"id\":2,\"name\":\"Say \\\"hi\\\"\"}\n", output);
+    }
+
+    @Test
+    void write_CsvQuotesSpecialCharacters() throws Exception {
+        String output = export(DataFormat.CSV);
+
+        assertEquals("id,name\r\n1,\"Doe, John\"\r\n2,\"Say \"\"hi\"\"\"\r\n", output);
+    }
+
+    @Test
+    void fromParam_UnsupportedFormat() {
+        assertEquals(DataFormat.CSV, DataFormat.fromParam("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> DataFormat.fromParam("xml"));
+    }
+
+    private String export(DataFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Map<String, Object>> writer = new ExportWriter<>(format, COLUMNS, out, new ObjectMapper())) {
+            writer.write(Map.of("id", 1, "name", "Doe, John"));
+            writer.write(Map.of("id", 2, "name", "Say \"hi\""));
+            assertEquals(2, writer.getRowCount());
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.userservice.lookup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BloomFilter
+ */
+class BloomFilterTest {
+
+    @Test
+    void mightContain_NoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(BloomFilter.hash("user" + i + "@example.com"));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(BloomFilter.hash("user" + i + "@example.com")));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filter.put(BloomFilter.hash(i));
+        }
+
+        int falsePositives = 0;
+        for (long i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(BloomFilter.hash(i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives / 100_000.0 < 0.02, "false positive rate " + falsePositives / 100_000.0);
+        assertTrue(filter.estimatedFalsePositiveRate() < 0.02);
+    }
+
+    @Test
+    void constructor_RejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.userservice.lookup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffHeapLongIndex
+ */
+class OffHeapLongIndexTest {
+
+    @Test
+    void get_MatchesHashMapThroughPutsRemovesAndResizes() {
+        OffHeapLongIndex index = new OffHeapLongIndex(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // A small key space with clustered low bits forces long probe runs and backward shifts
+            long key = BloomFilter.hash((long) random.nextInt(20_000)) & 0xFFFF_0000_0000_3FFFL;
+            if (random.nextInt(3) == 0) {
+                Long value = expected.get(key);
+                if (value != null) {
+                    assertTrue(index.remove(key, value));
+                    expected.remove(key);
+                }
+            } else {
+                long value = 1 + random.nextInt(1_000_000);
+                index.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), index.get(entry.getKey()));
+        }
+        assertEquals(OffHeapLongIndex.NO_VALUE, index.get(BloomFilter.hash(-1L)));
+    }
+
+    @Test
+    void remove_OnlyDropsTheExpectedMapping() {
+        OffHeapLongIndex index = new OffHeapLongIndex(100);
+        index.put(7L, 1L);
+        index.put(7L, 2L);
+
+        assertFalse(index.remove(7L, 1L));
+        assertEquals(2L, index.get(7L));
+        assertTrue(index.remove(7L, 2L));
+        assertEquals(OffHeapLongIndex.NO_VALUE, index.get(7L));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void put_RejectsEmptyValue() {
+        OffHeapLongIndex index = new OffHeapLongIndex(100);
+
+        assertThrows(IllegalArgumentException.class, () -> index.put(7L, OffHeapLongIndex.NO_VALUE));
+    }
+
+    @Test
+    void constructor_SizesToAPowerOfTwoBelowThreeQuartersFull() {
+        assertEquals(256 * 16, new OffHeapLongIndex(150).sizeInBytes());
+        assertEquals(16 * 16, new OffHeapLongIndex(0).sizeInBytes());
+    }
+}
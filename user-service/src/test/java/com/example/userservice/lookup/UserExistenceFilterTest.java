@@ -0,0 +1,114 @@
+package com.example.userservice.lookup;
+
+import com.example.userservice.dto.UserKeyView;
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Keys written while the existence filters are rebuilt must survive the rebuild
+ * The table is a queue of committed rows; a rebuild streams a snapshot of it.
+ */
+class UserExistenceFilterTest {
+
+    private final Queue<UserKeyView> table = new ConcurrentLinkedQueue<>();
+    private UserExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.count()).thenAnswer(invocation -> (long) table.size());
+        when(userRepository.streamAllKeys()).thenAnswer(invocation -> List.copyOf(table).stream());
+
+        filter = new UserExistenceFilter(userRepository);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 10_000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        filter.rebuild();
+    }
+
+    @Test
+    void rebuild_KeepsKeyAddedBeforeItAndCommittedAfterSnapshot() {
+        filter.add(1001L, "john@example.com");
+
+        filter.rebuild();
+        table.add(key(1001L, "john@example.com"));
+
+        assertTrue(filter.mightContainUserId(1001L));
+        assertTrue(filter.mightContainEmail("john@example.com"));
+    }
+
+    @Test
+    void rebuild_ConcurrentWritersNeverLoseCommittedKeys() throws Exception {
+        int writers = 4;
+        int keysPerWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                long first = 1_000_000L * (w + 1);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long userId = first; userId < first + keysPerWriter; userId++) {
+                        filter.add(userId, "user" + userId + "@example.com");
+                        Thread.yield();
+                        table.add(key(userId, "user" + userId + "@example.com"));
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    filter.rebuild();
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers * keysPerWriter, table.size());
+        for (UserKeyView key : table) {
+            assertTrue(filter.mightContainUserId(key.getUserId()), "lost userId " + key.getUserId());
+            assertTrue(filter.mightContainEmail(key.getEmail()), "lost email " + key.getEmail());
+        }
+    }
+
+    private static UserKeyView key(Long userId, String email) {
+        return new UserKeyView() {
+            @Override
+            public Long getId() {
+                return userId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.userservice.lookup;
+
+import com.example.userservice.dto.UserKeyView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserKeyIndex
+ */
+class UserKeyIndexTest {
+
+    private UserKeyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserKeyIndex(null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void lookups_NotFoundUntilBuilt() {
+        index.put(1L, 1001L, "john@example.com");
+
+        assertFalse(index.isReady());
+        assertEquals(UserKeyIndex.NOT_FOUND, index.idOfUserId(1001L));
+        assertEquals(UserKeyIndex.NOT_FOUND, index.idOfEmail("john@example.com"));
+    }
+
+    @Test
+    void rebuild_ResolvesLoadedKeys() {
+        index.rebuild(2, Stream.of(key(1L, 1001L, "john@example.com"), key(2L, 1002L, null)));
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertEquals(1L, index.idOfUserId(1001L));
+        assertEquals(1L, index.idOfEmail("john@example.com"));
+        assertEquals(2L, index.idOfUserId(1002L));
+        assertEquals(UserKeyIndex.NOT_FOUND, index.idOfUserId(1003L));
+        assertEquals(UserKeyIndex.NOT_FOUND, index.idOfEmail(null));
+    }
+
+    @Test
+    void rebuild_KeepsKeysPutWhileLoading() {
+        index.rebuild(0, Stream.empty());
+        Stream<UserKeyView> keys = Stream.of(key(1L, 1001L, "john@example.com"))
+                .peek(key -> index.put(2L, 1002L, "jane@example.com"));
+
+        index.rebuild(1, keys);
+
+        assertEquals(1L, index.idOfUserId(1001L));
+        assertEquals(2L, index.idOfUserId(1002L));
+        assertEquals(2L, index.idOfEmail("jane@example.com"));
+    }
+
+    @Test
+    void remove_OnlyDropsMappingToThatId() {
+        index.rebuild(1, Stream.of(key(1L, 1001L, "john@example.com")));
+
+        index.removeEmail("john@example.com", 2L);
+        assertEquals(1L, index.idOfEmail("john@example.com"));
+
+        index.removeEmail("john@example.com", 1L);
+        index.removeUserId(1001L, 1L);
+        assertEquals(UserKeyIndex.NOT_FOUND, index.idOfEmail("john@example.com"));
+        assertEquals(UserKeyIndex.NOT_FOUND, index.idOfUserId(1001L));
+    }
+
+    @Test
+    void put_LaterIdReplacesEarlierOne() {
+        index.rebuild(1, Stream.of(key(1L, 1001L, "john@example.com")));
+
+        index.put(2L, null, "john@example.com");
+
+        assertEquals(2L, index.idOfEmail("john@example.com"));
+        assertEquals(1L, index.idOfUserId(1001L));
+    }
+
+    private static UserKeyView key(Long id, Long userId, String email) {
+        return new UserKeyView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
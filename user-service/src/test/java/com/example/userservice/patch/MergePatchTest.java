@@ -0,0 +1,63 @@
+package com.example.userservice.patch;
+
+import com.example.userservice.model.UserProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MergePatch
+ */
+class MergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MergePatch<UserProfile> patch = new MergePatch<>(UserProfile.class, objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator())
+            .field("firstName", String.class)
+            .field("email", String.class)
+            .field("city", String.class);
+
+    @Test
+    void changes_KeepsPatchOrderAndNulls() throws Exception {
+        Map<String, Object> changes = patch.changes(objectMapper.readTree(
+                "{\"email\": \"jane@example.com\", \"city\": null}"));
+
+        assertEquals(List.of("email", "city"), List.copyOf(changes.keySet()));
+        assertEquals("jane@example.com", changes.get("email"));
+        assertNull(changes.get("city"));
+    }
+
+    @Test
+    void changes_RejectsUndeclaredField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> patch.changes(objectMapper.readTree("{\"userId\": 7}")));
+    }
+
+    @Test
+    void changes_AppliesEntityConstraints() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> patch.changes(objectMapper.readTree("{\"firstName\": null}")));
+
+        assertTrue(ex.getMessage().contains("First name is required"));
+        assertThrows(IllegalArgumentException.class,
+                () -> patch.changes(objectMapper.readTree("{\"email\": \"not-an-email\"}")));
+    }
+
+    @Test
+    void changes_RejectsNonObjectPatch() {
+        assertThrows(IllegalArgumentException.class, () -> patch.changes(objectMapper.readTree("[1]")));
+    }
+
+    @Test
+    void updateStatement_GuardsAndBumpsVersion() {
+        assertEquals("UPDATE UserProfile e SET e.email = :email, e.city = :city, "
+                        + "e.updatedAt = :updatedAt, e.version = e.version + 1 WHERE e.id = :id AND e.version = :version",
+                MergePatch.updateStatement("UserProfile", List.of("email", "city")));
+    }
+}
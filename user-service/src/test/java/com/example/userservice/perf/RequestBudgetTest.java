@@ -0,0 +1,198 @@
+package com.example.userservice.perf;
+
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.lookup.UserExistenceFilter;
+import com.example.userservice.lookup.UserKeyIndex;
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.patch.MergePatch;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.search.UserNameIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Every user endpoint with its budget of SQL statements, allocated bytes and p95 latency
+ * A request over its statement or allocation budget fails the build. Statement budgets are exact
+ * expectations; allocation and latency budgets leave headroom over what the test profile measures
+ * and are logged for tightening. Latency depends on the machine, so a p95 over budget only logs a
+ * warning unless -Dperf.enforce-latency=true; -Dperf.latency-factor scales the latency budgets.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({StatementCountingListener.class, CountedAsyncSupport.class})
+@Slf4j
+class RequestBudgetTest {
+
+    private static final double LATENCY_FACTOR = Double.parseDouble(System.getProperty("perf.latency-factor", "1"));
+
+    private static final boolean ENFORCE_LATENCY = Boolean.getBoolean("perf.enforce-latency");
+
+    private static final int USERS = 60;
+
+    private static final String[] FIRST_NAMES = {"Anna", "Ben", "Clara", "David", "Emma", "Felix"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatementCountingListener statementCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserNameIndex userNameIndex;
+
+    @Autowired
+    private UserExistenceFilter existenceFilter;
+
+    @Autowired
+    private UserKeyIndex userKeyIndex;
+
+    private final AtomicLong sequence = new AtomicLong(1_000);
+    private final AtomicLong victimId = new AtomicLong();
+
+    private UserProfile anna;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userCache.evictAll();
+
+        for (int i = 1; i <= USERS; i++) {
+            userRepository.save(profile(i, FIRST_NAMES[i % FIRST_NAMES.length], "City " + i % 5));
+        }
+        anna = userRepository.findByUserId(6L).orElseThrow();
+
+        // Rows saved through the repository bypass the name index, the existence filter and the key index
+        userNameIndex.rebuild(userRepository.findAllNames());
+        existenceFilter.rebuild();
+        userKeyIndex.rebuild();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> requestsStayWithinBudget() {
+        RequestProfiler profiler = new RequestProfiler(mockMvc, statementCounter);
+        return budgets().stream().map(budget -> DynamicTest.dynamicTest(budget.getName(), () -> {
+            RequestProfile profile = profiler.profile(budget);
+            log.info("{}: {}", budget.getName(), profile);
+            long p95Budget = (long) (budget.getP95().toNanos() * LATENCY_FACTOR);
+            boolean withinLatency = profile.getP95().toNanos() <= p95Budget;
+            if (!withinLatency && !ENFORCE_LATENCY) {
+                log.warn("{}: p95 {} ms, budget {} ms", budget.getName(), profile.getP95().toMillis(),
+                        p95Budget / 1_000_000);
+            }
+            assertAll(budget.getName(),
+                    () -> assertTrue(profile.getStatements() <= budget.getStatements(),
+                            () -> profile.getStatements() + " SQL statements, budget " + budget.getStatements()),
+                    () -> assertTrue(profile.getAllocatedBytes() <= budget.getAllocatedBytes(),
+                            () -> profile.getAllocatedBytes() / 1024 + " KB allocated, budget "
+                                    + budget.getAllocatedBytes() / 1024),
+                    () -> assertTrue(withinLatency || !ENFORCE_LATENCY,
+                            () -> "p95 " + profile.getP95().toMillis() + " ms, budget " + p95Budget / 1_000_000));
+        }));
+    }
+
+    /**
+     * Reads first, then writes, so the writes do not change what the reads return
+     */
+    private List<RequestBudget> budgets() {
+        return List.of(
+                RequestBudget.of("GET /api/users/{id}", () -> get("/api/users/{id}", anna.getId()))
+                        .before(userCache::evictAll)
+                        .statements(1).allocatedKb(512).p95Millis(50),
+                RequestBudget.of("GET /api/users/{id} cached", () -> get("/api/users/{id}", anna.getId()))
+                        .statements(0).allocatedKb(256).p95Millis(20),
+                // The key index resolves the email to the cached profile's id
+                RequestBudget.of("GET /api/users/email/{email} cached",
+                                () -> get("/api/users/email/{email}", anna.getEmail()))
+                        .before(() -> userCache.put(anna))
+                        .statements(0).allocatedKb(256).p95Millis(20),
+                RequestBudget.of("GET /api/users?ids", () -> get("/api/users").param("ids", "1,2,3,4,5,999999"))
+                        .before(userCache::evictAll)
+                        .statements(1).allocatedKb(768).p95Millis(50),
+                RequestBudget.of("GET /api/users?userIds", () -> get("/api/users").param("userIds", "1,2,3,999999"))
+                        .before(userCache::evictAll)
+                        .statements(1).allocatedKb(768).p95Millis(50),
+                RequestBudget.of("GET /api/users", () -> get("/api/users"))
+                        .statements(1).allocatedKb(2048).p95Millis(100),
+                // Streamed row by row from one query
+                RequestBudget.of("GET /api/users/export", () -> get("/api/users/export"))
+                        .statements(1).allocatedKb(2048).p95Millis(100),
+                RequestBudget.of("GET /api/users/page", () -> get("/api/users/page").param("size", "20"))
+                        .statements(2).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/users/feed", () -> get("/api/users/feed").param("size", "20"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                RequestBudget.of("GET /api/users/search",
+                                () -> get("/api/users/search").param("name", "anna"))
+                        .statements(1).allocatedKb(1024).p95Millis(50),
+                // Answered by the existence filter
+                RequestBudget.of("GET /api/users/exists/email/{email}",
+                                () -> get("/api/users/exists/email/{email}", "nobody@example.com"))
+                        .statements(0).allocatedKb(256).p95Millis(20),
+                // Uniqueness is left to the table constraints, so the INSERT is the only statement
+                RequestBudget.of("POST /api/users", () -> post("/api/users")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(profileJson(sequence.incrementAndGet())))
+                        .status(201)
+                        .statements(1).allocatedKb(1024).p95Millis(100),
+                RequestBudget.of("PUT /api/users/{id}", () -> put("/api/users/{id}", anna.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"firstName\": \"Anna\", \"lastName\": \"Budget\", \"email\": \""
+                                        + anna.getEmail() + "\", \"city\": \"City 1\"}"))
+                        .statements(2).allocatedKb(1024).p95Millis(100),
+                RequestBudget.of("PATCH /api/users/{id}", () -> patch("/api/users/{id}", anna.getId())
+                                .contentType(MergePatch.MEDIA_TYPE)
+                                .header(HttpHeaders.IF_MATCH, currentVersion(anna.getId()))
+                                .content("{\"city\": \"City 2\"}"))
+                        .status(204)
+                        .statements(1).allocatedKb(768).p95Millis(100),
+                RequestBudget.of("DELETE /api/users/{id}", () -> delete("/api/users/{id}", victimId.get()))
+                        .before(() -> victimId.set(userRepository.save(
+                                profile(sequence.incrementAndGet(), "Victim", "City 1")).getId()))
+                        .status(204)
+                        .statements(3).allocatedKb(768).p95Millis(100)
+        );
+    }
+
+    private String currentVersion(Long id) {
+        return "\"" + userRepository.findById(id).orElseThrow().getVersion() + "\"";
+    }
+
+    private static String profileJson(long userId) {
+        return "{\"userId\": " + userId + ", \"firstName\": \"New\", \"lastName\": \"User\","
+                + " \"email\": \"new" + userId + "@example.com\", \"city\": \"City 1\"}";
+    }
+
+    private static UserProfile profile(long userId, String firstName, String city) {
+        UserProfile profile = new UserProfile();
+        profile.setUserId(userId);
+        profile.setFirstName(firstName);
+        profile.setLastName("Budget");
+        profile.setEmail("user" + userId + "@example.com");
+        profile.setCity(city);
+        return profile;
+    }
+}
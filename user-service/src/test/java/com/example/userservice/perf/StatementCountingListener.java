@@ -0,0 +1,41 @@
+package com.example.userservice.perf;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Counts JDBC executions on the calling thread, whoever issues them
+ * Picked up by DataSourceProxyConfig like any other listener bean; a JDBC batch counts as one
+ * execution because it is one round trip
+ */
+public class StatementCountingListener implements QueryExecutionListener {
+
+    private final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        count.get()[0]++;
+    }
+
+    public void reset() {
+        count.get()[0] = 0;
+    }
+
+    /**
+     * Charge statements counted on another thread to the calling one
+     */
+    public void add(int statements) {
+        count.get()[0] += statements;
+    }
+
+    public int count() {
+        return count.get()[0];
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.userservice.routing;
+
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routes reads between the primary and a second H2 database standing in for a replica
+ * Each database holds a differently named user, so the response shows which one answered.
+ */
+@SpringBootTest(properties = {
+        "user.read-replicas.enabled=true",
+        "user.read-replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "user.read-replicas.max-lag-ms=1000",
+        "user.read-replicas.lag-query=SELECT lag_ms FROM replica_status",
+        "user.read-replicas.lag-check-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:userreplica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("replica-schema.sql")).execute(replica.getDataSource());
+        replica.update("DELETE FROM user_profiles");
+        replica.update("DELETE FROM replica_status");
+        replica.update("INSERT INTO replica_status (lag_ms) VALUES (0)");
+        replica.update("INSERT INTO user_profiles (user_id, first_name, last_name, email, created_at, version)"
+                + " VALUES (1, 'FromReplica', 'Routing', 'replica@example.com', CURRENT_TIMESTAMP, 0)");
+
+        userRepository.deleteAll();
+        userRepository.save(profile(2L, "FromPrimary", "primary@example.com"));
+
+        replicaRouter.checkLag();
+    }
+
+    @Test
+    void readOnlyRequest_ReadsReplica() throws Exception {
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("FromReplica")))
+                .andExpect(content().string(not(containsString("FromPrimary"))));
+    }
+
+    @Test
+    void laggingReplica_ReadsPrimary() throws Exception {
+        replica.update("UPDATE replica_status SET lag_ms = 5000");
+        replicaRouter.checkLag();
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("FromPrimary")));
+    }
+
+    @Test
+    void write_PinsClientToPrimaryForItsWindow() throws Exception {
+        Cookie window = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": 3, \"firstName\": \"Written\", \"lastName\": \"Routing\","
+                                + " \"email\": \"written@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(window);
+
+        mockMvc.perform(get("/api/users").cookie(window))
+                .andExpect(content().string(containsString("Written")));
+        // Another client has no window and still reads the replica, which never received the write
+        mockMvc.perform(get("/api/users"))
+                .andExpect(content().string(not(containsString("Written"))));
+    }
+
+    private static UserProfile profile(Long userId, String firstName, String email) {
+        UserProfile profile = new UserProfile();
+        profile.setUserId(userId);
+        profile.setFirstName(firstName);
+        profile.setLastName("Routing");
+        profile.setEmail(email);
+        return profile;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.userservice.search;
+
+import com.example.userservice.dto.UserNameView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserNameIndex
+ */
+class UserNameIndexTest {
+
+    private UserNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserNameIndex(null);
+        index.rebuild(List.of(
+                name(1L, "John", "Doe"),
+                name(2L, "Johnny", "Walker"),
+                name(3L, "Mary", "Johnson"),
+                name(4L, "Anne", "Smith-John")
+        ));
+    }
+
+    @Test
+    void search_RanksExactThenPrefixThenWordThenSubstring() {
+        index.index(5L, "Bob", "Dejohn");
+
+        List<Long> result = index.search("john");
+
+        assertEquals(List.of(1L, 3L, 2L, 4L, 5L), result);
+    }
+
+    @Test
+    void search_IsCaseInsensitive() {
+        assertEquals(List.of(3L), index.search("JOHNS"));
+    }
+
+    @Test
+    void search_ShortTermScansEntries() {
+        assertEquals(List.of(1L), index.search("oe"));
+    }
+
+    @Test
+    void search_NoMatch() {
+        assertTrue(index.search("xyz").isEmpty());
+    }
+
+    @Test
+    void index_ReplacesPreviousNames() {
+        index.index(1L, "Richard", "Roe");
+
+        assertFalse(index.search("doe").contains(1L));
+        assertEquals(List.of(1L), index.search("richard"));
+    }
+
+    @Test
+    void remove_DropsEntry() {
+        index.remove(3L);
+
+        assertFalse(index.search("johnson").contains(3L));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void isReady_AfterRebuild() {
+        assertTrue(index.isReady());
+        assertFalse(new UserNameIndex(null).isReady());
+    }
+
+    private static UserNameView name(Long id, String firstName, String lastName) {
+        return new UserNameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getFirstName() {
+                return firstName;
+            }
+
+            @Override
+            public String getLastName() {
+                return lastName;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FeedCursor
+ */
+class FeedCursorTest {
+
+    @Test
+    void encodeDecode_RoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456000);
+
+        FeedCursor decoded = FeedCursor.decode(new FeedCursor(createdAt, 42L).encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void encode_IsUrlSafe() {
+        String token = new FeedCursor(LocalDateTime.of(2024, 3, 1, 12, 30), 7L).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_InvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.userservice.service;
 
-import com.example.userservice.dto.UserDTO;
-import com.example.userservice.exception.ResourceNotFoundException;
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.lookup.UserExistenceFilter;
+import com.example.userservice.lookup.UserKeyIndex;
 import com.example.userservice.model.UserProfile;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.search.UserNameIndex;
 import com.example.userservice.service.impl.UserServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -30,73 +39,77 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    @Mock
+    private UserNameIndex userNameIndex;
+
+    @Mock
+    private UserKeyIndex userKeyIndex;
+
+    @Mock
+    private Validator validator;
+
     private UserServiceImpl userService;
 
     private UserProfile testUser;
-    private UserDTO testUserDTO;
+    private UserProfile changes;
 
     @BeforeEach
     void setUp() {
+        UserCache userCache = new UserCache(100, 60, userKeyIndex, new SimpleMeterRegistry());
+        userService = new UserServiceImpl(userRepository, userNameIndex, new UserExistenceFilter(userRepository),
+                userKeyIndex, userCache, new ObjectMapper(), validator);
+
         testUser = new UserProfile();
         testUser.setId(1L);
+        testUser.setUserId(1001L);
         testUser.setFirstName("John");
         testUser.setLastName("Doe");
         testUser.setEmail("john.doe@example.com");
-        testUser.setPhoneNumber("1234567890");
-        testUser.setRole("USER");
-        testUser.setActive(true);
+        testUser.setPhone("1234567890");
         testUser.setCreatedAt(LocalDateTime.now());
         testUser.setUpdatedAt(LocalDateTime.now());
 
-        testUserDTO = UserDTO.builder()
-                .firstName("John")
-                .lastName("Doe")
-                .email("john.doe@example.com")
-                .phoneNumber("1234567890")
-                .role("USER")
-                .active(true)
-                .build();
+        changes = new UserProfile();
+        changes.setFirstName("Johnny");
+        changes.setCity("Springfield");
     }
 
     @Test
-    void createUser_Success() {
-        when(userRepository.save(any(UserProfile.class))).thenReturn(testUser);
+    void save_Success() {
+        when(userRepository.saveAndFlush(any(UserProfile.class))).thenReturn(testUser);
 
-        UserProfile result = userService.createUser(testUserDTO);
+        UserProfile result = userService.save(testUser);
 
         assertNotNull(result);
         assertEquals("John", result.getFirstName());
         assertEquals("john.doe@example.com", result.getEmail());
-        verify(userRepository, times(1)).save(any(UserProfile.class));
+        verify(userRepository, times(1)).saveAndFlush(any(UserProfile.class));
     }
 
     @Test
-    void getUserById_Success() {
+    void findById_Success() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
-        UserProfile result = userService.getUserById(1L);
+        Optional<UserProfile> result = userService.findById(1L);
 
-        assertNotNull(result);
-        assertEquals(1L, result.getId());
-        assertEquals("John", result.getFirstName());
+        assertTrue(result.isPresent());
+        assertEquals(1L, result.get().getId());
+        assertEquals("John", result.get().getFirstName());
     }
 
     @Test
-    void getUserById_NotFound() {
+    void findById_NotFound() {
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> {
-            userService.getUserById(999L);
-        });
+        assertTrue(userService.findById(999L).isEmpty());
     }
 
     @Test
-    void getAllUsers_Success() {
+    void findAll_Success() {
         List<UserProfile> users = Arrays.asList(testUser);
         when(userRepository.findAll()).thenReturn(users);
 
-        List<UserProfile> result = userService.getAllUsers();
+        List<UserProfile> result = userService.findAll();
 
         assertNotNull(result);
         assertEquals(1, result.size());
@@ -104,53 +117,79 @@ class UserServiceTest {
     }
 
     @Test
-    void updateUser_Success() {
+    void update_Success() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(UserProfile.class))).thenReturn(testUser);
+        when(userRepository.save(any(UserProfile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        UserProfile result = userService.updateUser(1L, testUserDTO);
+        UserProfile result = userService.update(1L, changes);
 
-        assertNotNull(result);
-        assertEquals("John", result.getFirstName());
+        assertEquals("Johnny", result.getFirstName());
+        assertEquals("Doe", result.getLastName());
+        assertEquals("Springfield", result.getCity());
         verify(userRepository, times(1)).save(any(UserProfile.class));
     }
 
     @Test
-    void deleteUser_Success() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        doNothing().when(userRepository).delete(any(UserProfile.class));
+    void update_NotFound() {
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
-        assertDoesNotThrow(() -> userService.deleteUser(1L));
-        verify(userRepository, times(1)).delete(any(UserProfile.class));
+        assertThrows(IllegalArgumentException.class, () -> userService.update(999L, changes));
+        verify(userRepository, never()).save(any(UserProfile.class));
     }
 
     @Test
-    void activateUser_Success() {
-        testUser.setActive(false);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(UserProfile.class))).thenReturn(testUser);
+    void deleteById_Success() {
+        when(userRepository.existsById(1L)).thenReturn(true);
 
-        UserProfile result = userService.activateUser(1L);
+        assertDoesNotThrow(() -> userService.deleteById(1L));
+        verify(userRepository, times(1)).deleteById(1L);
+    }
 
-        assertTrue(result.getActive());
-        verify(userRepository, times(1)).save(any(UserProfile.class));
+    @Test
+    void deleteById_NotFound() {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteById(999L));
+        verify(userRepository, never()).deleteById(anyLong());
     }
 
     @Test
-    void emailExists_True() {
+    void existsByEmail_True() {
         when(userRepository.existsByEmail("john.doe@example.com")).thenReturn(true);
 
-        Boolean result = userService.emailExists("john.doe@example.com");
-
-        assertTrue(result);
+        assertTrue(userService.existsByEmail("john.doe@example.com"));
     }
 
     @Test
-    void emailExists_False() {
+    void existsByEmail_False() {
         when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
 
-        Boolean result = userService.emailExists("new@example.com");
+        assertFalse(userService.existsByEmail("new@example.com"));
+    }
+
+    @Test
+    void patch_DuplicateEmailIsReportedAsDuplicate() {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode().put("email", "taken@example.com");
+        when(userRepository.updateFields(eq(1L), eq(3L), anyMap()))
+                .thenThrow(violation(UserProfile.EMAIL_CONSTRAINT));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> userService.patch(1L, 3L, patch));
+        assertEquals("User with email taken@example.com already exists", ex.getMessage());
+    }
+
+    @Test
+    void patch_OtherViolationIsNotReportedAsDuplicateEmail() {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode().putNull("firstName");
+        DataIntegrityViolationException notNull = violation("first_name_not_null");
+        when(userRepository.updateFields(eq(1L), eq(3L), anyMap())).thenThrow(notNull);
+
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.patch(1L, 3L, patch)));
+    }
 
-        assertFalse(result);
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraint));
     }
 }
@@ -0,0 +1,69 @@
+package com.example.userservice.slowquery;
+
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With a zero threshold every statement is slow, so each one must be recorded with its
+ * endpoint, bind parameters and row count
+ */
+@SpringBootTest(properties = "user.slow-query.threshold-ms=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SlowQueryListenerTest {
+
+    private static final String ENDPOINT = "GET /api/users/{id} -> UserController.getUserById";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Test
+    void select_RecordedWithEndpointParametersAndRows() throws Exception {
+        userCache.evictAll();
+        UserProfile anna = new UserProfile();
+        anna.setUserId(1L);
+        anna.setFirstName("Anna");
+        anna.setLastName("Slow");
+        anna.setEmail("anna.slow@example.com");
+        Long id = userRepository.save(anna).getId();
+        slowQueryLog.clear();
+
+        mockMvc.perform(get("/api/users/{id}", id)).andExpect(status().isOk());
+
+        SlowQuery query = slowQueryLog.top().stream()
+                .filter(recorded -> ENDPOINT.equals(recorded.getEndpoint()))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(query.getSql().toLowerCase().startsWith("select"));
+        assertEquals("[" + id + "]", query.getParameters());
+        assertEquals(1L, query.getRows());
+
+        mockMvc.perform(get("/actuator/slowqueries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.thresholdMs").value(0))
+                .andExpect(jsonPath("$.slowest[*].endpoint", hasItem(ENDPOINT)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.userservice.slowquery;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for SlowQueryLog
+ */
+class SlowQueryLogTest {
+
+    @Test
+    void top_KeepsSlowestSlowestFirst() {
+        SlowQueryLog log = new SlowQueryLog(3, 60);
+        for (long duration : new long[]{250, 900, 300, 1200, 210, 400}) {
+            log.record(query(Instant.now(), duration));
+        }
+
+        List<Long> durations = log.top().stream().map(SlowQuery::getDurationMs).toList();
+        assertEquals(List.of(1200L, 900L, 400L), durations);
+        assertEquals(6, log.getRecorded());
+    }
+
+    @Test
+    void top_DropsEntriesOlderThanWindow() {
+        SlowQueryLog log = new SlowQueryLog(3, 60);
+        log.record(query(Instant.now().minus(Duration.ofMinutes(90)), 5000));
+        log.record(query(Instant.now(), 300));
+
+        List<Long> durations = log.top().stream().map(SlowQuery::getDurationMs).toList();
+        assertEquals(List.of(300L), durations);
+    }
+
+    private static SlowQuery query(Instant timestamp, long durationMs) {
+        return new SlowQuery(timestamp, durationMs, 1L, "select 1", null, "test");
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.userservice.timing;
+
+import com.example.userservice.cache.UserCache;
+import com.example.userservice.model.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the Server-Timing header on JSON, cached and bodiless responses
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ServerTimingFilterTest {
+
+    private static final String HEADER_PATTERN = "pool;dur=\\d+\\.\\d{3}, db;dur=\\d+\\.\\d{3};desc=\"\\d+ quer(y|ies)\", "
+            + "orm;dur=\\d+\\.\\d{3}, ser;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private UserProfile profile;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userCache.evictAll();
+        UserProfile anna = new UserProfile();
+        anna.setUserId(1L);
+        anna.setFirstName("Anna");
+        anna.setLastName("Timing");
+        anna.setEmail("anna.timing@example.com");
+        profile = userRepository.save(anna);
+    }
+
+    @Test
+    void getUserById_ReportsQueryThenCacheHit() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", profile.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTiming.HEADER, matchesPattern(HEADER_PATTERN)))
+                .andExpect(header().string(ServerTiming.HEADER, containsString("desc=\"1 query\"")));
+
+        mockMvc.perform(get("/api/users/{id}", profile.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTiming.HEADER, containsString("desc=\"0 queries\"")));
+    }
+
+    @Test
+    void bodilessResponse_StillCarriesHeader() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", -1L))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(ServerTiming.HEADER, matchesPattern(HEADER_PATTERN)));
+    }
+
+    @Test
+    void actuator_NotTimed() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(header().doesNotExist(ServerTiming.HEADER));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.userservice.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Small JSON bodies are buffered so the header carries ser; large ones are streamed without it
+ */
+class ServerTimingHttpMessageConverterTest {
+
+    private static final int MAX_BUFFERED_BYTES = 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerTimingHttpMessageConverter converter =
+            new ServerTimingHttpMessageConverter(objectMapper, MAX_BUFFERED_BYTES);
+
+    @BeforeEach
+    void setUp() {
+        ServerTiming.begin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.end();
+    }
+
+    @Test
+    void smallBody_HeaderCarriesSerialization() throws IOException {
+        RecordingMessage message = new RecordingMessage();
+
+        converter.write(List.of("a", "b"), MediaType.APPLICATION_JSON, message);
+
+        assertEquals("[\"a\",\"b\"]", message.body.toString());
+        assertTrue(message.headerAtFirstWrite.contains(", ser;dur="), message.headerAtFirstWrite);
+    }
+
+    @Test
+    void largeBody_StreamedWithoutSerialization() throws IOException {
+        RecordingMessage message = new RecordingMessage();
+        List<String> values = IntStream.range(0, 1000).mapToObj(i -> "value-" + i).toList();
+
+        converter.write(values, MediaType.APPLICATION_JSON, message);
+
+        assertEquals(objectMapper.writeValueAsString(values), message.body.toString());
+        assertTrue(message.body.size() > MAX_BUFFERED_BYTES);
+        assertFalse(message.headerAtFirstWrite.contains("ser;dur="), message.headerAtFirstWrite);
+        assertTrue(message.headerAtFirstWrite.contains("total;dur="), message.headerAtFirstWrite);
+    }
+
+    /**
+     * Records the Server-Timing header as it was when the body was first requested, as a servlet commits it then
+     */
+    private static final class RecordingMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private String headerAtFirstWrite;
+
+        @Override
+        public OutputStream getBody() {
+            if (headerAtFirstWrite == null) {
+                headerAtFirstWrite = String.valueOf(headers.getFirst(ServerTiming.HEADER));
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Stands in for a streaming replica of the user_profiles table in ReplicaRoutingTest
+CREATE TABLE IF NOT EXISTS user_profiles (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL UNIQUE,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(100) UNIQUE,
+    phone VARCHAR(20),
+    address TEXT,
+    city VARCHAR(50),
+    state VARCHAR(50),
+    country VARCHAR(50),
+    zip_code VARCHAR(10),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+-- Answers the lag query the test configures in place of the PostgreSQL one
+CREATE TABLE IF NOT EXISTS replica_status (
+    lag_ms BIGINT
+);